@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import lombok.ToString;
+import oap.io.Files;
+import oap.json.Binder;
+import oap.reflect.TypeRef;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH json reports. A benchmark regresses when its score is worse than the baseline by more
+ * than {@code threshold} (0.1 = 10%): lower throughput, or higher time for the time based modes.
+ */
+public class BaselineComparator {
+    public static List<Regression> compare( Path baseline, Path current, double threshold ) {
+        var base = scores( baseline );
+        var regressions = new ArrayList<Regression>();
+
+        scores( current ).forEach( ( key, result ) -> {
+            var previous = base.get( key );
+            if( previous == null ) return;
+
+            var b = previous.primaryMetric.score;
+            var c = result.primaryMetric.score;
+            if( b == 0 ) return;
+
+            var change = "thrpt".equals( result.mode ) ? ( b - c ) / b : ( c - b ) / b;
+            if( change > threshold ) regressions.add( new Regression( key, b, c, result.primaryMetric.scoreUnit, change ) );
+        } );
+
+        return regressions;
+    }
+
+    static Map<String, Result> scores( Path path ) {
+        var results = Binder.json.unmarshal( new TypeRef<List<Result>>() {}, Files.readString( path ) );
+        var scores = new LinkedHashMap<String, Result>();
+        for( var result : results ) scores.put( result.key(), result );
+        return scores;
+    }
+
+    @ToString
+    public static class Regression {
+        public final String benchmark;
+        public final double baseline;
+        public final double score;
+        public final String unit;
+        public final double change;
+
+        public Regression( String benchmark, double baseline, double score, String unit, double change ) {
+            this.benchmark = benchmark;
+            this.baseline = baseline;
+            this.score = score;
+            this.unit = unit;
+            this.change = change;
+        }
+    }
+
+    public static class Result {
+        public String benchmark;
+        public String mode;
+        public int threads;
+        public Map<String, String> params;
+        public Metric primaryMetric;
+
+        String key() {
+            var key = benchmark + ":" + mode + ":" + threads;
+            return params == null || params.isEmpty() ? key : key + ":" + new TreeMap<>( params );
+        }
+    }
+
+    public static class Metric {
+        public double score;
+        public double scoreError;
+        public String scoreUnit;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks and writes a json report (target/jmh-result.json unless {@code -rff} is given).
+ * With {@code -baseline <report.json>} the scores are compared against a stored report, and the process exits
+ * with 1 if any benchmark regressed by more than {@code -threshold} (default 0.1).
+ * <pre>
+ * java -jar oap-benchmarks/target/benchmarks.jar [jmh options] [-baseline baseline.json] [-threshold 0.1]
+ * </pre>
+ */
+@Slf4j
+public class Benchmarks {
+    public static void main( String[] args ) throws RunnerException, CommandLineOptionException {
+        Path baseline = null;
+        var threshold = 0.1;
+        var jmhArgs = new ArrayList<String>();
+        for( var i = 0; i < args.length; i++ ) {
+            switch( args[i] ) {
+                case "-baseline" -> baseline = Paths.get( args[++i] );
+                case "-threshold" -> threshold = Double.parseDouble( args[++i] );
+                default -> jmhArgs.add( args[i] );
+            }
+        }
+
+        var cmd = new CommandLineOptions( jmhArgs.toArray( new String[0] ) );
+        var result = Paths.get( cmd.getResult().orElse( "target/jmh-result.json" ) );
+        var options = new OptionsBuilder()
+            .parent( cmd )
+            .forks( cmd.getForkCount().orElse( 1 ) )
+            .warmupIterations( cmd.getWarmupIterations().orElse( 3 ) )
+            .warmupTime( cmd.getWarmupTime().orElse( TimeValue.seconds( 1 ) ) )
+            .measurementIterations( cmd.getMeasurementIterations().orElse( 5 ) )
+            .measurementTime( cmd.getMeasurementTime().orElse( TimeValue.seconds( 1 ) ) )
+            .resultFormat( ResultFormatType.JSON )
+            .result( result.toString() )
+            .build();
+
+        oap.io.Files.ensureFile( result );
+        new Runner( options ).run();
+
+        if( baseline != null ) {
+            List<BaselineComparator.Regression> regressions = BaselineComparator.compare( baseline, result, threshold );
+            for( var regression : regressions )
+                log.error( "{}: {} -> {} {} ({}%)", regression.benchmark, regression.baseline, regression.score,
+                    regression.unit, Math.round( regression.change * 100 ) );
+
+            if( !regressions.isEmpty() ) System.exit( 1 );
+            log.info( "no regressions against {}", baseline );
+        }
+    }
+}
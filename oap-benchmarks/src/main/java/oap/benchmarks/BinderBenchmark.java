@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.json.Binder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+
+@State( Scope.Benchmark )
+public class BinderBenchmark {
+    private Bean bean;
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        bean = new Bean();
+        bean.id = "id1";
+        bean.count = 42;
+        bean.tags = List.of( "a", "b", "c" );
+        bean.properties = Map.of( "k1", "v1", "k2", "v2" );
+        json = Binder.json.marshal( bean );
+        bytes = Binder.json.marshalToBytes( bean );
+    }
+
+    @Benchmark
+    public String marshal() {
+        return Binder.json.marshal( bean );
+    }
+
+    @Benchmark
+    public byte[] marshalToBytes() {
+        return Binder.json.marshalToBytes( bean );
+    }
+
+    @Benchmark
+    public Bean unmarshal() {
+        return Binder.json.unmarshal( Bean.class, json );
+    }
+
+    @Benchmark
+    public Bean unmarshalBytes() {
+        return Binder.json.unmarshal( Bean.class, bytes );
+    }
+
+    @Benchmark
+    public Bean cloneBean() {
+        return Binder.json.clone( bean );
+    }
+
+    public static class Bean {
+        public String id;
+        public int count;
+        public List<String> tags;
+        public Map<String, String> properties;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.util.BloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State( Scope.Benchmark )
+public class BloomFilterBenchmark {
+    private static final int ELEMENTS = 100000;
+
+    private BloomFilter<String> filter;
+    private String[] keys;
+    private int index;
+
+    @Setup
+    public void setup() {
+        filter = new BloomFilter<>( 0.001, ELEMENTS );
+        keys = new String[ELEMENTS * 2];
+        for( var i = 0; i < keys.length; i++ ) keys[i] = "key-" + i;
+        for( var i = 0; i < ELEMENTS; i++ ) filter.add( keys[i] );
+    }
+
+    @Benchmark
+    public boolean contains() {
+        index = ( index + 1 ) % keys.length;
+        return filter.contains( keys[index] );
+    }
+
+    @Benchmark
+    public void add() {
+        index = ( index + 1 ) % keys.length;
+        filter.add( keys[index] );
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.concurrent.CircularBuffer;
+import oap.concurrent.MpscCircularBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+@State( Scope.Benchmark )
+@Threads( 32 )
+public class CircularBufferBenchmark {
+    private static final Integer ELEMENT = 42;
+
+    private final CircularBuffer<Integer> synchronizedBuffer = new CircularBuffer<>( Integer.class, 1024 );
+    private final MpscCircularBuffer<Integer> mpscBuffer = new MpscCircularBuffer<>( Integer.class, 1024 );
+
+    @Benchmark
+    public void synchronizedAdd() {
+        synchronizedBuffer.add( ELEMENT );
+    }
+
+    @Benchmark
+    public void mpscAdd() {
+        mpscBuffer.add( ELEMENT );
+    }
+
+    @Benchmark
+    public Integer[] synchronizedSnapshot() {
+        synchronizedBuffer.add( ELEMENT );
+        return synchronizedBuffer.getElements();
+    }
+
+    @Benchmark
+    public Integer[] mpscSnapshot() {
+        mpscBuffer.add( ELEMENT );
+        return mpscBuffer.getElements();
+    }
+}
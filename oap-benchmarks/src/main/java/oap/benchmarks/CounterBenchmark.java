@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.util.AtomicCounter;
+import oap.util.Counter;
+import oap.util.CounterArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Increments from 8 threads: one shared counter, and a million counters picked at random.
+ */
+@State( Scope.Benchmark )
+@Threads( 8 )
+public class CounterBenchmark {
+    private static final int COUNTERS = 1_000_000;
+
+    private final Counter.HourlyCounter synchronizedCounter = new Counter.HourlyCounter();
+    private final AtomicCounter atomicCounter = new AtomicCounter.Hourly();
+    private final Counter.HourlyCounter[] synchronizedCounters = new Counter.HourlyCounter[COUNTERS];
+    private final CounterArray counterArray = new CounterArray( COUNTERS, Counter.HourlyCounter::currentTick );
+
+    {
+        for( var i = 0; i < COUNTERS; i++ ) synchronizedCounters[i] = new Counter.HourlyCounter();
+    }
+
+    @Benchmark
+    public void synchronizedShared() {
+        synchronizedCounter.inc();
+    }
+
+    @Benchmark
+    public void atomicShared() {
+        atomicCounter.inc();
+    }
+
+    @Benchmark
+    public void synchronizedMany() {
+        synchronizedCounters[ThreadLocalRandom.current().nextInt( COUNTERS )].inc();
+    }
+
+    @Benchmark
+    public void counterArrayMany() {
+        counterArray.inc( ThreadLocalRandom.current().nextInt( COUNTERS ) );
+    }
+}
@@ -21,36 +21,42 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
+package oap.benchmarks;
 
-package oap.concurrent.scheduler;
+import oap.util.Cuid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
 
-import org.quartz.Job;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.simpl.SimpleJobFactory;
-import org.quartz.spi.TriggerFiredBundle;
+@State( Scope.Benchmark )
+public class CuidBenchmark {
+    private static final Cuid.UniqueCuid cuid = ( Cuid.UniqueCuid ) Cuid.UNIQUE;
 
-import java.util.concurrent.ConcurrentHashMap;
+    @Benchmark
+    public String next() {
+        return Cuid.UNIQUE.next();
+    }
 
-public class FunctionJobFactory extends SimpleJobFactory {
-    private ConcurrentHashMap<JobKey, RunnableJob> jobs = new ConcurrentHashMap<>();
+    @Benchmark
+    public int nextIntoBuffer( Buffer buffer ) {
+        return cuid.next( buffer.chars, 0 );
+    }
 
-    @Override
-    public Job newJob( TriggerFiredBundle bundle, Scheduler scheduler ) throws SchedulerException {
-        JobDetail jobDetail = bundle.getJobDetail();
-        Job job = jobs.get( jobDetail.getKey() );
-        return job != null ? job : super.newJob( bundle, scheduler );
+    @Benchmark
+    @Threads( 4 )
+    public long nextLongContended() {
+        return Cuid.UNIQUE.nextLong();
     }
 
-    public RunnableJob register( JobDetail jobDetail, Runnable runnable ) {
-        var job = new RunnableJob( jobDetail, runnable );
-        jobs.put( jobDetail.getKey(), job );
-        return job;
+    @Benchmark
+    @Threads( 16 )
+    public int nextIntoBufferContended( Buffer buffer ) {
+        return cuid.next( buffer.chars, 0 );
     }
 
-    public void unregister( JobKey key ) {
-        jobs.remove( key );
+    @State( Scope.Thread )
+    public static class Buffer {
+        final char[] chars = new char[Cuid.UniqueCuid.LENGTH];
     }
 }
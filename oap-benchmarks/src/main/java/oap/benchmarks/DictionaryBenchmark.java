@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.dictionary.Dictionary;
+import oap.dictionary.DictionaryLeaf;
+import oap.dictionary.DictionaryRoot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+@State( Scope.Benchmark )
+public class DictionaryBenchmark {
+    private static final int VALUES = 1000;
+
+    private DictionaryRoot dictionary;
+    private String[] ids;
+    private int index;
+
+    @Setup
+    public void setup() {
+        var values = new ArrayList<DictionaryLeaf>();
+        ids = new String[VALUES];
+        for( var i = 0; i < VALUES; i++ ) {
+            ids[i] = "value" + i;
+            values.add( new DictionaryLeaf( ids[i], true, i + 1, Map.of() ) );
+        }
+        dictionary = new DictionaryRoot( "bench", values );
+    }
+
+    @Benchmark
+    public Integer getById() {
+        index = ( index + 1 ) % VALUES;
+        return dictionary.get( ids[index] );
+    }
+
+    @Benchmark
+    public String getByExternalId() {
+        index = ( index + 1 ) % VALUES;
+        return dictionary.getOrDefault( index + 1, null );
+    }
+
+    @Benchmark
+    public Dictionary getValue() {
+        index = ( index + 1 ) % VALUES;
+        return dictionary.getValue( ids[index] );
+    }
+}
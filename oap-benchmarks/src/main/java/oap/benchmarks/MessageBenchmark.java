@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.io.Files;
+import oap.message.MessageListener;
+import oap.message.MessageProtocol;
+import oap.message.MessageSender;
+import oap.message.MessageServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Round trip of a message through {@link MessageSender} and {@link MessageServer} on localhost.
+ * Every payload is unique, so the server deduplication does not short-cut the write.
+ */
+@State( Scope.Benchmark )
+public class MessageBenchmark {
+    private static final byte MESSAGE_TYPE = 1;
+
+    private Path directory;
+    private MessageServer server;
+    private MessageSender sender;
+    private long counter;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = java.nio.file.Files.createTempDirectory( "message" );
+        server = new MessageServer( directory.resolve( "state.st" ), 0, List.of( new Listener() ), -1 );
+        server.start();
+        sender = new MessageSender( "localhost", server.getPort(), directory.resolve( "sender" ) );
+        sender.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sender.close();
+        server.close();
+        Files.delete( directory );
+    }
+
+    @Benchmark
+    public Object sendObject() throws InterruptedException, ExecutionException, TimeoutException {
+        var data = ByteBuffer.allocate( 64 ).putLong( counter++ ).array();
+        return sender.sendObject( MESSAGE_TYPE, data ).get( 10, TimeUnit.SECONDS );
+    }
+
+    private static class Listener implements MessageListener {
+        @Override
+        public byte getId() {
+            return MESSAGE_TYPE;
+        }
+
+        @Override
+        public String getInfo() {
+            return "benchmark";
+        }
+
+        @Override
+        public short run( int version, String hostName, int size, byte[] data ) {
+            return MessageProtocol.STATUS_OK;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.message.MessageHashStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State( Scope.Benchmark )
+public class MessageHashStorageBenchmark {
+    private static final int CLIENTS = 16;
+    private static final int HASHES = 1024;
+
+    private MessageHashStorage storage;
+    private byte[][] md5;
+
+    @Setup
+    public void setup() {
+        storage = new MessageHashStorage( HASHES );
+        md5 = new byte[HASHES][];
+        for( var i = 0; i < HASHES; i++ ) {
+            md5[i] = ByteBuffer.allocate( 16 ).putLong( i ).putLong( ~i ).array();
+            for( var client = 0; client < CLIENTS; client++ ) storage.add( 1, client, md5[i] );
+        }
+    }
+
+    @Benchmark
+    @Threads( 4 )
+    public boolean contains() {
+        var random = ThreadLocalRandom.current();
+        return storage.contains( 1, random.nextInt( CLIENTS ), md5[random.nextInt( HASHES )] );
+    }
+
+    @Benchmark
+    @Threads( 4 )
+    public void add() {
+        var random = ThreadLocalRandom.current();
+        storage.add( 1, random.nextInt( CLIENTS ), md5[random.nextInt( HASHES )] );
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import com.google.common.collect.ListMultimap;
+import oap.http.Context;
+import oap.http.Protocol;
+import oap.http.Request;
+import oap.http.ServerHttpContext;
+import oap.http.Url;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.BasicHttpContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@State( Scope.Benchmark )
+public class RequestBenchmark {
+    private static final String QUERY = "pid=123&cid=a%20b&w=300&h=250&ua=Mozilla%2F5.0+(X11%3B+Linux+x86_64)"
+        + "&ref=https%3A%2F%2Fexample.com%2Fpage%3Fq%3D1&lang=en&tz=UTC&cb=1234567890&gdpr=1&consent=CO1abcdefgh";
+    private static final String URI = "/ad/show?" + QUERY;
+
+    private BasicHttpRequest underlying;
+    private Context context;
+
+    @Setup
+    public void setup() throws UnknownHostException {
+        underlying = new BasicHttpRequest( "GET", URI );
+        underlying.addHeader( "Host", "ads.example.com" );
+        underlying.addHeader( "User-Agent", "Mozilla/5.0 (X11; Linux x86_64)" );
+        underlying.addHeader( "Cookie", "uid=0123456789abcdef; session=s1; prefs=dark" );
+        context = new Context( "/ad", InetAddress.getLocalHost(), new ServerHttpContext( new BasicHttpContext(), Protocol.HTTP, null ) );
+    }
+
+    @Benchmark
+    public ListMultimap<String, String> parseQuery() {
+        return Url.parseQuery( QUERY );
+    }
+
+    @Benchmark
+    public String decode() {
+        return Url.decode( "https%3A%2F%2Fexample.com%2Fpage%3Fq%3D1" );
+    }
+
+    @Benchmark
+    public void request( Blackhole blackhole ) {
+        var request = new Request( underlying, context );
+        blackhole.consume( request.parameter( "pid" ) );
+        blackhole.consume( request.parameter( "cid" ) );
+        blackhole.consume( request.cookie( "uid" ) );
+    }
+}
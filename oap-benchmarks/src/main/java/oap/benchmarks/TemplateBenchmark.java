@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import oap.template.Engine;
+import oap.template.Template;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+@State( Scope.Benchmark )
+public class TemplateBenchmark {
+    private Template<Bean, Template.Line> template;
+    private Bean bean;
+
+    @Setup
+    public void setup() throws IOException {
+        var engine = new Engine( Files.createTempDirectory( "template" ) );
+        template = engine.getTemplate( Engine.getName( "bench" ), Bean.class, "id=${id}&name=${name}&count=${count}" );
+        bean = new Bean( "id1", "name1", 42 );
+    }
+
+    @Benchmark
+    public String renderString() {
+        return template.renderString( bean );
+    }
+
+    public static class Bean {
+        public String id;
+        public String name;
+        public int count;
+
+        public Bean( String id, String name, int count ) {
+            this.id = id;
+            this.name = name;
+            this.count = count;
+        }
+    }
+}
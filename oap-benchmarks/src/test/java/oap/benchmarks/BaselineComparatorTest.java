@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmarks;
+
+import org.testng.annotations.Test;
+
+import static oap.testng.Asserts.pathOfTestResource;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class BaselineComparatorTest {
+    @Test
+    public void compare() {
+        var regressions = BaselineComparator.compare( pathOfTestResource( getClass(), "baseline.json" ),
+            pathOfTestResource( getClass(), "current.json" ), 0.1 );
+
+        assertThat( regressions ).extracting( r -> r.benchmark ).containsExactly(
+            "oap.benchmarks.Sample.throughput:thrpt:1",
+            "oap.benchmarks.Sample.time:avgt:1",
+            "oap.benchmarks.Sample.params:thrpt:4:{size=10, type=a}" );
+
+        var throughput = regressions.get( 0 );
+        assertThat( throughput.baseline ).isEqualTo( 100.0 );
+        assertThat( throughput.score ).isEqualTo( 85.0 );
+        assertThat( throughput.unit ).isEqualTo( "ops/ms" );
+        assertThat( throughput.change ).isCloseTo( 0.15, offset( 1e-9 ) );
+        assertThat( regressions.get( 1 ).change ).isCloseTo( 0.2, offset( 1e-9 ) );
+    }
+
+    @Test
+    public void threshold() {
+        var regressions = BaselineComparator.compare( pathOfTestResource( getClass(), "baseline.json" ),
+            pathOfTestResource( getClass(), "current.json" ), 0.3 );
+
+        assertThat( regressions ).extracting( r -> r.benchmark )
+            .containsExactly( "oap.benchmarks.Sample.params:thrpt:4:{size=10, type=a}" );
+    }
+}
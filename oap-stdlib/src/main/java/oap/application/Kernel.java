@@ -420,7 +420,7 @@ public class Kernel implements Closeable {
         }
 
         if( service.supervision.thread )
-            supervisor.startThread( service.name, instance );
+            supervisor.startThread( service.name, instance, service.supervision.virtual );
         else {
             if( service.supervision.schedule && service.supervision.cron != null )
                 supervisor.scheduleCron( service.name, ( Runnable ) instance,
@@ -88,6 +88,7 @@ public class Module {
     public static class Supervision {
         public boolean supervise;
         public boolean thread;
+        public boolean virtual; // run the thread service on a virtual thread where supported
         public boolean schedule;
         public List<String> preStartWith = List.of( "preStart", "pre_start" );
         public List<String> startWith = List.of( "start" );
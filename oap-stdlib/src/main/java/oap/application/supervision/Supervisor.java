@@ -47,7 +47,11 @@ public class Supervisor {
     }
 
     public void startThread( String name, Object instance ) {
-        this.wrappers.put( name, new ThreadService( name, ( Runnable ) instance, this ) );
+        startThread( name, instance, false );
+    }
+
+    public void startThread( String name, Object instance, boolean virtual ) {
+        this.wrappers.put( name, new ThreadService( name, ( Runnable ) instance, this, virtual ) );
     }
 
     public void scheduleWithFixedDelay( String name, Runnable service, long delay, TimeUnit unit ) {
@@ -24,6 +24,7 @@
 package oap.application.supervision;
 
 import lombok.extern.slf4j.Slf4j;
+import oap.concurrent.Executors;
 import oap.concurrent.SynchronizedRunnable;
 import oap.concurrent.SynchronizedRunnableReadyListener;
 import oap.concurrent.SynchronizedThread;
@@ -35,11 +36,21 @@ import java.io.Closeable;
 public class ThreadService extends SynchronizedRunnable implements Supervised, SynchronizedRunnableReadyListener {
 
     private final Supervisor supervisor;
-    private final SynchronizedThread thread = new SynchronizedThread( this );
+    private final SynchronizedThread thread;
     private Runnable supervisee;
     private int maxFailures = 100;
 
     public ThreadService( final String name, final Runnable supervisee, final Supervisor supervisor ) {
+        this( name, supervisee, supervisor, false );
+    }
+
+    /**
+     * @param virtual run the supervisee on a virtual thread where the runtime supports them
+     */
+    public ThreadService( final String name, final Runnable supervisee, final Supervisor supervisor, boolean virtual ) {
+        this.thread = virtual
+            ? new SynchronizedThread( this, Executors.virtualThreadFactory( name ) )
+            : new SynchronizedThread( this );
         this.supervisee = supervisee;
         this.supervisor = supervisor;
         this.thread.setName( name );
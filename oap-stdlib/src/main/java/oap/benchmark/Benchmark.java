@@ -25,10 +25,14 @@
 package oap.benchmark;
 
 import lombok.ToString;
+import oap.io.Files;
+import oap.json.Binder;
 import oap.reflect.Reflect;
 import oap.util.Try;
 import org.joda.time.Period;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.function.IntConsumer;
 import java.util.function.LongFunction;
 
@@ -45,6 +49,7 @@ public class Benchmark {
     Runnable beforeExperiment = run;
     Runnable afterExperiment = run;
     LongFunction<String> rateToString = rate -> rate + " action/${PERIOD}";
+    Path export;
 
     private Benchmark( String name, int samples, Try.ThrowingIntConsumer code ) {
         this.name = name;
@@ -88,6 +93,15 @@ public class Benchmark {
         return this;
     }
 
+    /**
+     * Writes the averaged {@link Result} as json to {@code path}. Without it, results go to
+     * {@code <oap.benchmark.export>/<name>.json} when the {@code oap.benchmark.export} system property is set.
+     */
+    public Benchmark export( Path path ) {
+        this.export = path;
+        return this;
+    }
+
     public Benchmark period( Period period ) {
         this.period = period;
         return this;
@@ -108,21 +122,49 @@ public class Benchmark {
 
     void printResult( long totalTime, Result result ) {
         System.out.format(
-            "benchmarking %s: %d samples, %d usec, avg time %d usec, rate %s\n",
-            name, samples, totalTime / 1000, result.time, rateToString( result.rate ) );
+            "benchmarking %s: %d samples, %d usec, avg time %d usec, rate %s, %s\n",
+            name, samples, totalTime / 1000, result.time, rateToString( result.rate ), profile( result ) );
     }
 
     void printAverageResult( Result result ) {
-        System.out.format( "benchmarking %s: avg time %d usec, avg rate %s\n",
-            name, result.time, rateToString( result.rate ) );
+        System.out.format( "benchmarking %s: avg time %d usec, avg rate %s, %s\n",
+            name, result.time, rateToString( result.rate ), profile( result ) );
+
+    }
 
+    private static String profile( Result result ) {
+        return String.format( "p50/p90/p99/p99.9/max %d/%d/%d/%d/%d ns, alloc %d bytes/op, gc %d (%d ms)",
+            result.p50, result.p90, result.p99, result.p999, result.max, result.allocatedPerOp, result.gcCount, result.gcTime );
     }
 
     Result toResult( long total ) {
         return new Result( total / samples / 1000, getRate( samples, period, total ) );
     }
 
-    public void run() {
-        runner.run( this );
+    Result toResult( int threads, long total, LatencyHistogram histogram, long allocated, long gcCount, long gcTime ) {
+        var result = toResult( total );
+        result.name = name;
+        result.threads = threads;
+        result.samples = samples;
+        result.allocatedPerOp = allocated / samples;
+        result.gcCount = gcCount;
+        result.gcTime = gcTime;
+        result.p50 = histogram.percentile( 50 );
+        result.p90 = histogram.percentile( 90 );
+        result.p99 = histogram.percentile( 99 );
+        result.p999 = histogram.percentile( 99.9 );
+        result.max = histogram.max();
+        return result;
+    }
+
+    public Result run() {
+        var result = runner.run( this );
+
+        var path = export;
+        var dir = System.getProperty( "oap.benchmark.export" );
+        if( path == null && dir != null ) path = Paths.get( dir, name + ".json" );
+        if( path != null ) Files.writeString( path, Binder.json.marshal( result ) );
+
+        return result;
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmark;
+
+import oap.util.LogLinearBuckets;
+
+/**
+ * Log-linear histogram of nanosecond latencies: 64 linear sub-buckets per power of two, so every recorded
+ * value is kept within ~1.5% precision at a fixed 30KB footprint. Not thread safe, one per worker, then {@link #add}.
+ */
+class LatencyHistogram {
+    private static final LogLinearBuckets BUCKETS = new LogLinearBuckets( 7 );
+    private static final int SIZE = BUCKETS.size( Long.MAX_VALUE );
+
+    private final long[] counts = new long[SIZE];
+    private long total;
+    private long max;
+
+    void record( long nanos ) {
+        if( nanos < 0 ) nanos = 0;
+        counts[BUCKETS.index( nanos )]++;
+        total++;
+        if( nanos > max ) max = nanos;
+    }
+
+    void add( LatencyHistogram other ) {
+        for( var i = 0; i < SIZE; i++ ) counts[i] += other.counts[i];
+        total += other.total;
+        max = Math.max( max, other.max );
+    }
+
+    long percentile( double percentile ) {
+        return BUCKETS.percentile( counts, total, percentile, max );
+    }
+
+    long max() {
+        return max;
+    }
+
+    long total() {
+        return total;
+    }
+}
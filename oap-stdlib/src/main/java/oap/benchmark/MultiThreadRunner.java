@@ -29,12 +29,21 @@ import lombok.ToString;
 import oap.testng.Teamcity;
 import oap.util.Try;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
 
+/**
+ * One pool serves the warm up and all experiments. Workers of an experiment are released together by a barrier,
+ * the clock starts when the last one arrives.
+ */
 @ToString
 class MultiThreadRunner extends Runner {
     private int threads;
@@ -49,56 +58,77 @@ class MultiThreadRunner extends Runner {
     public Result run( Benchmark benchmark ) {
         return Teamcity.progress( benchmark.name + "...", Try.supply( () -> {
             System.out.println( "pool threads = " + threads );
-            if( warming > 0 ) {
-                System.out.println( "warming up..." );
-                var pool = oap.concurrent.Executors.newFixedThreadPool( threads, new ThreadFactoryBuilder().setNameFormat( "name-%d" ).build() );
-                for( var i = 0; i < warming; i++ ) {
-                    pool.execute( () -> benchmark.code.accept( 0 ) );
+            var pool = oap.concurrent.Executors.newFixedThreadPool( threads, new ThreadFactoryBuilder().setNameFormat( "benchmark-%d" ).build() );
+            try {
+                if( warming > 0 ) {
+                    System.out.println( "warming up..." );
+                    var tasks = new ArrayList<Future<?>>();
+                    for( var i = 0; i < warming; i++ ) tasks.add( pool.submit( () -> benchmark.code.accept( 0 ) ) );
+                    for( var task : tasks ) task.get();
                 }
+                System.out.println( "starting test..." );
 
-                pool.shutdown();
-                pool.awaitTermination( 5, TimeUnit.HOURS );
-            }
-            System.out.println( "starting test..." );
-
-            List<Result> results = IntStream
-                .range( 0, benchmark.experiments )
-                .mapToObj( x -> Teamcity.progress( benchmark.name + " e=" + x + "...", Try.supply( () -> {
-
-                        benchmark.beforeExperiment.run();
-
-                        int samplesPerThread = benchmark.samples / threads;
-
-                        var rpool = oap.concurrent.Executors.newFixedThreadPool( threads, new ThreadFactoryBuilder().setNameFormat( "name-%d" ).build() );
+                List<Result> results = IntStream
+                    .range( 0, benchmark.experiments )
+                    .mapToObj( x -> Teamcity.progress( benchmark.name + " e=" + x + "...", Try.supply( () -> {
+                            benchmark.beforeExperiment.run();
+                            var result = experiment( benchmark, pool );
+                            benchmark.afterExperiment.run();
 
-                        long start = System.nanoTime();
-                        for( var t = 0; t < threads; t++ ) {
-                            int finalT = t;
-                            rpool.execute( () -> IntStream
-                                .range( finalT * samplesPerThread, ( finalT + 1 ) * samplesPerThread )
-                                .forEach( benchmark.code ) );
+                            return result;
+                        } )
+                    ) )
+                    .collect( toList() );
 
-                        }
-                        rpool.shutdown();
-                        rpool.awaitTermination( 5, TimeUnit.HOURS );
+                Result avg = Result.average( results, benchmark.experiments );
+                benchmark.printAverageResult( avg );
 
-                        long total = System.nanoTime() - start;
-                        Result result = benchmark.toResult( total );
-                        benchmark.printResult( total, result );
-                        benchmark.afterExperiment.run();
+                Teamcity.performance( benchmark.name, avg.rate );
 
-                        return result;
-                    } )
-                ) )
-                .collect( toList() );
-
-            Result avg = Result.average( results, benchmark.experiments );
-            benchmark.printAverageResult( avg );
-
-            Teamcity.performance( benchmark.name, avg.rate );
-
-            return avg;
+                return avg;
+            } finally {
+                pool.shutdown();
+                pool.awaitTermination( 5, TimeUnit.HOURS );
+            }
         } ) );
+    }
 
+    private Result experiment( Benchmark benchmark, ExecutorService pool ) throws Exception {
+        int samplesPerThread = benchmark.samples / threads;
+        var start = new AtomicLong();
+        var gcCount = new AtomicLong();
+        var gcTime = new AtomicLong();
+        var barrier = new CyclicBarrier( threads, () -> {
+            gcCount.set( Probes.gcCount() );
+            gcTime.set( Probes.gcTime() );
+            start.set( System.nanoTime() );
+        } );
+        var allocated = new AtomicLong();
+
+        var tasks = new ArrayList<Future<LatencyHistogram>>();
+        for( var t = 0; t < threads; t++ ) {
+            int from = t * samplesPerThread;
+            tasks.add( pool.submit( () -> {
+                var histogram = new LatencyHistogram();
+                var allocatedBefore = Probes.allocatedBytes();
+                barrier.await();
+                for( var i = from; i < from + samplesPerThread; i++ ) {
+                    long s = System.nanoTime();
+                    benchmark.code.accept( i );
+                    histogram.record( System.nanoTime() - s );
+                }
+                allocated.addAndGet( Probes.allocatedBytes() - allocatedBefore );
+                return histogram;
+            } ) );
+        }
+
+        var histogram = new LatencyHistogram();
+        for( var task : tasks ) histogram.add( task.get() );
+        long total = System.nanoTime() - start.get();
+
+        Result result = benchmark.toResult( threads, total, histogram, allocated.get(),
+            Probes.gcCount() - gcCount.get(), Probes.gcTime() - gcTime.get() );
+        benchmark.printResult( total, result );
+        return result;
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation and GC counters. Allocation is reported as 0 where the JVM does not support
+ * {@code com.sun.management.ThreadMXBean}.
+ */
+final class Probes {
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATION = THREADS instanceof com.sun.management.ThreadMXBean
+        && ( ( com.sun.management.ThreadMXBean ) THREADS ).isThreadAllocatedMemorySupported();
+
+    static {
+        if( ALLOCATION ) ( ( com.sun.management.ThreadMXBean ) THREADS ).setThreadAllocatedMemoryEnabled( true );
+    }
+
+    private Probes() {
+    }
+
+    static long allocatedBytes() {
+        return ALLOCATION
+            ? ( ( com.sun.management.ThreadMXBean ) THREADS ).getThreadAllocatedBytes( Thread.currentThread().getId() )
+            : 0;
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans() )
+            count += Math.max( gc.getCollectionCount(), 0 );
+        return count;
+    }
+
+    static long gcTime() {
+        long time = 0;
+        for( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans() )
+            time += Math.max( gc.getCollectionTime(), 0 );
+        return time;
+    }
+}
@@ -21,14 +21,34 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package oap.benchmark;
 
+import lombok.ToString;
+
 import java.util.List;
+import java.util.function.ToLongFunction;
 
-class Result {
+/**
+ * Times are in usec, latency percentiles in nanoseconds, gcTime in ms.
+ */
+@ToString
+public class Result {
+    public String name;
+    public int threads = 1;
+    public int samples;
     public long rate;
     public long time;
+    public long allocatedPerOp;
+    public long gcCount;
+    public long gcTime;
+    public long p50;
+    public long p90;
+    public long p99;
+    public long p999;
+    public long max;
+
+    public Result() {
+    }
 
     public Result( long time, long rate ) {
         this.time = time;
@@ -36,15 +56,23 @@ class Result {
     }
 
     public static Result average( List<Result> results, int experiments ) {
-        return new Result(
-            results.stream()
-                .skip( experiments > 1 ? 1 : 0 )
-                .mapToLong( r -> r.time )
-                .sum() / ( experiments > 1 ? experiments - 1 : experiments ),
-            results.stream()
-                .skip( experiments > 1 ? 1 : 0 )
-                .mapToLong( r1 -> r1.rate )
-                .sum() / ( experiments > 1 ? experiments - 1 : experiments )
-        );
+        var skip = experiments > 1 ? 1 : 0;
+        var count = experiments > 1 ? experiments - 1 : experiments;
+        ToLongFunction<ToLongFunction<Result>> avg = f -> results.stream().skip( skip ).mapToLong( f ).sum() / count;
+
+        var result = new Result( avg.applyAsLong( r -> r.time ), avg.applyAsLong( r -> r.rate ) );
+        var first = results.get( 0 );
+        result.name = first.name;
+        result.threads = first.threads;
+        result.samples = first.samples;
+        result.allocatedPerOp = avg.applyAsLong( r -> r.allocatedPerOp );
+        result.gcCount = avg.applyAsLong( r -> r.gcCount );
+        result.gcTime = avg.applyAsLong( r -> r.gcTime );
+        result.p50 = avg.applyAsLong( r -> r.p50 );
+        result.p90 = avg.applyAsLong( r -> r.p90 );
+        result.p99 = avg.applyAsLong( r -> r.p99 );
+        result.p999 = avg.applyAsLong( r -> r.p999 );
+        result.max = results.stream().skip( skip ).mapToLong( r -> r.max ).max().orElse( 0 );
+        return result;
     }
 }
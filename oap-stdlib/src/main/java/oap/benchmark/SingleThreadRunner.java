@@ -46,14 +46,21 @@ class SingleThreadRunner extends Runner {
             List<Result> results = IntStream.range( 0, benchmark.experiments )
                 .mapToObj( x -> Teamcity.progress( benchmark.name + " e=" + x + "...", () -> {
                     benchmark.beforeExperiment.run();
+                    var histogram = new LatencyHistogram();
+                    var gcCount = Probes.gcCount();
+                    var gcTime = Probes.gcTime();
+                    var allocated = Probes.allocatedBytes();
                     long total = 0;
                     for( int i = 0; i < benchmark.samples; i++ ) {
                         long start = System.nanoTime();
                         benchmark.code.accept( i );
-                        total += System.nanoTime() - start;
-
+                        long time = System.nanoTime() - start;
+                        total += time;
+                        histogram.record( time );
                     }
-                    Result r = benchmark.toResult( total );
+                    allocated = Probes.allocatedBytes() - allocated;
+                    Result r = benchmark.toResult( 1, total, histogram, allocated,
+                        Probes.gcCount() - gcCount, Probes.gcTime() - gcTime );
                     benchmark.printResult( total, r );
                     benchmark.afterExperiment.run();
                     return r;
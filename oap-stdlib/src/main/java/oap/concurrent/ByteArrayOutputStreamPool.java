@@ -24,11 +24,7 @@
 
 package oap.concurrent;
 
-import cn.danielw.fop.DisruptorObjectPool;
-import cn.danielw.fop.ObjectFactory;
-import cn.danielw.fop.PoolConfig;
-import cn.danielw.fop.Poolable;
-import lombok.SneakyThrows;
+import io.micrometer.core.instrument.Metrics;
 import org.apache.commons.configuration2.EnvironmentConfiguration;
 
 import java.io.ByteArrayOutputStream;
@@ -37,51 +33,41 @@ import java.io.ByteArrayOutputStream;
  * Created by igor.petrenko on 01.05.2019.
  * <p>
  * env:
- * - POOL_PARTITION_SIZE: 20
- * - POOL_MAX_SIZE: 150
- * - POOL_MIN_SIZE: 5
- * - POOL_MAX_IDLE_MILLISECONDS: 300000
+ * - POOL_STRIPES: 2 * available processors
+ * - POOL_MAX_CAPACITY: 1048576 (objects that outgrew it are dropped on return)
+ * - POOL_LOCAL_CAPACITY: 65536 (larger objects are not kept thread-local)
  */
 public final class ByteArrayOutputStreamPool {
-    private static final DisruptorObjectPool<ByteArrayOutputStream> pool;
+    private static final StripedObjectPool<ByteArrayOutputStream> pool;
 
     static {
         var envConfig = new EnvironmentConfiguration();
-        PoolConfig config = new PoolConfig();
-        config.setPartitionSize( envConfig.getInt( "POOL_PARTITION_SIZE", 20 ) );
-        config.setMaxSize( envConfig.getInt( "POOL_MAX_SIZE", 3000 / 20 ) );
-        config.setMinSize( envConfig.getInt( "POOL_MIN_SIZE", 5 ) );
-        config.setMaxIdleMilliseconds( envConfig.getInt( "POOL_MAX_IDLE_MILLISECONDS", 60 * 1000 * 5 ) );
 
-        ObjectFactory<ByteArrayOutputStream> factory = new ObjectFactory<>() {
-            @Override
-            public ByteArrayOutputStream create() {
-                return new ByteArrayOutputStream();
-            }
+        pool = new StripedObjectPool<>( "ByteArrayOutputStreamPool", Buffer::new, ByteArrayOutputStream::reset, out -> ( ( Buffer ) out ).capacity(),
+            envConfig.getInt( "POOL_MAX_CAPACITY", 1024 * 1024 ),
+            envConfig.getInt( "POOL_LOCAL_CAPACITY", 64 * 1024 ),
+            envConfig.getInt( "POOL_STRIPES", Runtime.getRuntime().availableProcessors() * 2 ) );
 
-            @Override
-            public void destroy( ByteArrayOutputStream o ) {
-            }
-
-            @Override
-            public boolean validate( ByteArrayOutputStream o ) {
-                o.reset();
-                return true;
-            }
-        };
-
-        pool = new DisruptorObjectPool<>( config, factory );
+        if( envConfig.getBoolean( "METRICS_ByteArrayOutputStreamPool", false ) ) pool.bindTo( Metrics.globalRegistry );
     }
 
     private ByteArrayOutputStreamPool() {
     }
 
-    @SneakyThrows
-    public static Poolable<ByteArrayOutputStream> borrowObject() {
+    public static Pooled<ByteArrayOutputStream> borrowObject() {
         return pool.borrowObject();
     }
 
     public static int getSize() {
         return pool.getSize();
     }
+
+    /**
+     * {@link ByteArrayOutputStream#size()} drops to 0 on reset, the retained array is what counts.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        int capacity() {
+            return buf.length;
+        }
+    }
 }
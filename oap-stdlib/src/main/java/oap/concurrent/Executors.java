@@ -24,6 +24,11 @@
 
 package oap.concurrent;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
@@ -31,6 +36,90 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 public final class Executors {
+    /**
+     * Virtual threads are looked up reflectively: on a runtime without them every virtual variant below
+     * falls back to daemon platform threads.
+     */
+    public static final boolean VIRTUAL_THREADS_SUPPORTED;
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle BUILDER_NAME;
+    private static final MethodHandle BUILDER_FACTORY;
+    private static final MethodHandle THREAD_PER_TASK_EXECUTOR;
+    private static final MethodHandle IS_VIRTUAL;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle factory = null;
+        MethodHandle executor = null;
+        MethodHandle isVirtual = null;
+        try {
+            var lookup = MethodHandles.publicLookup();
+            var builder = Class.forName( "java.lang.Thread$Builder" );
+            ofVirtual = lookup.findStatic( Thread.class, "ofVirtual",
+                MethodType.methodType( Class.forName( "java.lang.Thread$Builder$OfVirtual" ) ) );
+            name = lookup.findVirtual( builder, "name", MethodType.methodType( builder, String.class, long.class ) );
+            factory = lookup.findVirtual( builder, "factory", MethodType.methodType( ThreadFactory.class ) );
+            executor = lookup.findStatic( java.util.concurrent.Executors.class, "newThreadPerTaskExecutor",
+                MethodType.methodType( ExecutorService.class, ThreadFactory.class ) );
+            isVirtual = lookup.findVirtual( Thread.class, "isVirtual", MethodType.methodType( boolean.class ) );
+        } catch( ReflectiveOperationException ignored ) {
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        THREAD_PER_TASK_EXECUTOR = executor;
+        IS_VIRTUAL = isVirtual;
+        VIRTUAL_THREADS_SUPPORTED = executor != null;
+    }
+
+    public static ThreadFactory virtualThreadFactory( String prefix ) {
+        if( !VIRTUAL_THREADS_SUPPORTED ) return threadFactory( prefix, true );
+
+        try {
+            Object builder = OF_VIRTUAL.invoke();
+            builder = BUILDER_NAME.invoke( builder, prefix + "-", 0L );
+            return ( ThreadFactory ) BUILDER_FACTORY.invoke( builder );
+        } catch( Throwable e ) {
+            throw new ThreadException( e );
+        }
+    }
+
+    public static boolean isVirtual( Thread thread ) {
+        if( IS_VIRTUAL == null ) return false;
+
+        try {
+            return ( boolean ) IS_VIRTUAL.invokeExact( thread );
+        } catch( Throwable e ) {
+            throw new ThreadException( e );
+        }
+    }
+
+    /**
+     * @param virtual virtual threads if the runtime supports them, daemon platform threads otherwise
+     */
+    public static ThreadFactory threadFactory( String prefix, boolean virtual ) {
+        if( virtual && VIRTUAL_THREADS_SUPPORTED ) return virtualThreadFactory( prefix );
+        return new ThreadFactoryBuilder().setNameFormat( prefix + "-%d" ).setDaemon( virtual ).build();
+    }
+
+    /**
+     * One new thread per task, unbounded. A cached pool where {@code newThreadPerTaskExecutor} is not available.
+     */
+    public static ExecutorService newThreadPerTaskExecutor( ThreadFactory threadFactory ) {
+        if( THREAD_PER_TASK_EXECUTOR == null ) return newCachedThreadPool( threadFactory );
+
+        try {
+            return ( ExecutorService ) THREAD_PER_TASK_EXECUTOR.invoke( threadFactory );
+        } catch( Throwable e ) {
+            throw new ThreadException( e );
+        }
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor( String prefix ) {
+        return newThreadPerTaskExecutor( virtualThreadFactory( prefix ) );
+    }
+
     public static ExecutorService newFixedThreadPool( int nThreads ) {
         return new ThreadPoolExecutor( nThreads, nThreads,
             0L, TimeUnit.MILLISECONDS,
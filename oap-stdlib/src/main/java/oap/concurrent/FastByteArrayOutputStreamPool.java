@@ -24,12 +24,7 @@
 
 package oap.concurrent;
 
-import cn.danielw.fop.DisruptorObjectPool;
-import cn.danielw.fop.ObjectFactory;
-import cn.danielw.fop.PoolConfig;
-import cn.danielw.fop.Poolable;
 import io.micrometer.core.instrument.Metrics;
-import lombok.SneakyThrows;
 import oap.util.FastByteArrayOutputStream;
 import org.apache.commons.configuration2.EnvironmentConfiguration;
 
@@ -37,55 +32,28 @@ import org.apache.commons.configuration2.EnvironmentConfiguration;
  * Created by igor.petrenko on 02.05.2019.
  * <p>
  * env:
- * - POOL_PARTITION_SIZE: 20
- * - POOL_MAX_SIZE: 150
- * - POOL_MIN_SIZE: 5
- * - POOL_MAX_IDLE_MILLISECONDS: 300000
+ * - POOL_STRIPES: 2 * available processors
+ * - POOL_MAX_CAPACITY: 1048576 (objects that outgrew it are dropped on return)
+ * - POOL_LOCAL_CAPACITY: 65536 (larger objects are not kept thread-local)
  */
 public class FastByteArrayOutputStreamPool {
-    private static final DisruptorObjectPool<FastByteArrayOutputStream> pool;
+    private static final StripedObjectPool<FastByteArrayOutputStream> pool;
 
     static {
         var envConfig = new EnvironmentConfiguration();
-        var config = new PoolConfig();
-        config.setPartitionSize( envConfig.getInt( "POOL_PARTITION_SIZE", 20 ) );
-        config.setMaxSize( envConfig.getInt( "POOL_MAX_SIZE", 3000 / 20 ) );
-        config.setMinSize( envConfig.getInt( "POOL_MIN_SIZE", 5 ) );
-        config.setMaxIdleMilliseconds( envConfig.getInt( "POOL_MAX_IDLE_MILLISECONDS", 60 * 1000 * 5 ) );
 
-        ObjectFactory<FastByteArrayOutputStream> factory = new ObjectFactory<>() {
-            @Override
-            public FastByteArrayOutputStream create() {
-                return new FastByteArrayOutputStream();
-            }
+        pool = new StripedObjectPool<>( "FastByteArrayOutputStreamPool", FastByteArrayOutputStream::new, FastByteArrayOutputStream::reset, out -> out.array.length,
+            envConfig.getInt( "POOL_MAX_CAPACITY", 1024 * 1024 ),
+            envConfig.getInt( "POOL_LOCAL_CAPACITY", 64 * 1024 ),
+            envConfig.getInt( "POOL_STRIPES", Runtime.getRuntime().availableProcessors() * 2 ) );
 
-            @Override
-            public void destroy( FastByteArrayOutputStream o ) {
-            }
-
-            @Override
-            public boolean validate( FastByteArrayOutputStream o ) {
-                o.reset();
-                return true;
-            }
-        };
-
-        pool = new DisruptorObjectPool<>( config, factory );
-
-        if( envConfig.getBoolean( "METRICS_FastByteArrayOutputStreamPool", false ) ) {
-            Metrics.gauge( "FastByteArrayOutputStreamPool.partition_size", config, p -> config.getPartitionSize() );
-            Metrics.gauge( "FastByteArrayOutputStreamPool.min_size", config, p -> config.getMinSize() );
-            Metrics.gauge( "FastByteArrayOutputStreamPool.max_size", config, p -> config.getMaxSize() );
-
-            Metrics.gauge( "FastByteArrayOutputStreamPool.size", pool, p -> ( double ) p.getSize() );
-        }
+        if( envConfig.getBoolean( "METRICS_FastByteArrayOutputStreamPool", false ) ) pool.bindTo( Metrics.globalRegistry );
     }
 
     private FastByteArrayOutputStreamPool() {
     }
 
-    @SneakyThrows
-    public static Poolable<FastByteArrayOutputStream> borrowObject() {
+    public static Pooled<FastByteArrayOutputStream> borrowObject() {
         return pool.borrowObject();
     }
 
@@ -26,12 +26,18 @@ package oap.concurrent;
 import lombok.SneakyThrows;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 
+/**
+ * Deadlines are enforced by {@link CompletableFuture#orTimeout}, no thread waits for a timed call:
+ * {@link #executeAsync} returns at once, {@link #execute} blocks only the caller.
+ */
 public class LimitedTimeExecutor extends AsyncCallbacks<LimitedTimeExecutor, LimitedTimeExecutor> {
     public final long timeout;
     public final TimeUnit unit;
@@ -45,6 +51,15 @@ public class LimitedTimeExecutor extends AsyncCallbacks<LimitedTimeExecutor, Lim
         this( timeout, unit, Executors.newCachedThreadPool() );
     }
 
+    /**
+     * @param virtualThreads run every call on its own virtual thread, see {@link Executors#VIRTUAL_THREADS_SUPPORTED}
+     */
+    public LimitedTimeExecutor( long timeout, TimeUnit unit, boolean virtualThreads ) {
+        this( timeout, unit, virtualThreads
+            ? Executors.newVirtualThreadPerTaskExecutor( "limited-time" )
+            : Executors.newCachedThreadPool() );
+    }
+
     public LimitedTimeExecutor( long timeout, TimeUnit unit, ExecutorService executor ) {
         this.timeout = timeout;
         this.unit = unit;
@@ -58,14 +73,11 @@ public class LimitedTimeExecutor extends AsyncCallbacks<LimitedTimeExecutor, Lim
     @SneakyThrows
     public <T> Optional<T> execute( long timeout, TimeUnit unit, Supplier<T> code ) {
         try {
-            T value = executor.submit( code::get ).get( timeout, unit );
-            onSuccess.accept( this );
-            return Optional.ofNullable( value );
-        } catch( InterruptedException | TimeoutException e ) {
-            onTimeout.accept( this );
+            return executeAsync( timeout, unit, code ).get();
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
             return Optional.empty();
         } catch( ExecutionException e ) {
-            onError.accept( this, e );
             throw e.getCause();
         }
     }
@@ -74,18 +86,38 @@ public class LimitedTimeExecutor extends AsyncCallbacks<LimitedTimeExecutor, Lim
         execute( this.timeout, this.unit, code );
     }
 
-    @SneakyThrows
     public void execute( long timeout, TimeUnit unit, Runnable code ) {
-        try {
-            executor.submit( code ).get( timeout, unit );
-            onSuccess.accept( this );
-        } catch( InterruptedException | TimeoutException e ) {
-            onTimeout.accept( this );
-        } catch( ExecutionException e ) {
-            onError.accept( this, e );
-            throw e.getCause();
-        }
+        execute( timeout, unit, () -> {
+            code.run();
+            return null;
+        } );
+    }
+
+    public <T> CompletableFuture<Optional<T>> executeAsync( Supplier<T> code ) {
+        return executeAsync( this.timeout, this.unit, code );
     }
 
+    /**
+     * Callbacks run on completion. A timed out call completes with {@link Optional#empty()}, the code itself
+     * is not interrupted.
+     */
+    public <T> CompletableFuture<Optional<T>> executeAsync( long timeout, TimeUnit unit, Supplier<T> code ) {
+        var future = CompletableFuture.supplyAsync( code, executor );
+        if( timeout != Long.MAX_VALUE ) future = future.orTimeout( timeout, unit );
+
+        return future.<Optional<T>>handle( ( value, e ) -> {
+            if( e == null ) {
+                onSuccess.accept( this );
+                return Optional.ofNullable( value );
+            }
 
+            var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if( cause instanceof TimeoutException ) {
+                onTimeout.accept( this );
+                return Optional.empty();
+            }
+            onError.accept( this, new ExecutionException( cause ) );
+            throw new CompletionException( cause );
+        } );
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.concurrent;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Multi-producer ring buffer keeping the last {@code size} elements, a non-blocking {@link CircularBuffer}.
+ * <p>
+ * {@link #add} claims a sequence with one atomic increment and publishes the element with a release store,
+ * it never waits for readers or other producers. {@link #getElements()} is a snapshot that skips slots
+ * still being written. {@link #drainTo(Consumer, int)} streams elements in order to a single consumer thread,
+ * elements overwritten before they are drained are counted in {@link #dropped()}.
+ */
+@ThreadSafe
+public class MpscCircularBuffer<T> {
+    private final Class<T> clazz;
+    private final int size;
+    private final int mask;
+    private final AtomicReferenceArray<Entry<T>> entries;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long readSequence;
+
+    public MpscCircularBuffer( Class<T> clazz, int size ) {
+        this.clazz = clazz;
+        this.size = size;
+        var capacity = Integer.highestOneBit( Math.max( size - 1, 1 ) ) << 1;
+        this.mask = capacity - 1;
+        this.entries = new AtomicReferenceArray<>( capacity );
+    }
+
+    public void add( T element ) {
+        var sequence = cursor.getAndIncrement();
+        entries.setRelease( ( int ) sequence & mask, new Entry<>( sequence, element ) );
+    }
+
+    /**
+     * @return up to {@code size} most recent elements, oldest first
+     */
+    @SuppressWarnings( "unchecked" )
+    public T[] getElements() {
+        var end = cursor.get();
+        var start = Math.max( 0, end - size );
+        var result = ( T[] ) Array.newInstance( clazz, ( int ) ( end - start ) );
+        var count = 0;
+        for( var sequence = start; sequence < end; sequence++ ) {
+            var entry = entries.getAcquire( ( int ) sequence & mask );
+            if( entry != null && entry.sequence == sequence ) result[count++] = entry.value;
+        }
+        return count == result.length ? result : Arrays.copyOf( result, count );
+    }
+
+    /**
+     * Single consumer only. Stops at the first element that is claimed but not yet published.
+     *
+     * @return number of elements passed to {@code consumer}
+     */
+    public int drainTo( Consumer<? super T> consumer, int limit ) {
+        var count = 0;
+        var end = cursor.get();
+        if( end - readSequence > size ) {
+            dropped.addAndGet( end - size - readSequence );
+            readSequence = end - size;
+        }
+
+        while( count < limit && readSequence < end ) {
+            var entry = entries.getAcquire( ( int ) readSequence & mask );
+            if( entry == null || entry.sequence < readSequence ) break;
+            if( entry.sequence == readSequence ) {
+                consumer.accept( entry.value );
+                count++;
+            } else dropped.incrementAndGet();
+            readSequence++;
+        }
+        return count;
+    }
+
+    public int drainTo( Collection<? super T> collection ) {
+        return drainTo( collection::add, Integer.MAX_VALUE );
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long added() {
+        return cursor.get();
+    }
+
+    private static final class Entry<T> {
+        final long sequence;
+        final T value;
+
+        Entry( long sequence, T value ) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+}
@@ -22,34 +22,29 @@
  * SOFTWARE.
  */
 
-package oap.concurrent.scheduler;
-
-import lombok.extern.slf4j.Slf4j;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
-import org.quartz.JobListener;
-
-@Slf4j
-public class SchedulerLogging implements JobListener {
-    @Override
-    public String getName() {
-        return "SchedulerLogging";
-    }
-
-    @Override
-    public void jobToBeExecuted( JobExecutionContext context ) {
+package oap.concurrent;
 
+/**
+ * Borrowed object of a {@link StripedObjectPool}; {@link #close()} returns it to the pool.
+ */
+public final class Pooled<T> implements AutoCloseable {
+    final T object;
+    private final StripedObjectPool<T> pool;
+    boolean borrowed = true;
+
+    Pooled( StripedObjectPool<T> pool, T object ) {
+        this.pool = pool;
+        this.object = object;
     }
 
-    @Override
-    public void jobExecutionVetoed( JobExecutionContext context ) {
-
+    public T getObject() {
+        return object;
     }
 
     @Override
-    public void jobWasExecuted( JobExecutionContext context, JobExecutionException jobException ) {
-        if( jobException != null ) {
-            log.error( jobException.getMessage(), jobException.getCause() );
-        }
+    public void close() {
+        if( !borrowed ) return;
+        borrowed = false;
+        pool.release( this );
     }
 }
@@ -24,68 +24,35 @@
 
 package oap.concurrent;
 
-import cn.danielw.fop.DisruptorObjectPool;
-import cn.danielw.fop.ObjectFactory;
-import cn.danielw.fop.PoolConfig;
-import cn.danielw.fop.Poolable;
-import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
-import lombok.SneakyThrows;
 import org.apache.commons.configuration2.EnvironmentConfiguration;
 
 /**
  * Created by igor.petrenko on 01.05.2019.
  * <p>
  * env:
- * - POOL_PARTITION_SIZE: 20
- * - POOL_MAX_SIZE: 150
- * - POOL_MIN_SIZE: 5
- * - POOL_MAX_IDLE_MILLISECONDS: 300000
+ * - POOL_STRIPES: 2 * available processors
+ * - POOL_MAX_CAPACITY: 1048576 (objects that outgrew it are dropped on return)
+ * - POOL_LOCAL_CAPACITY: 65536 (larger objects are not kept thread-local)
  */
 public final class StringBuilderPool {
-    private static final DisruptorObjectPool<StringBuilder> pool;
+    private static final StripedObjectPool<StringBuilder> pool;
 
     static {
         var envConfig = new EnvironmentConfiguration();
-        PoolConfig config = new PoolConfig();
-        config.setPartitionSize( envConfig.getInt( "POOL_PARTITION_SIZE", 20 ) );
-        config.setMaxSize( envConfig.getInt( "POOL_MAX_SIZE", 3000 / 20 ) );
-        config.setMinSize( envConfig.getInt( "POOL_MIN_SIZE", 5 ) );
-        config.setMaxIdleMilliseconds( envConfig.getInt( "POOL_MAX_IDLE_MILLISECONDS", 60 * 1000 * 5 ) );
 
-        ObjectFactory<StringBuilder> factory = new ObjectFactory<>() {
-            @Override
-            public StringBuilder create() {
-                return new StringBuilder();
-            }
+        pool = new StripedObjectPool<>( "StringBuilderPool", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity,
+            envConfig.getInt( "POOL_MAX_CAPACITY", 1024 * 1024 ),
+            envConfig.getInt( "POOL_LOCAL_CAPACITY", 64 * 1024 ),
+            envConfig.getInt( "POOL_STRIPES", Runtime.getRuntime().availableProcessors() * 2 ) );
 
-            @Override
-            public void destroy( StringBuilder o ) {
-            }
-
-            @Override
-            public boolean validate( StringBuilder o ) {
-                o.delete( 0, o.length() );
-                return true;
-            }
-        };
-
-        pool = new DisruptorObjectPool<>( config, factory );
-
-        if( envConfig.getBoolean( "METRICS_StringBuilderPool", false ) ) {
-            Metrics.gauge( "StringBuilderPool.partition_size", config, p -> config.getPartitionSize() );
-            Metrics.gauge( "StringBuilderPool.min_size", config, p -> config.getMinSize() );
-            Metrics.gauge( "StringBuilderPool.max_size", config, p -> config.getMaxSize() );
-
-            Metrics.gauge( "StringBuilderPool.size", pool, p -> ( double ) p.getSize() );
-        }
+        if( envConfig.getBoolean( "METRICS_StringBuilderPool", false ) ) pool.bindTo( Metrics.globalRegistry );
     }
 
     private StringBuilderPool() {
     }
 
-    @SneakyThrows
-    public static Poolable<StringBuilder> borrowObject() {
+    public static Pooled<StringBuilder> borrowObject() {
         return pool.borrowObject();
     }
 
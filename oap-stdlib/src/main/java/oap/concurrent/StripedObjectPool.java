@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Object pool with a one-object thread-local fast path backed by a small striped shared array.
+ * <p>
+ * Objects whose capacity grew above {@code maxCapacity} are dropped on return instead of being retained,
+ * so a single huge buffer does not stay pinned for the life of the process. Only objects up to {@code localCapacity}
+ * are kept thread-local, larger ones go to the shared stripes. Virtual threads use the shared stripes only.
+ * <p>
+ * Retained at most: {@code stripes * maxCapacity} shared plus {@code localCapacity} per platform thread that borrowed.
+ */
+public class StripedObjectPool<T> {
+    private static final int PADDING = 16;
+    private static final int PROBES = 4;
+    private static final int DEFAULT_LOCAL_CAPACITY = 64 * 1024;
+
+    public final String name;
+    public final int maxCapacity;
+    public final int localCapacity;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final ToIntFunction<T> capacity;
+    private final ThreadLocal<Slot<T>> local = ThreadLocal.withInitial( Slot::new );
+    private final AtomicReferenceArray<Pooled<T>> shared;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public StripedObjectPool( String name, Supplier<T> factory, Consumer<T> reset, ToIntFunction<T> capacity, int maxCapacity ) {
+        this( name, factory, reset, capacity, maxCapacity, Runtime.getRuntime().availableProcessors() * 2 );
+    }
+
+    public StripedObjectPool( String name, Supplier<T> factory, Consumer<T> reset, ToIntFunction<T> capacity, int maxCapacity, int stripes ) {
+        this( name, factory, reset, capacity, maxCapacity, Math.min( maxCapacity, DEFAULT_LOCAL_CAPACITY ), stripes );
+    }
+
+    public StripedObjectPool( String name, Supplier<T> factory, Consumer<T> reset, ToIntFunction<T> capacity,
+                              int maxCapacity, int localCapacity, int stripes ) {
+        this.name = name;
+        this.factory = factory;
+        this.reset = reset;
+        this.capacity = capacity;
+        this.maxCapacity = maxCapacity;
+        this.localCapacity = localCapacity;
+
+        var size = Integer.highestOneBit( Math.max( 1, stripes - 1 ) ) << 1;
+        this.mask = size - 1;
+        this.shared = new AtomicReferenceArray<>( size * PADDING );
+    }
+
+    public Pooled<T> borrowObject() {
+        var thread = Thread.currentThread();
+        if( !Executors.isVirtual( thread ) ) {
+            var slot = local.get();
+            var pooled = slot.free;
+            if( pooled != null ) {
+                slot.free = null;
+                hits.increment();
+                pooled.borrowed = true;
+                return pooled;
+            }
+        }
+
+        var probe = probe( thread );
+        for( var i = 0; i < PROBES; i++ ) {
+            var index = ( ( probe + i ) & mask ) * PADDING;
+            var pooled = shared.get( index );
+            if( pooled != null && shared.compareAndSet( index, pooled, null ) ) {
+                hits.increment();
+                pooled.borrowed = true;
+                return pooled;
+            }
+        }
+
+        misses.increment();
+        return new Pooled<>( this, factory.get() );
+    }
+
+    void release( Pooled<T> pooled ) {
+        var size = capacity.applyAsInt( pooled.object );
+        if( size > maxCapacity ) {
+            oversized.increment();
+            return;
+        }
+        reset.accept( pooled.object );
+
+        var thread = Thread.currentThread();
+        if( size <= localCapacity && !Executors.isVirtual( thread ) ) {
+            var slot = local.get();
+            if( slot.free == null ) {
+                slot.free = pooled;
+                return;
+            }
+        }
+
+        var probe = probe( thread );
+        for( var i = 0; i < PROBES; i++ ) {
+            var index = ( ( probe + i ) & mask ) * PADDING;
+            if( shared.get( index ) == null && shared.compareAndSet( index, null, pooled ) ) return;
+        }
+
+        dropped.increment();
+    }
+
+    /**
+     * @return number of objects retained in the shared stripes; thread-local objects are not counted
+     */
+    public int getSize() {
+        var size = 0;
+        for( var i = 0; i <= mask; i++ ) if( shared.get( i * PADDING ) != null ) size++;
+        return size;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long oversized() {
+        return oversized.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public StripedObjectPool<T> bindTo( MeterRegistry registry ) {
+        var tags = Tags.of( "pool", name );
+        FunctionCounter.builder( "oap_pool", hits, LongAdder::sum ).tags( tags.and( "result", "hit" ) ).register( registry );
+        FunctionCounter.builder( "oap_pool", misses, LongAdder::sum ).tags( tags.and( "result", "miss" ) ).register( registry );
+        FunctionCounter.builder( "oap_pool", oversized, LongAdder::sum ).tags( tags.and( "result", "oversize" ) ).register( registry );
+        FunctionCounter.builder( "oap_pool", dropped, LongAdder::sum ).tags( tags.and( "result", "drop" ) ).register( registry );
+        Gauge.builder( "oap_pool_size", this, StripedObjectPool::getSize ).tags( tags ).register( registry );
+        return this;
+    }
+
+    private static int probe( Thread thread ) {
+        return Long.hashCode( thread.getId() * 0x9E3779B97F4A7C15L );
+    }
+
+    private static final class Slot<T> {
+        Pooled<T> free;
+    }
+}
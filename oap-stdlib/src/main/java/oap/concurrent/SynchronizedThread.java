@@ -24,21 +24,31 @@
 package oap.concurrent;
 
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 
 public class SynchronizedThread implements Runnable, SynchronizedRunnableReadyListener {
     public long stopTimeout = 60000;
-    private Thread thread = new Thread( this );
+    private final Thread thread;
     private Runnable child;
     private Semaphore semaphore = new Semaphore( 0 );
     private boolean stopped = true;
 
     public SynchronizedThread( SynchronizedRunnable child ) {
+        this( child, Thread::new );
+    }
+
+    /**
+     * @param threadFactory e.g. {@link Executors#virtualThreadFactory(String)}
+     */
+    public SynchronizedThread( SynchronizedRunnable child, ThreadFactory threadFactory ) {
         this.child = child;
+        this.thread = threadFactory.newThread( this );
         child.listener = this;
     }
 
     public SynchronizedThread( Runnable child ) {
         this.child = child;
+        this.thread = new Thread( this );
     }
 
     public SynchronizedThread( Runnable child, long stopTimeout ) {
@@ -24,56 +24,56 @@
 
 package oap.concurrent.scheduler;
 
-import lombok.SneakyThrows;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
-import oap.util.Throwables;
+import oap.concurrent.Executors;
 import oap.util.Try;
-import org.joda.time.DateTimeUtils;
-import org.quartz.CronScheduleBuilder;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.ScheduleBuilder;
-import org.quartz.SimpleScheduleBuilder;
-import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
-import org.quartz.impl.matchers.GroupMatcher;
+import org.apache.commons.configuration2.EnvironmentConfiguration;
+import org.quartz.CronExpression;
 
+import java.text.ParseException;
 import java.util.Date;
-import java.util.Properties;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.TriggerBuilder.newTrigger;
 
+/**
+ * env:
+ * - SCHEDULER_THREADS: 4 * available processors
+ * - SCHEDULER_VIRTUAL_THREADS: false (one virtual thread per execution, if the runtime supports them)
+ */
 @Slf4j
 public final class Scheduler {
-    static final org.quartz.Scheduler scheduler;
-    static final FunctionJobFactory jobFactory;
+    static final ScheduledThreadPoolExecutor timer;
+    static final ExecutorService executor;
+    static final Set<TimerScheduled> jobs = ConcurrentHashMap.newKeySet();
     private static final AtomicLong ids = new AtomicLong();
 
     static {
-        try {
-            final StdSchedulerFactory sf = new StdSchedulerFactory();
-            Properties props = new Properties();
-//            props.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
-            props.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, "org.quartz.simpl.RAMJobStore" );
-            props.setProperty( "org.quartz.threadPool.threadCount",
-                String.valueOf( Runtime.getRuntime().availableProcessors() * 4 ) );
-            sf.initialize( props );
-
-            scheduler = sf.getScheduler();
-            scheduler.setJobFactory( jobFactory = new FunctionJobFactory() );
-
-            scheduler.getListenerManager().addJobListener( new SchedulerLogging() );
-
-            scheduler.start();
-        } catch( org.quartz.SchedulerException e ) {
-            throw Throwables.propagate( e );
+        var envConfig = new EnvironmentConfiguration();
+
+        timer = new ScheduledThreadPoolExecutor( 1,
+            new ThreadFactoryBuilder().setNameFormat( "oap-scheduler-timer-%d" ).setDaemon( true ).build() );
+        timer.setRemoveOnCancelPolicy( true );
+
+        if( envConfig.getBoolean( "SCHEDULER_VIRTUAL_THREADS", false ) )
+            executor = Executors.newVirtualThreadPerTaskExecutor( "oap-scheduler" );
+        else {
+            var threads = envConfig.getInt( "SCHEDULER_THREADS", Runtime.getRuntime().availableProcessors() * 4 );
+            var pool = new ThreadPoolExecutor( threads, threads, 60, SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat( "oap-scheduler-%d" ).setDaemon( true ).build() );
+            pool.allowCoreThreadTimeOut( true );
+            executor = pool;
         }
     }
 
@@ -81,43 +81,31 @@ public final class Scheduler {
     }
 
     public static Scheduled scheduleWithFixedDelay( long delay, TimeUnit unit, Runnable runnable ) {
-        return schedule( delay, unit, Try.catching( runnable )
-                .logOnException( log )
-                .propagate(),
-            SimpleScheduleBuilder.simpleSchedule()
-                .withIntervalInMilliseconds( unit.toMillis( delay ) )
-                .withMisfireHandlingInstructionIgnoreMisfires()
-                .repeatForever() );
+        var delayNanos = unit.toNanos( delay );
+        return schedule( runnable, delayNanos, () -> delayNanos );
     }
 
-    @SneakyThrows
-    private static Scheduled schedule( long delay, TimeUnit unit, Runnable runnable, ScheduleBuilder<?> scheduleBuilder ) {
-        String identity = identity( runnable );
-
-
-        JobDetail jobDetail = newJob( RunnableJob.class )
-            .withIdentity( identity + "/job" )
-            .storeDurably()
-            .build();
-
-        Trigger trigger = newTrigger()
-            .withIdentity( identity + "/trigger" )
-            .startAt( new Date( DateTimeUtils.currentTimeMillis() + unit.toMillis( delay ) ) )
-            .withSchedule( scheduleBuilder )
-            .build();
-
-        var runnableJob = jobFactory.register( jobDetail, runnable );
-
-        scheduler.scheduleJob( jobDetail, trigger );
-        log.trace( "scheduling job {} with trigger {}", jobDetail, trigger );
-        return new QuartzScheduled( runnableJob );
+    public static Scheduled scheduleCron( String cron, Runnable runnable ) {
+        CronExpression expression;
+        try {
+            expression = new CronExpression( cron );
+        } catch( ParseException e ) {
+            throw new IllegalArgumentException( "CronExpression '" + cron + "' is invalid: " + e.getMessage(), e );
+        }
+        TimerScheduled.Trigger trigger = () -> {
+            var now = System.currentTimeMillis();
+            var next = expression.getNextValidTimeAfter( new Date( now ) );
+            return next != null ? MILLISECONDS.toNanos( next.getTime() - now ) : -1;
+        };
+        return schedule( runnable, trigger.next(), trigger );
     }
 
-    public static Scheduled scheduleCron( String cron, Runnable runnable ) {
-        return schedule( 0, SECONDS, Try.catching( runnable )
-                .logOnException( log )
-                .propagate(),
-            CronScheduleBuilder.cronSchedule( cron ) );
+    private static Scheduled schedule( Runnable runnable, long delayNanos, TimerScheduled.Trigger trigger ) {
+        var scheduled = new TimerScheduled( identity( runnable ), Try.catching( runnable ).logOnException( log ), trigger );
+        jobs.add( scheduled );
+        scheduled.schedule( delayNanos );
+        log.trace( "scheduling job {}", scheduled );
+        return scheduled;
     }
 
     private static String identity( Runnable runnable ) {
@@ -151,8 +139,9 @@ public final class Scheduler {
         return scheduled;
     }
 
-    @SneakyThrows
-    public static Set<JobKey> getAllJobKeys() {
-        return scheduler.getJobKeys( GroupMatcher.anyGroup() );
+    public static Set<String> getAllJobKeys() {
+        var keys = new HashSet<String>();
+        for( var job : jobs ) keys.add( job.identity );
+        return keys;
     }
 }
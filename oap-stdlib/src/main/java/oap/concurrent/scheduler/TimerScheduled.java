@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.concurrent.scheduler;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Job of the native {@link Scheduler}. Executions never overlap, the next one is planned after the previous finishes.
+ * <p>
+ * metrics (tag job = owner class):
+ * - oap_scheduler_run: execution time
+ * - oap_scheduler_lag: delay between the planned and the actual start
+ */
+@Slf4j
+public class TimerScheduled extends Scheduled {
+    final String identity;
+    private final Runnable runnable;
+    private final Trigger trigger;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Timer run;
+    private final Timer lag;
+    private volatile boolean cancelled;
+    private volatile Thread running;
+    private ScheduledFuture<?> future;
+    private long planned;
+
+    TimerScheduled( String identity, Runnable runnable, Trigger trigger ) {
+        this.identity = identity;
+        this.runnable = runnable;
+        this.trigger = trigger;
+
+        var job = identity.substring( 0, identity.lastIndexOf( '/' ) );
+        this.run = Metrics.timer( "oap_scheduler_run", "job", job );
+        this.lag = Metrics.timer( "oap_scheduler_lag", "job", job );
+    }
+
+    synchronized void schedule( long delayNanos ) {
+        if( cancelled || delayNanos < 0 ) return;
+
+        planned = System.nanoTime() + delayNanos;
+        future = Scheduler.timer.schedule( () -> Scheduler.executor.execute( this::fire ), delayNanos, NANOSECONDS );
+    }
+
+    private void fire() {
+        if( cancelled ) return;
+
+        long planned;
+        synchronized( this ) {
+            planned = this.planned;
+        }
+        lag.record( Math.max( 0, System.nanoTime() - planned ), NANOSECONDS );
+
+        var executed = execute();
+        Thread.interrupted();
+        if( executed ) schedule( trigger.next() );
+    }
+
+    private boolean execute() {
+        lock.lock();
+        try {
+            if( cancelled ) return false;
+
+            log.trace( "executing {}", identity );
+            running = Thread.currentThread();
+            var start = System.nanoTime();
+            try {
+                runnable.run();
+            } finally {
+                running = null;
+                run.record( System.nanoTime() - start, NANOSECONDS );
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        log.trace( "cancelling {}", identity );
+        synchronized( this ) {
+            cancelled = true;
+            if( future != null ) future.cancel( false );
+        }
+        Scheduler.jobs.remove( this );
+
+        var thread = running;
+        if( thread != null && thread != Thread.currentThread() ) thread.interrupt();
+
+        try {
+            if( lock.tryLock( 10, TimeUnit.SECONDS ) ) lock.unlock();
+            else log.warn( "job {} is still running", identity );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        log.trace( "cancelled {}", identity );
+    }
+
+    /**
+     * Executes the job in the calling thread, waiting for a running execution to finish first.
+     */
+    @Override
+    public void triggerNow() {
+        log.trace( "forcefully triggering job {}", identity );
+        execute();
+    }
+
+    @Override
+    public String toString() {
+        return identity;
+    }
+
+    @FunctionalInterface
+    interface Trigger {
+        /**
+         * @return delay before the next execution in nanos, negative to stop
+         */
+        long next();
+    }
+}
@@ -15,12 +15,12 @@ import static oap.io.Sockets.socketClosed;
 
 @Slf4j
 public abstract class AbstractHttpListener extends SynchronizedRunnable implements Closeable {
-    private final HttpServer server;
+    private final SocketHttpServer server;
     protected int timeout = 1000;
     protected long sleep = 60000;
     private ServerSocket serverSocket;
 
-    AbstractHttpListener( HttpServer server ) {
+    AbstractHttpListener( SocketHttpServer server ) {
         this.server = server;
     }
 
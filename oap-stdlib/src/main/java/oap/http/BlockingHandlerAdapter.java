@@ -57,8 +57,7 @@ class BlockingHandlerAdapter implements HttpRequestHandler {
 
         var serverHttpContext = ( ServerHttpContext ) httpContext;
 
-        var connection = serverHttpContext.connection;
-        var remoteAddress = connection.getRemoteAddress();
+        var remoteAddress = serverHttpContext.remoteAddress;
 
         var request = new Request( httpRequest, new Context( location, remoteAddress, serverHttpContext ) );
 
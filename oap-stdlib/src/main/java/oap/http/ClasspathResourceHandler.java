@@ -23,6 +23,7 @@
  */
 package oap.http;
 
+import com.google.common.hash.Hashing;
 import oap.io.Resources;
 import oap.util.Strings;
 import org.apache.http.HttpRequest;
@@ -34,12 +35,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.activation.MimetypesFileTypeMap;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Optional;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
 
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+/**
+ * Resources are read once and kept in memory together with their gzipped form and an ETag.
+ * Gzipped content is served to clients accepting it, {@code If-None-Match} is answered with 304.
+ */
 public class ClasspathResourceHandler implements HttpRequestHandler {
     private static MimetypesFileTypeMap mimeTypes = new MimetypesFileTypeMap();
     private static Logger logger = LoggerFactory.getLogger( ClasspathResourceHandler.class.getName() );
+    private final ConcurrentHashMap<String, StaticResource> cache = new ConcurrentHashMap<>();
     private String prefix;
     private String location;
 
@@ -48,14 +60,65 @@ public class ClasspathResourceHandler implements HttpRequestHandler {
         this.location = location;
     }
 
+    private static boolean acceptsGzip( HttpRequest req ) {
+        for( var header : req.getHeaders( "Accept-Encoding" ) )
+            if( header.getValue().contains( "gzip" ) ) return true;
+        return false;
+    }
+
     public void handle( HttpRequest req, HttpResponse resp, HttpContext context ) throws IOException {
         String resource = location + Strings.substringAfter( req.getRequestLine().getUri(), prefix );
         if( logger.isTraceEnabled() ) logger.trace( req.getRequestLine().toString() + " -> " + resource );
-        Optional<byte[]> file = Resources.read( getClass(), resource );
-        if( file.isPresent() ) {
-            ByteArrayEntity entity = new ByteArrayEntity( file.get() );
-            entity.setContentType( mimeTypes.getContentType( req.getRequestLine().getUri() ) );
-            resp.setEntity( entity );
-        } else resp.setStatusCode( 404 );
+
+        var file = cache.computeIfAbsent( resource, r -> Resources.read( getClass(), r )
+            .map( content -> new StaticResource( content, mimeTypes.getContentType( req.getRequestLine().getUri() ) ) )
+            .orElse( null ) );
+        if( file == null ) {
+            resp.setStatusCode( HTTP_NOT_FOUND );
+            return;
+        }
+
+        resp.setHeader( "ETag", file.etag );
+        resp.setHeader( "Vary", "Accept-Encoding" );
+
+        var ifNoneMatch = req.getFirstHeader( "If-None-Match" );
+        if( ifNoneMatch != null && ifNoneMatch.getValue().equals( file.etag ) ) {
+            resp.setStatusCode( HTTP_NOT_MODIFIED );
+            return;
+        }
+
+        ByteArrayEntity entity;
+        if( file.gzipped != null && acceptsGzip( req ) ) {
+            entity = new ByteArrayEntity( file.gzipped );
+            entity.setContentEncoding( "gzip" );
+        } else entity = new ByteArrayEntity( file.content );
+        entity.setContentType( file.contentType );
+        resp.setEntity( entity );
+    }
+
+    private static class StaticResource {
+        final byte[] content;
+        final byte[] gzipped;
+        final String contentType;
+        final String etag;
+
+        StaticResource( byte[] content, String contentType ) {
+            this.content = content;
+            this.contentType = contentType;
+            this.etag = "\"" + Hashing.murmur3_128().hashBytes( content ) + "\"";
+
+            var gzipped = gzip( content );
+            this.gzipped = gzipped.length < content.length ? gzipped : null;
+        }
+
+        private static byte[] gzip( byte[] content ) {
+            var out = new ByteArrayOutputStream( content.length / 2 + 32 );
+            try( var gzip = new GZIPOutputStream( out ) ) {
+                gzip.write( content );
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+            return out.toByteArray();
+        }
     }
 }
@@ -26,6 +26,8 @@ package oap.http;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.google.common.base.Preconditions;
 import com.google.common.io.ByteStreams;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import lombok.SneakyThrows;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -44,6 +46,7 @@ import oap.util.Throwables;
 import oap.util.Try;
 import oap.util.Try.ThrowingRunnable;
 import org.apache.http.Header;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.CookieSpecs;
@@ -56,8 +59,10 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.DateUtils;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
 import org.apache.http.conn.util.PublicSuffixMatcherLoader;
 import org.apache.http.cookie.Cookie;
@@ -78,6 +83,7 @@ import org.apache.http.nio.conn.NoopIOSessionStrategy;
 import org.apache.http.nio.conn.SchemeIOSessionStrategy;
 import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContexts;
 
 import javax.annotation.Nonnull;
@@ -88,8 +94,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
@@ -100,7 +104,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
@@ -118,6 +124,12 @@ import static oap.util.Pair.__;
 import static org.apache.commons.lang3.StringUtils.split;
 import static org.apache.http.entity.ContentType.APPLICATION_OCTET_STREAM;
 
+/**
+ * metrics (when {@link ClientBuilder#withMetrics(String)} is set):
+ * - oap_http_client_pool{client, state=leased|pending|available|max}
+ * - oap_http_client_pool_route{client, route, state=leased|pending|available}
+ * (only with {@link ClientBuilder#withRouteMetrics(int)}, for the first routes up to its limit)
+ */
 @Slf4j
 public final class Client implements Closeable {
     public static final Client DEFAULT = custom()
@@ -141,14 +153,25 @@ public final class Client implements Closeable {
     };
 
     private final BasicCookieStore basicCookieStore;
+    private final Set<HttpRoute> meteredRoutes = ConcurrentHashMap.newKeySet();
     private ClientBuilder builder;
+    private PoolingNHttpClientConnectionManager connManager;
     private CloseableHttpAsyncClient client;
 
     private Client( BasicCookieStore basicCookieStore, ClientBuilder builder ) {
-        this.client = builder.client();
+        this.connManager = builder.connectionManager();
+        this.client = builder.client( connManager );
 
         this.basicCookieStore = basicCookieStore;
         this.builder = builder;
+
+        if( builder.metricsName != null ) {
+            var tags = Tags.of( "client", builder.metricsName );
+            Metrics.gauge( "oap_http_client_pool", tags.and( "state", "leased" ), this, c -> c.connManager.getTotalStats().getLeased() );
+            Metrics.gauge( "oap_http_client_pool", tags.and( "state", "pending" ), this, c -> c.connManager.getTotalStats().getPending() );
+            Metrics.gauge( "oap_http_client_pool", tags.and( "state", "available" ), this, c -> c.connManager.getTotalStats().getAvailable() );
+            Metrics.gauge( "oap_http_client_pool", tags.and( "state", "max" ), this, c -> c.connManager.getTotalStats().getMax() );
+        }
     }
 
     public static ClientBuilder custom( Path certificateLocation, String certificatePassword, int connectTimeout, int readTimeout ) {
@@ -159,6 +182,16 @@ public final class Client implements Closeable {
         return new ClientBuilder( null, null, m( 1 ), m( 5 ) );
     }
 
+    /**
+     * route of the pool the request is leased from, the same way the default route planner builds it
+     */
+    private static HttpRoute route( URI uri ) {
+        var host = URIUtils.extractHost( uri );
+        var secure = "https".equalsIgnoreCase( host.getSchemeName() );
+        var port = host.getPort() > 0 ? host.getPort() : secure ? 443 : 80;
+        return new HttpRoute( new HttpHost( host.getHostName(), port, host.getSchemeName() ), null, secure );
+    }
+
     private static List<Pair<String, String>> headers( org.apache.http.HttpResponse response ) {
         return Stream.of( response.getAllHeaders() )
             .map( h -> __( h.getName(), h.getValue() ) )
@@ -205,6 +238,52 @@ public final class Client implements Closeable {
         return getResponse( request, timeout, execute( request, headers ) );
     }
 
+    /**
+     * Non-blocking variants complete on the io reactor with a fully received response.
+     * The builder timeout completes the future with {@link TimeoutException} and aborts the request.
+     * Timeouts and errors complete the future exceptionally, onTimeout/onError callbacks are not called.
+     */
+    public CompletableFuture<Response> getAsync( String uri ) {
+        return getAsync( URI.create( uri ), Maps.empty() );
+    }
+
+    public CompletableFuture<Response> getAsync( URI uri, Map<String, Object> headers ) {
+        return executeAsync( new HttpGet( uri ), headers );
+    }
+
+    public CompletableFuture<Response> postAsync( String uri, String content, ContentType contentType, Map<String, Object> headers ) {
+        var request = new HttpPost( uri );
+        request.setEntity( new StringEntity( content, contentType ) );
+        return executeAsync( request, headers );
+    }
+
+    public CompletableFuture<Response> postAsync( String uri, byte[] content, ContentType contentType, Map<String, Object> headers ) {
+        var request = new HttpPost( uri );
+        request.setEntity( new ByteArrayEntity( content, contentType ) );
+        return executeAsync( request, headers );
+    }
+
+    public CompletableFuture<Response> putAsync( String uri, String content, ContentType contentType, Map<String, Object> headers ) {
+        var request = new HttpPut( uri );
+        request.setEntity( new StringEntity( content, contentType ) );
+        return executeAsync( request, headers );
+    }
+
+    public CompletableFuture<Response> deleteAsync( String uri, Map<String, Object> headers ) {
+        return executeAsync( new HttpDelete( uri ), headers );
+    }
+
+    private CompletableFuture<Response> executeAsync( HttpRequestBase request, Map<String, Object> headers ) {
+        var future = execute( request, headers );
+        if( builder.timeout <= 0 ) return future;
+
+        return future
+            .orTimeout( builder.timeout, MILLISECONDS )
+            .whenComplete( ( response, e ) -> {
+                if( e instanceof TimeoutException ) request.abort();
+            } );
+    }
+
     public Response post( String uri, Map<String, Object> params ) {
         return post( uri, params, Maps.empty() );
     }
@@ -272,15 +351,10 @@ public final class Client implements Closeable {
     }
 
     private OutputStreamWithResponse post( ContentType contentType, HttpPost request ) throws UncheckedIOException {
-        try {
-            var pos = new PipedOutputStream();
-            var pis = new PipedInputStream( pos );
-            request.setEntity( new InputStreamEntity( pis, contentType ) );
+        var entity = new HttpAsyncOutputStreamEntity( contentType, builder.requestBufferSize );
+        request.setEntity( entity );
 
-            return new OutputStreamWithResponse( pos, execute( request, Maps.empty() ), request, builder.timeout );
-        } catch( IOException e ) {
-            throw new UncheckedIOException( e );
-        }
+        return new OutputStreamWithResponse( entity.getOutputStream(), execute( request, Maps.empty() ), request, builder.timeout );
     }
 
     public Response post( String uri, InputStream content, ContentType contentType ) {
@@ -342,6 +416,17 @@ public final class Client implements Closeable {
             .orElseThrow( () -> new RuntimeException( "no response" ) );
     }
 
+    /**
+     * connections of all routes
+     */
+    public PoolStats poolStats() {
+        return connManager.getTotalStats();
+    }
+
+    public PoolStats poolStats( URI uri ) {
+        return connManager.getStats( route( uri ) );
+    }
+
     public List<Cookie> getCookies() {
         return basicCookieStore.getCookies();
     }
@@ -359,6 +444,8 @@ public final class Client implements Closeable {
                                                  ThrowingRunnable<IOException> asyncRunnable ) {
         headers.forEach( ( name, value ) -> request.setHeader( name, value == null ? "" : value.toString() ) );
 
+        if( builder.metricsName != null && builder.routeMetricsLimit > 0 ) meterRoute( request.getURI() );
+
         var completableFuture = new CompletableFuture<Response>();
 
         client.execute( request, new FutureCallback<>() {
@@ -407,6 +494,17 @@ public final class Client implements Closeable {
         return completableFuture;
     }
 
+    private void meterRoute( URI uri ) {
+        var route = route( uri );
+        if( meteredRoutes.contains( route ) || meteredRoutes.size() >= builder.routeMetricsLimit ) return;
+        if( !meteredRoutes.add( route ) ) return;
+
+        var tags = Tags.of( "client", builder.metricsName, "route", route.getTargetHost().toURI() );
+        Metrics.gauge( "oap_http_client_pool_route", tags.and( "state", "leased" ), this, c -> c.connManager.getStats( route ).getLeased() );
+        Metrics.gauge( "oap_http_client_pool_route", tags.and( "state", "pending" ), this, c -> c.connManager.getStats( route ).getPending() );
+        Metrics.gauge( "oap_http_client_pool_route", tags.and( "state", "available" ), this, c -> c.connManager.getStats( route ).getAvailable() );
+    }
+
     @SneakyThrows
     public Optional<Path> download( String url, Optional<Long> modificationTime, Optional<Path> file, Consumer<Integer> progress ) {
         try {
@@ -470,7 +568,8 @@ public final class Client implements Closeable {
 
     public void reset() {
         Closeables.close( client );
-        client = builder.client();
+        connManager = builder.connectionManager();
+        client = builder.client( connManager );
     }
 
     @Override
@@ -651,6 +750,9 @@ public final class Client implements Closeable {
         private int maxConnPerRoute = 1000;
         private boolean redirectsEnabled = false;
         private String cookieSpec = CookieSpecs.STANDARD;
+        private int requestBufferSize = 1024 * 64;
+        private String metricsName;
+        private int routeMetricsLimit;
 
         public ClientBuilder( Path certificateLocation, String certificatePassword, long connectTimeout, long timeout ) {
             basicCookieStore = new BasicCookieStore();
@@ -661,7 +763,7 @@ public final class Client implements Closeable {
             this.timeout = timeout;
         }
 
-        private HttpAsyncClientBuilder initialize() {
+        private PoolingNHttpClientConnectionManager connectionManager() {
             try {
                 final PoolingNHttpClientConnectionManager connManager = new PoolingNHttpClientConnectionManager(
                     new DefaultConnectingIOReactor( IOReactorConfig.custom()
@@ -682,25 +784,29 @@ public final class Client implements Closeable {
                 connManager.setMaxTotal( maxConnTotal );
                 connManager.setDefaultMaxPerRoute( maxConnPerRoute );
 
-                return ( certificateLocation != null
-                    ? HttpAsyncClients.custom()
-                    .setSSLContext( HttpClient.createSSLContext( certificateLocation, certificatePassword ) )
-                    : HttpAsyncClients.custom() )
-                    .setMaxConnPerRoute( maxConnPerRoute )
-                    .setConnectionManager( connManager )
-                    .setMaxConnTotal( maxConnTotal )
-                    .setKeepAliveStrategy( DefaultConnectionKeepAliveStrategy.INSTANCE )
-                    .setDefaultRequestConfig( RequestConfig
-                        .custom()
-                        .setRedirectsEnabled( redirectsEnabled )
-                        .setCookieSpec( cookieSpec )
-                        .build() )
-                    .setDefaultCookieStore( basicCookieStore );
+                return connManager;
             } catch( IOReactorException e ) {
                 throw new UncheckedIOException( e );
             }
         }
 
+        private HttpAsyncClientBuilder initialize( PoolingNHttpClientConnectionManager connManager ) {
+            return ( certificateLocation != null
+                ? HttpAsyncClients.custom()
+                .setSSLContext( HttpClient.createSSLContext( certificateLocation, certificatePassword ) )
+                : HttpAsyncClients.custom() )
+                .setMaxConnPerRoute( maxConnPerRoute )
+                .setConnectionManager( connManager )
+                .setMaxConnTotal( maxConnTotal )
+                .setKeepAliveStrategy( DefaultConnectionKeepAliveStrategy.INSTANCE )
+                .setDefaultRequestConfig( RequestConfig
+                    .custom()
+                    .setRedirectsEnabled( redirectsEnabled )
+                    .setCookieSpec( cookieSpec )
+                    .build() )
+                .setDefaultCookieStore( basicCookieStore );
+        }
+
         public ClientBuilder setMaxConnTotal( int maxConnTotal ) {
             this.maxConnTotal = maxConnTotal;
 
@@ -725,8 +831,35 @@ public final class Client implements Closeable {
             return this;
         }
 
-        private CloseableHttpAsyncClient client() {
-            final CloseableHttpAsyncClient build = initialize().build();
+        /**
+         * size of the buffer between the writer of {@link #post(String, ContentType)} and the io reactor
+         */
+        public ClientBuilder setRequestBufferSize( int requestBufferSize ) {
+            this.requestBufferSize = requestBufferSize;
+
+            return this;
+        }
+
+        /**
+         * export connection pool metrics tagged with client={@code name}
+         */
+        public ClientBuilder withMetrics( String name ) {
+            this.metricsName = name;
+
+            return this;
+        }
+
+        /**
+         * also export per route pool metrics for at most {@code maxRoutes} distinct target hosts, needs {@link #withMetrics(String)}
+         */
+        public ClientBuilder withRouteMetrics( int maxRoutes ) {
+            this.routeMetricsLimit = maxRoutes;
+
+            return this;
+        }
+
+        private CloseableHttpAsyncClient client( PoolingNHttpClientConnectionManager connManager ) {
+            final CloseableHttpAsyncClient build = initialize( connManager ).build();
             build.start();
             return build;
         }
@@ -740,10 +873,10 @@ public final class Client implements Closeable {
         private final CompletableFuture<Response> completableFuture;
         private final HttpRequestBase request;
         private final long timeout;
-        private PipedOutputStream pos;
+        private OutputStream pos;
         private Response response;
 
-        public OutputStreamWithResponse( PipedOutputStream pos, CompletableFuture<Response> completableFuture, HttpRequestBase request, long timeout ) {
+        public OutputStreamWithResponse( OutputStream pos, CompletableFuture<Response> completableFuture, HttpRequestBase request, long timeout ) {
             this.pos = pos;
             this.completableFuture = completableFuture;
             this.request = request;
@@ -0,0 +1,254 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpRequestHandler;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * Adaptive limit of requests in flight for one bound context.
+ * <p>
+ * Latency is averaged per {@link Options#window}; once per window the limit is adjusted either by
+ * {@link Algorithm#AIMD} (additive increase, multiplicative decrease above {@link Options#latencyThreshold}) or by
+ * {@link Algorithm#GRADIENT} (ratio of the long-term to the current latency). Requests over the limit are answered
+ * with 503 and Retry-After before the handler sees them.
+ * <p>
+ * metrics (tag context):
+ * - oap_http_limit
+ * - oap_http_inflight
+ * - oap_http_rejected
+ * <p>
+ * The gauges report the limiter bound last for a context, {@link #close()} removes them.
+ */
+@Slf4j
+public class ConcurrencyLimiter implements Closeable {
+    public final String context;
+    private final Options options;
+    private final String retryAfter;
+    private final long windowNanos;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder latency = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong( System.nanoTime() );
+    private final Counter rejected;
+    private final List<Gauge> gauges;
+    private volatile int limit;
+    /**
+     * highest inflight of the window, racy updates are fine for the growth check
+     */
+    private volatile int peak;
+    private double longLatency;
+
+    public ConcurrencyLimiter( String context, Options options ) {
+        this.context = context;
+        this.options = options;
+        this.retryAfter = String.valueOf( options.retryAfter );
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos( options.window );
+        this.limit = clamp( options.initialLimit );
+
+        var tags = Tags.of( "context", context );
+        this.gauges = List.of(
+            register( "oap_http_limit", tags, Gauge.builder( "oap_http_limit", this, ConcurrencyLimiter::getLimit ) ),
+            register( "oap_http_inflight", tags, Gauge.builder( "oap_http_inflight", inflight, AtomicInteger::get ) ) );
+        this.rejected = Metrics.counter( "oap_http_rejected", tags );
+    }
+
+    /**
+     * the registry would return the gauge of a previous limiter with the same id, replace it
+     */
+    private static Gauge register( String name, Tags tags, Gauge.Builder<?> builder ) {
+        var previous = Metrics.globalRegistry.find( name ).tags( tags ).gauge();
+        if( previous != null ) Metrics.globalRegistry.remove( previous );
+        return builder.tags( tags ).register( Metrics.globalRegistry );
+    }
+
+    public boolean tryAcquire() {
+        while( true ) {
+            var current = inflight.get();
+            if( current >= limit ) {
+                rejected.increment();
+                return false;
+            }
+            if( inflight.compareAndSet( current, current + 1 ) ) {
+                if( current >= peak ) peak = current + 1;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param start {@link System#nanoTime()} at the matching {@link #tryAcquire()}
+     */
+    public void release( long start ) {
+        inflight.decrementAndGet();
+
+        var now = System.nanoTime();
+        samples.increment();
+        latency.add( now - start );
+
+        var window = windowStart.get();
+        if( now - window >= windowNanos && windowStart.compareAndSet( window, now ) ) update();
+    }
+
+    /**
+     * Removes the gauges unless another limiter has been bound to the context since.
+     */
+    @Override
+    public void close() {
+        for( var gauge : gauges ) {
+            var registered = Metrics.globalRegistry.find( gauge.getId().getName() ).tags( gauge.getId().getTags() ).gauge();
+            if( registered == gauge ) Metrics.globalRegistry.remove( gauge );
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public String retryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return handler answering 503 when over the limit and feeding the latency of {@code handler} otherwise
+     */
+    public HttpRequestHandler wrap( HttpRequestHandler handler ) {
+        return ( request, response, context ) -> {
+            if( !tryAcquire() ) {
+                reject( request, response );
+                return;
+            }
+            var start = System.nanoTime();
+            try {
+                handler.handle( request, response, context );
+            } finally {
+                release( start );
+            }
+        };
+    }
+
+    private void reject( HttpRequest request, HttpResponse response ) {
+        response.setStatusCode( HTTP_UNAVAILABLE );
+        response.setReasonPhrase( "Service Unavailable" );
+        response.setHeader( "Retry-After", retryAfter );
+        // the unread body would break the next request on this connection
+        if( request instanceof HttpEntityEnclosingRequest ) response.setHeader( "Connection", "close" );
+    }
+
+    private synchronized void update() {
+        var count = samples.sumThenReset();
+        var sum = latency.sumThenReset();
+        if( count < options.minSamples ) {
+            samples.add( count );
+            latency.add( sum );
+            return;
+        }
+
+        var current = ( double ) sum / count;
+        var utilized = peak * 2 >= limit;
+        peak = inflight.get();
+        var updated = switch( options.algorithm ) {
+            case AIMD -> aimd( current, utilized );
+            case GRADIENT -> gradient( current, utilized );
+        };
+
+        if( updated != limit ) log.trace( "{}: limit {} -> {}, latency {}us", context, limit, updated, ( long ) current / 1000 );
+        limit = updated;
+    }
+
+    private int aimd( double current, boolean utilized ) {
+        if( current > TimeUnit.MILLISECONDS.toNanos( options.latencyThreshold ) )
+            return clamp( ( int ) ( limit * options.backoffRatio ) );
+        return utilized ? clamp( limit + 1 ) : limit;
+    }
+
+    private int gradient( double current, boolean utilized ) {
+        if( longLatency == 0 ) longLatency = current;
+        else longLatency += ( current - longLatency ) / options.longWindow;
+        // let the baseline follow a recovered latency down
+        if( longLatency / current > 2 ) longLatency *= 0.95;
+
+        var gradient = Math.max( 0.5, Math.min( 1.0, options.tolerance * longLatency / current ) );
+        var estimated = limit * gradient + Math.sqrt( limit );
+        if( estimated > limit && !utilized ) return limit;
+
+        return clamp( ( int ) ( limit * ( 1 - options.smoothing ) + estimated * options.smoothing ) );
+    }
+
+    private int clamp( int value ) {
+        return Math.max( options.minLimit, Math.min( options.maxLimit, value ) );
+    }
+
+    public enum Algorithm {
+        AIMD, GRADIENT
+    }
+
+    public static class Options {
+        public Algorithm algorithm = Algorithm.GRADIENT;
+        public int initialLimit = 20;
+        public int minLimit = 1;
+        public int maxLimit = 1000;
+        /**
+         * ms
+         */
+        public long window = 100;
+        public int minSamples = 10;
+        /**
+         * ms, {@link Algorithm#AIMD}
+         */
+        public long latencyThreshold = 100;
+        public double backoffRatio = 0.9;
+        /**
+         * windows, {@link Algorithm#GRADIENT}
+         */
+        public int longWindow = 20;
+        public double tolerance = 1.5;
+        public double smoothing = 0.2;
+        /**
+         * seconds
+         */
+        public int retryAfter = 1;
+    }
+}
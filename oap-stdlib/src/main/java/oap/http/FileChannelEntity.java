@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import io.undertow.io.BufferWritableOutputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * File entity written with {@link FileChannel#transferTo}.
+ * <p>
+ * On {@link UndertowServer} the file goes to the socket with sendfile, no user space copy is made.
+ * Other output streams get the file through a channel adapter.
+ * <p>
+ * The length is taken once on creation (0 for a missing file, as {@link org.apache.http.entity.FileEntity} does)
+ * and exactly that many bytes are written.
+ */
+public class FileChannelEntity extends AbstractHttpEntity {
+    private final Path file;
+    private final long length;
+
+    public FileChannelEntity( Path file, ContentType contentType ) {
+        this.file = file;
+        this.length = file.toFile().length();
+        if( contentType != null ) setContentType( contentType.toString() );
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return Files.newInputStream( file );
+    }
+
+    @Override
+    public void writeTo( OutputStream outstream ) throws IOException {
+        try( var channel = FileChannel.open( file, READ ) ) {
+            if( outstream instanceof BufferWritableOutputStream && channel.size() == length ) {
+                ( ( BufferWritableOutputStream ) outstream ).transferFrom( channel );
+                return;
+            }
+
+            var target = Channels.newChannel( outstream );
+            var size = Math.min( length, channel.size() );
+            var position = 0L;
+            while( position < size ) position += channel.transferTo( position, size - position, target );
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
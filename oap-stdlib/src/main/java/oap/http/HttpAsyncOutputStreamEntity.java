@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.ContentOutputStream;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.nio.util.SharedOutputBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request entity written by the caller thread straight into a buffer drained by the io reactor.
+ * <p>
+ * The reactor suspends output while the buffer is empty and the writer blocks while it is full,
+ * no piped streams and no reactor thread blocked on reading them.
+ */
+class HttpAsyncOutputStreamEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+    private final SharedOutputBuffer buffer;
+    private final ContentOutputStream outputStream;
+
+    HttpAsyncOutputStreamEntity( ContentType contentType, int bufferSize ) {
+        this.buffer = new SharedOutputBuffer( bufferSize );
+        this.outputStream = new ContentOutputStream( buffer );
+        setChunked( true );
+        if( contentType != null ) setContentType( contentType.toString() );
+    }
+
+    /**
+     * closing the stream completes the request body
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public void produceContent( ContentEncoder encoder, IOControl ioControl ) throws IOException {
+        buffer.produceContent( encoder, ioControl );
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeTo( OutputStream outstream ) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+    }
+}
@@ -24,6 +24,7 @@
 package oap.http;
 
 import lombok.ToString;
+import oap.concurrent.FastByteArrayOutputStreamPool;
 import oap.json.Binder;
 import oap.util.Maps;
 import oap.util.Pair;
@@ -31,7 +32,6 @@ import oap.util.Strings;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.FileEntity;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 
@@ -39,8 +39,10 @@ import javax.annotation.Nonnull;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +56,7 @@ import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static oap.util.Pair.__;
 import static org.apache.http.entity.ContentType.APPLICATION_JSON;
 import static org.apache.http.entity.ContentType.TEXT_PLAIN;
@@ -64,9 +67,10 @@ public final class HttpResponse {
     public static final HttpResponse FORBIDDEN = status( HTTP_FORBIDDEN ).response();
     public static final HttpResponse NO_CONTENT = status( HTTP_NO_CONTENT ).response();
     public static final HttpResponse NOT_MODIFIED = status( HTTP_NOT_MODIFIED ).response();
+    private static final Function<Object, String> JSON_PRODUCER = Binder.json::marshal;
     private static final Map<String, Function<Object, String>> producers = Maps.of(
         __( TEXT_PLAIN.getMimeType(), String::valueOf ),
-        __( APPLICATION_JSON.getMimeType(), Binder.json::marshal )
+        __( APPLICATION_JSON.getMimeType(), JSON_PRODUCER )
     );
     public final int code;
     public final String reason;
@@ -94,13 +98,13 @@ public final class HttpResponse {
     }
 
     public static Builder ok( Object content, boolean raw, ContentType contentType ) {
-        return ok( content )
-            .withEntity( new StringEntity( content( raw, content, contentType ), contentType ) );
+        return status( HTTP_OK )
+            .withEntity( entity( raw, content, contentType ) );
     }
 
     public static Builder ok( Object content ) {
         return status( HTTP_OK )
-            .withEntity( new StringEntity( content( false, content, APPLICATION_JSON ), APPLICATION_JSON ) );
+            .withEntity( entity( false, content, APPLICATION_JSON ) );
     }
 
     public static Builder ok( byte[] content, ContentType contentType ) {
@@ -133,9 +137,14 @@ public final class HttpResponse {
             .withEntity( new HttpGzipOutputStreamEntity( consumer, contentType ) );
     }
 
+    /**
+     * {@link #NOT_FOUND} status if the file does not exist
+     */
     public static Builder file( Path file, ContentType contentType ) {
+        if( !Files.isRegularFile( file ) ) return status( HTTP_NOT_FOUND );
+
         return status( HTTP_OK )
-            .withEntity( new FileEntity( file.toFile(), contentType ) );
+            .withEntity( new FileChannelEntity( file, contentType ) );
     }
 
     public static Builder bytes( byte[] bytes, ContentType contentType ) {
@@ -150,7 +159,7 @@ public final class HttpResponse {
 
     public static Builder status( int code, String reason, Object content ) {
         return status( code, reason )
-            .withEntity( new StringEntity( content( false, content, APPLICATION_JSON ), APPLICATION_JSON ) );
+            .withEntity( entity( false, content, APPLICATION_JSON ) );
     }
 
     public static Builder status( int code ) {
@@ -161,6 +170,23 @@ public final class HttpResponse {
         producers.put( mimeType, producer );
     }
 
+    /**
+     * json is serialized straight to utf-8 bytes in a pooled buffer instead of a String re-encoded by {@link StringEntity}.
+     * The bytes are copied out, so the response doesn't hold the pooled buffer.
+     */
+    private static HttpEntity entity( boolean raw, Object content, ContentType contentType ) {
+        if( raw || !APPLICATION_JSON.getMimeType().equals( contentType.getMimeType() )
+            || contentType.getCharset() != null && !UTF_8.equals( contentType.getCharset() )
+            || producers.get( APPLICATION_JSON.getMimeType() ) != JSON_PRODUCER )
+            return new StringEntity( content( raw, content, contentType ), contentType );
+
+        try( var pooled = FastByteArrayOutputStreamPool.borrowObject() ) {
+            var out = pooled.getObject();
+            Binder.json.marshal( out, content );
+            return new ByteArrayEntity( Arrays.copyOf( out.array, out.length ), contentType );
+        }
+    }
+
     private static String content( boolean raw, Object content, ContentType contentType ) {
         return raw ? ( String ) content
             : HttpResponse.producers.getOrDefault( contentType.getMimeType(), String::valueOf ).apply( content );
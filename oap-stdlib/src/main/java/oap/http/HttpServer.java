@@ -25,12 +25,8 @@ package oap.http;
 
 import oap.http.cors.CorsPolicy;
 
-import java.net.Socket;
-
 public interface HttpServer {
     void bind( String context, CorsPolicy corsPolicy, Handler handler, Protocol protocol );
 
     void unbind( String context );
-
-    void accepted( Socket socket );
 }
@@ -14,7 +14,7 @@ public class LocalHttpListener extends AbstractHttpListener {
 
     private final int port;
 
-    public LocalHttpListener( HttpServer server, int port ) {
+    public LocalHttpListener( SocketHttpServer server, int port ) {
         super( server );
         this.port = port;
     }
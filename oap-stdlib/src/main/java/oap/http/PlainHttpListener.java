@@ -13,7 +13,7 @@ public class PlainHttpListener extends AbstractHttpListener {
 
     private final int port;
 
-    public PlainHttpListener( HttpServer server, int port ) {
+    public PlainHttpListener( SocketHttpServer server, int port ) {
         super( server );
         this.port = port;
         log.info( "Plain HTTP listener configured to bind on {}", port );
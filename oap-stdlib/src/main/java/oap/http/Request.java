@@ -41,6 +41,7 @@ import org.apache.http.HttpRequest;
 import org.apache.http.util.EntityUtils;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -73,12 +74,19 @@ public class Request {
         this.context = context;
         this.uri = underlying.getRequestLine().getUri();
         this.body = content( underlying ); // Headers have to be constructed at this point
-        this.ua = header( "User-Agent" ).orElse( null );
-        this.referrer = header( "Referrer" ).orElse( null );
-        this.ip = header( "X-Forwarded-For" ).orElse( context.remoteAddress.getHostAddress() );
+        this.ua = firstHeader( "User-Agent" );
+        this.referrer = firstHeader( "Referrer" );
+        var forwardedFor = firstHeader( "X-Forwarded-For" );
+        this.ip = forwardedFor != null ? forwardedFor : context.remoteAddress.getHostAddress();
     }
 
+    /**
+     * Query parameters are looked up in the raw uri on demand, only the requested value is decoded.
+     * Form bodies ("application/x-www-form-urlencoded") are parsed once as a whole.
+     */
     public Optional<String> parameter( String name ) {
+        if( params == null && !isFormUrlEncoded() ) return Url.parameter( uri, queryStart(), name );
+
         ensureParametersParsed();
         List<String> values = params.get( name );
         if( values.isEmpty() ) return Optional.empty();
@@ -86,25 +94,33 @@ public class Request {
     }
 
     public String parameterOrDefault( String name, String def ) {
-        ensureParametersParsed();
-        List<String> values = params.get( name );
-        if( values.isEmpty() ) return def;
-        return values.get( 0 );
+        return parameter( name ).orElse( def );
     }
 
     public List<String> parameters( String name ) {
+        if( params == null && !isFormUrlEncoded() ) return Url.parameters( uri, queryStart(), name );
+
         ensureParametersParsed();
         return params.get( name );
     }
 
+    private int queryStart() {
+        var idx = uri.indexOf( '?' );
+        return idx < 0 ? uri.length() : idx + 1;
+    }
+
+    private boolean isFormUrlEncoded() {
+        if( !( underlying instanceof HttpEntityEnclosingRequest ) ) return false;
+        var contentType = underlying.getFirstHeader( "Content-Type" );
+        return contentType != null && contentType.getValue().startsWith( "application/x-www-form-urlencoded" );
+    }
+
     @SneakyThrows
     private void ensureParametersParsed() {
         if( this.params != null ) return;
         this.params = ArrayListMultimap.create();
         Url.parseQuery( Strings.substringAfter( uri, "?" ), this.params );
-        var contentType = underlying.getFirstHeader( "Content-Type" );
-        if( contentType != null && contentType.getValue().startsWith( "application/x-www-form-urlencoded" )
-            && underlying instanceof HttpEntityEnclosingRequest )
+        if( isFormUrlEncoded() )
             Url.parseQuery( EntityUtils.toString( ( ( HttpEntityEnclosingRequest ) underlying ).getEntity() ), this.params );
 
     }
@@ -210,17 +226,55 @@ public class Request {
         return body.map( Try.mapOrThrow( ByteStreams::toByteArray, HttpException.class ) );
     }
 
+    /**
+     * headers are looked up in the underlying request (case insensitive), {@link #getHeaders()} isn't built
+     */
     public Optional<String> header( String name ) {
-        return getHeaders().containsKey( name.toLowerCase() ) ? Lists.headOpt( getHeaders().get( name.toLowerCase() ) )
-            : Optional.empty();
+        return Optional.ofNullable( firstHeader( name ) );
+    }
+
+    private String firstHeader( String name ) {
+        var header = underlying.getFirstHeader( name );
+        return header != null ? header.getValue() : null;
     }
 
     public List<String> headers( String name ) {
-        return getHeaders().containsKey( name.toLowerCase() ) ? getHeaders().get( name.toLowerCase() ) : Lists.empty();
+        var headers = underlying.getHeaders( name );
+        if( headers.length == 0 ) return Lists.empty();
+
+        var values = new ArrayList<String>( headers.length );
+        for( var header : headers ) values.add( header.getValue() );
+        return values;
     }
 
+    /**
+     * the cookie header is scanned for {@code name}, {@link #getCookies()} isn't built.
+     * The last of duplicate names wins, as in {@link #getCookies()}.
+     */
     public Optional<String> cookie( String name ) {
-        return Optional.ofNullable( getCookies().get( name ) );
+        if( cookies != null ) return Optional.ofNullable( cookies.get( name ) );
+
+        var cookie = firstHeader( "Cookie" );
+        if( cookie == null ) return Optional.empty();
+
+        String value = null;
+        var length = cookie.length();
+        var start = 0;
+        while( start < length ) {
+            var end = cookie.indexOf( ';', start );
+            if( end < 0 ) end = length;
+
+            while( start < end && Character.isWhitespace( cookie.charAt( start ) ) ) start++;
+            var eq = cookie.indexOf( '=', start );
+            if( eq >= 0 && eq < end && eq - start == name.length() && cookie.regionMatches( start, name, 0, name.length() ) ) {
+                var valueEnd = end;
+                while( valueEnd > eq + 1 && Character.isWhitespace( cookie.charAt( valueEnd - 1 ) ) ) valueEnd--;
+                value = cookie.substring( eq + 1, valueEnd );
+            }
+
+            start = end + 1;
+        }
+        return Optional.ofNullable( value );
     }
 
     @Override
@@ -24,11 +24,11 @@ public class SecureHttpListener extends AbstractHttpListener {
     private final int port;
     private final boolean private_network;
 
-    public SecureHttpListener( HttpServer server, int port, boolean private_network ) {
+    public SecureHttpListener( SocketHttpServer server, int port, boolean private_network ) {
         this( server, null, null, port, private_network );
     }
 
-    public SecureHttpListener( HttpServer server, Path keystoreLocation, String keystorePassword, int port, boolean private_network ) {
+    public SecureHttpListener( SocketHttpServer server, Path keystoreLocation, String keystorePassword, int port, boolean private_network ) {
         super( server );
         this.keystoreLocation = keystoreLocation;
         this.keystorePassword = keystorePassword;
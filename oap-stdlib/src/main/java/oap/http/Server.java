@@ -41,6 +41,7 @@ import org.apache.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.http.impl.DefaultHttpResponseFactory;
 import org.apache.http.protocol.HttpCoreContext;
 import org.apache.http.protocol.HttpProcessorBuilder;
+import org.apache.http.protocol.HttpRequestHandler;
 import org.apache.http.protocol.HttpService;
 import org.apache.http.protocol.ResponseConnControl;
 import org.apache.http.protocol.ResponseContent;
@@ -65,9 +66,10 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * metrics:
  * - http.*
+ * - {@link ConcurrencyLimiter} metrics when {@link #concurrencyLimit} is set
  */
 @Slf4j
-public class Server implements HttpServer {
+public class Server implements SocketHttpServer {
     private static final DefaultBHttpServerConnectionFactory connectionFactory = DefaultBHttpServerConnectionFactory.INSTANCE;
 
     private static final Counter requests = Metrics.counter( "oap_http_requests" );
@@ -75,12 +77,17 @@ public class Server implements HttpServer {
     private static final Counter keepaliveTimeout = Metrics.counter( "oap_http_keepalive_timeout" );
 
     private final ConcurrentHashMap<String, ServerHttpContext> connections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
     private final UriHttpRequestHandlerMapper mapper = new UriHttpRequestHandlerMapper();
     private final int workers;
     private final boolean registerStatic;
     public int keepAliveTimeout = 1000 * 20;
     public String originalServer = "OAP Server/1.0";
     public boolean responseDate = true;
+    /**
+     * per bound context, disabled if null
+     */
+    public ConcurrencyLimiter.Options concurrencyLimit;
     private HttpService httpService;
     private ExecutorService executor;
 
@@ -126,8 +133,14 @@ public class Server implements HttpServer {
     public void bind( String context, CorsPolicy corsPolicy, Handler handler, Protocol protocol ) {
         var location1 = "/" + context + "/*";
         var location2 = "/" + context;
-        mapper.register( location1, new BlockingHandlerAdapter( "/" + context, handler, corsPolicy, protocol ) );
-        mapper.register( location2, new BlockingHandlerAdapter( "/" + context, handler, corsPolicy, protocol ) );
+        HttpRequestHandler adapter = new BlockingHandlerAdapter( "/" + context, handler, corsPolicy, protocol );
+        if( concurrencyLimit != null ) {
+            var limiter = new ConcurrencyLimiter( "/" + context, concurrencyLimit );
+            Closeables.close( limiters.put( context, limiter ) );
+            adapter = limiter.wrap( adapter );
+        }
+        mapper.register( location1, adapter );
+        mapper.register( location2, adapter );
 
         log.info( "{} bound to [{}, {}]", handler, location1, location2 );
     }
@@ -135,8 +148,17 @@ public class Server implements HttpServer {
     @Override
     public void unbind( final String context ) {
         mapper.unregister( "/" + context + "/*" );
+        Closeables.close( limiters.remove( context ) );
+    }
+
+    /**
+     * @return limiter of a bound context, null if {@link #concurrencyLimit} is not set
+     */
+    ConcurrencyLimiter limiter( String context ) {
+        return limiters.get( context );
     }
 
+    @Override
     @SneakyThrows
     public void accepted( Socket socket ) {
         socket.setSoTimeout( keepAliveTimeout );
@@ -198,6 +220,8 @@ public class Server implements HttpServer {
         connections.forEach( ( key, connection ) -> Closeables.close( connection ) );
 
         Closeables.close( executor );
+        limiters.values().forEach( Closeables::close );
+        limiters.clear();
 
         log.info( "server gone down" );
     }
@@ -30,18 +30,32 @@ import org.apache.http.protocol.HttpContext;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.net.InetAddress;
 
 @ToString
 public class ServerHttpContext implements HttpContext, Closeable {
     public final Protocol protocol;
     public final DefaultBHttpServerConnection connection;
+    public final InetAddress remoteAddress;
     private final HttpContext httpContext;
     public long start = System.nanoTime();
 
     public ServerHttpContext( HttpContext httpContext, Protocol protocol, DefaultBHttpServerConnection connection ) {
+        this( httpContext, protocol, connection, connection != null ? connection.getRemoteAddress() : null );
+    }
+
+    /**
+     * context of a connection which is not owned by {@link Server}, e.g. served by {@link UndertowServer}
+     */
+    public ServerHttpContext( HttpContext httpContext, InetAddress remoteAddress, Protocol protocol ) {
+        this( httpContext, protocol, null, remoteAddress );
+    }
+
+    private ServerHttpContext( HttpContext httpContext, Protocol protocol, DefaultBHttpServerConnection connection, InetAddress remoteAddress ) {
         this.httpContext = httpContext;
         this.protocol = protocol;
         this.connection = connection;
+        this.remoteAddress = remoteAddress;
     }
 
     @Override
@@ -61,6 +75,6 @@ public class ServerHttpContext implements HttpContext, Closeable {
 
     @Override
     public void close() throws IOException {
-        connection.close();
+        if( connection != null ) connection.close();
     }
 }
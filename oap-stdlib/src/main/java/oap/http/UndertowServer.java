@@ -0,0 +1,249 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.undertow.Handlers;
+import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.util.AttachmentKey;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import lombok.extern.slf4j.Slf4j;
+import oap.http.cors.CorsPolicy;
+import oap.io.Closeables;
+import oap.net.Inet;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.DefaultHttpRequestFactory;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpRequestHandler;
+
+import java.net.InetAddress;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * Event-driven alternative to {@link Server} built on Undertow (XNIO).
+ * <p>
+ * {@link Server} pins a worker thread for every open connection, including idle keep-alive ones,
+ * so {@code workers} caps the number of clients. Here idle connections are parked on the io threads
+ * and a worker is taken only while a request is being handled, so {@code workers} caps concurrent work.
+ * <p>
+ * {@link Handler}, {@link Request} and {@link Response} are the same as with {@link Server}.
+ * The server owns its listener, so it is not a {@link SocketHttpServer} and cannot be fed by a {@link AbstractHttpListener}.
+ * <p>
+ * metrics:
+ * - oap_http_requests
+ * - {@link ConcurrencyLimiter} metrics when {@link #concurrencyLimit} is set
+ */
+@Slf4j
+public class UndertowServer implements HttpServer {
+    private static final Counter requests = Metrics.counter( "oap_http_requests" );
+    private static final AttachmentKey<Long> ACQUIRED = AttachmentKey.create( Long.class );
+    private static final AttachmentKey<Protocol> PROTOCOL = AttachmentKey.create( Protocol.class );
+
+    private final int port;
+    private final int workers;
+    private final boolean registerStatic;
+    private final PathHandler paths = Handlers.path();
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    public int ioThreads = Math.max( Runtime.getRuntime().availableProcessors(), 2 );
+    public int keepAliveTimeout = 1000 * 20;
+    public String originalServer = "OAP Server/1.0";
+    public boolean responseDate = true;
+    /**
+     * per bound context, checked on the io thread so that rejected requests never wait for a worker. Disabled if null
+     */
+    public ConcurrencyLimiter.Options concurrencyLimit;
+    private Undertow undertow;
+
+    public UndertowServer( int port, int workers, boolean registerStatic ) {
+        this.port = port;
+        this.workers = workers;
+        this.registerStatic = registerStatic;
+    }
+
+    /**
+     * resolved once per connection, {@link Inet#isLocalAddress(InetAddress)} looks up the network interfaces
+     */
+    private static Protocol protocol( HttpServerExchange exchange, InetAddress remoteAddress ) {
+        var connection = exchange.getConnection();
+        var protocol = connection.getAttachment( PROTOCOL );
+        if( protocol == null ) {
+            if( Inet.isLocalAddress( remoteAddress ) ) protocol = Protocol.LOCAL;
+            else protocol = "https".equals( exchange.getRequestScheme() ) ? Protocol.HTTPS : Protocol.HTTP;
+            connection.putAttachment( PROTOCOL, protocol );
+        }
+        return protocol;
+    }
+
+    public void start() {
+        if( registerStatic )
+            paths.addPrefixPath( "/static", new Adapter( new ClasspathResourceHandler( "/static", "/WEB-INF" ), null ) );
+
+        undertow = Undertow
+            .builder()
+            .addHttpListener( port, "0.0.0.0" )
+            .setIoThreads( ioThreads )
+            .setWorkerThreads( workers )
+            .setServerOption( UndertowOptions.IDLE_TIMEOUT, keepAliveTimeout )
+            .setServerOption( UndertowOptions.ALWAYS_SET_DATE, responseDate )
+            .setServerOption( UndertowOptions.ALWAYS_SET_KEEP_ALIVE, true )
+            .setHandler( paths )
+            .build();
+
+        undertow.start();
+
+        log.info( "Successfully bound undertow http server to {}, io threads {}, workers {}", port, ioThreads, workers );
+    }
+
+    @Override
+    public void bind( String context, CorsPolicy corsPolicy, Handler handler, Protocol protocol ) {
+        var location = "/" + context;
+        var limiter = concurrencyLimit != null ? new ConcurrencyLimiter( location, concurrencyLimit ) : null;
+        if( limiter != null ) Closeables.close( limiters.put( context, limiter ) );
+        paths.addPrefixPath( location, new Adapter( new BlockingHandlerAdapter( location, handler, corsPolicy, protocol ), limiter ) );
+
+        log.info( "{} bound to [{}]", handler, location );
+    }
+
+    @Override
+    public void unbind( String context ) {
+        paths.removePrefixPath( "/" + context );
+        Closeables.close( limiters.remove( context ) );
+    }
+
+    /**
+     * @return limiter of a bound context, null if {@link #concurrencyLimit} is not set
+     */
+    ConcurrencyLimiter limiter( String context ) {
+        return limiters.get( context );
+    }
+
+    public void preStop() {
+        if( undertow != null ) undertow.stop();
+        undertow = null;
+        limiters.values().forEach( Closeables::close );
+        limiters.clear();
+
+        log.info( "server gone down" );
+    }
+
+    public void stop() {
+        preStop();
+    }
+
+    /**
+     * translates an undertow exchange into httpcore request/response, so that the same {@link HttpRequestHandler}s
+     * serve both {@link Server} and {@link UndertowServer}
+     */
+    private class Adapter implements HttpHandler {
+        private final HttpRequestHandler handler;
+        private final ConcurrencyLimiter limiter;
+
+        private Adapter( HttpRequestHandler handler, ConcurrencyLimiter limiter ) {
+            this.handler = handler;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void handleRequest( HttpServerExchange exchange ) throws Exception {
+            if( exchange.isInIoThread() ) {
+                if( limiter != null ) {
+                    if( !limiter.tryAcquire() ) {
+                        exchange.setStatusCode( HTTP_UNAVAILABLE );
+                        exchange.getResponseHeaders().put( Headers.RETRY_AFTER, limiter.retryAfter() );
+                        exchange.endExchange();
+                        return;
+                    }
+                    exchange.putAttachment( ACQUIRED, System.nanoTime() );
+                }
+                exchange.dispatch( this );
+                return;
+            }
+
+            var acquired = exchange.removeAttachment( ACQUIRED );
+            try {
+                handle( exchange );
+            } finally {
+                if( acquired != null ) limiter.release( acquired );
+            }
+        }
+
+        private void handle( HttpServerExchange exchange ) throws Exception {
+            exchange.startBlocking();
+
+            requests.increment();
+
+            var uri = exchange.getQueryString().isEmpty()
+                ? exchange.getRequestURI()
+                : exchange.getRequestURI() + "?" + exchange.getQueryString();
+            var request = DefaultHttpRequestFactory.INSTANCE.newHttpRequest( exchange.getRequestMethod().toString(), uri );
+            for( HeaderValues values : exchange.getRequestHeaders() )
+                for( var value : values ) request.addHeader( values.getHeaderName().toString(), value );
+            if( request instanceof HttpEntityEnclosingRequest )
+                ( ( HttpEntityEnclosingRequest ) request ).setEntity(
+                    new InputStreamEntity( exchange.getInputStream(), exchange.getRequestContentLength() ) );
+
+            var remoteAddress = exchange.getSourceAddress().getAddress();
+            var httpContext = new ServerHttpContext( new BasicHttpContext(), remoteAddress, protocol( exchange, remoteAddress ) );
+            var response = new BasicHttpResponse( HttpVersion.HTTP_1_1, HTTP_OK, "OK" );
+
+            handler.handle( request, response, httpContext );
+
+            var statusLine = response.getStatusLine();
+            exchange.setStatusCode( statusLine.getStatusCode() );
+            if( statusLine.getReasonPhrase() != null ) exchange.setReasonPhrase( statusLine.getReasonPhrase() );
+
+            var responseHeaders = exchange.getResponseHeaders();
+            if( originalServer != null ) responseHeaders.put( Headers.SERVER, originalServer );
+            for( var header : response.getAllHeaders() )
+                responseHeaders.add( new HttpString( header.getName() ), header.getValue() );
+
+            var entity = response.getEntity();
+            if( entity != null ) {
+                if( entity.getContentType() != null && !responseHeaders.contains( Headers.CONTENT_TYPE ) )
+                    responseHeaders.put( Headers.CONTENT_TYPE, entity.getContentType().getValue() );
+                if( entity.getContentEncoding() != null && !responseHeaders.contains( Headers.CONTENT_ENCODING ) )
+                    responseHeaders.put( Headers.CONTENT_ENCODING, entity.getContentEncoding().getValue() );
+                if( entity.getContentLength() >= 0 ) exchange.setResponseContentLength( entity.getContentLength() );
+
+                try( var out = exchange.getOutputStream() ) {
+                    entity.writeTo( out );
+                }
+            }
+            exchange.endExchange();
+        }
+    }
+}
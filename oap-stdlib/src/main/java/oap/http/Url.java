@@ -35,6 +35,7 @@ import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
@@ -46,6 +47,83 @@ public class Url {
         return URLDecoder.decode( value, UTF_8 );
     }
 
+    private static String decode( String s, int from, int to ) {
+        if( from >= to ) return "";
+        for( var i = from; i < to; i++ ) {
+            var c = s.charAt( i );
+            if( c == '%' || c == '+' ) return decode( s.substring( from, to ) );
+        }
+        return s.substring( from, to );
+    }
+
+    /**
+     * scans query {@code params} starting at {@code from} without splitting it, only the value of the matching key is decoded.
+     * Keys are matched undecoded, the same way as {@link #parseQuery(String, ListMultimap)} stores them.
+     *
+     * @return first value of {@code name}
+     */
+    public static Optional<String> parameter( String params, int from, String name ) {
+        if( params == null ) return Optional.empty();
+
+        var length = params.length();
+        var start = from;
+        while( start < length ) {
+            var end = params.indexOf( '&', start );
+            if( end < 0 ) end = length;
+
+            var value = valueOf( params, start, end, name );
+            if( value != null ) return Optional.of( value );
+
+            start = end + 1;
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<String> parameter( String params, String name ) {
+        return parameter( params, 0, name );
+    }
+
+    /**
+     * @see #parameter(String, int, String)
+     */
+    public static List<String> parameters( String params, int from, String name ) {
+        if( params == null ) return emptyList();
+
+        List<String> values = null;
+        var length = params.length();
+        var start = from;
+        while( start < length ) {
+            var end = params.indexOf( '&', start );
+            if( end < 0 ) end = length;
+
+            var value = valueOf( params, start, end, name );
+            if( value != null ) {
+                if( values == null ) values = new ArrayList<>( 1 );
+                values.add( value );
+            }
+
+            start = end + 1;
+        }
+        return values != null ? values : emptyList();
+    }
+
+    public static List<String> parameters( String params, String name ) {
+        return parameters( params, 0, name );
+    }
+
+    /**
+     * @return decoded value of pair [start, end) if its key is {@code name}, null otherwise
+     */
+    private static String valueOf( String params, int start, int end, String name ) {
+        if( start >= end ) return null;
+
+        var idx = params.indexOf( '=', start );
+        var keyEnd = idx > start && idx < end ? idx : end;
+        if( keyEnd - start != name.length() || !params.regionMatches( start, name, 0, name.length() ) ) return null;
+
+        return keyEnd < end ? decode( params, keyEnd + 1, end ) : "";
+    }
+
     public static void parseQuery( String params, ListMultimap<String, String> map ) {
         if( StringUtils.isEmpty( params ) ) return;
 
@@ -53,7 +131,7 @@ public class Url {
         for( var pair : pairs ) {
             var idx = pair.indexOf( "=" );
             var key = idx > 0 ? pair.substring( 0, idx ) : pair;
-            var value = idx > 0 && pair.length() > idx + 1 ? decode( pair.substring( idx + 1 ) ) : "";
+            var value = idx > 0 ? decode( pair, idx + 1, pair.length() ) : "";
             map.put( key, value );
         }
     }
@@ -65,7 +143,7 @@ public class Url {
         for( var pair : pairs ) {
             var idx = pair.indexOf( "=" );
             var key = idx > 0 ? pair.substring( 0, idx ) : pair;
-            var value = idx > 0 && pair.length() > idx + 1 ? decode( pair.substring( idx + 1 ) ) : "";
+            var value = idx > 0 ? decode( pair, idx + 1, pair.length() ) : "";
             map.put( key, value );
         }
     }
@@ -26,40 +26,39 @@ package oap.http.client;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import oap.http.Client;
 import oap.io.IoStreams;
+import oap.util.Pair;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Path;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static oap.io.IoStreams.Encoding.PLAIN;
+import static oap.util.Dates.m;
+import static oap.util.Pair.__;
+import static org.apache.http.entity.ContentType.APPLICATION_OCTET_STREAM;
 
 @Slf4j
 public class HttpClient {
-    private java.net.http.HttpClient impl;
-
-    private HttpClient() {
-        try {
-            SSLContext sslContext = SSLContext.getInstance( "TLS" );
-            sslContext.init( null, new TrustManager[] { ACCEPTING_TRUST_MANAGER }, new SecureRandom() );
-            impl = java.net.http.HttpClient.newBuilder()
-                .version( java.net.http.HttpClient.Version.HTTP_2 )
-                .followRedirects( java.net.http.HttpClient.Redirect.ALWAYS )
-                .sslContext( sslContext )
-                .build();
-        } catch( NoSuchAlgorithmException | KeyManagementException e ) {
-            log.error( e.getMessage(), e );
-        }
-    }
-
-    public static HttpClient DEFAULT = new HttpClient();
     public static final X509TrustManager ACCEPTING_TRUST_MANAGER = new X509TrustManager() {
         @Override
         public void checkClientTrusted( X509Certificate[] x509Certificates, String s ) {
@@ -74,6 +73,83 @@ public class HttpClient {
             return new X509Certificate[0];
         }
     };
+    /**
+     * verifies certificates with the jvm trust store, timeouts as {@link Client#DEFAULT}
+     */
+    public static final HttpClient DEFAULT = create( m( 1 ), m( 5 ) );
+
+    private final java.net.http.HttpClient impl;
+    private final Duration timeout;
+
+    private HttpClient( SSLContext sslContext, long connectTimeout, long timeout ) {
+        this.impl = java.net.http.HttpClient.newBuilder()
+            .version( java.net.http.HttpClient.Version.HTTP_2 )
+            .followRedirects( java.net.http.HttpClient.Redirect.NORMAL )
+            .connectTimeout( Duration.ofMillis( connectTimeout ) )
+            .sslContext( sslContext )
+            .build();
+        this.timeout = Duration.ofMillis( timeout );
+    }
+
+    /**
+     * @param connectTimeout ms
+     * @param timeout        ms, until the response headers of {@link #get(URI, Map)} and {@link #post(URI, byte[], ContentType, Map)}
+     */
+    @SneakyThrows
+    public static HttpClient create( long connectTimeout, long timeout ) {
+        return new HttpClient( SSLContext.getDefault(), connectTimeout, timeout );
+    }
+
+    /**
+     * Accepts any certificate. For tests and self-signed internal services only.
+     */
+    public static HttpClient insecure( long connectTimeout, long timeout ) {
+        try {
+            SSLContext sslContext = SSLContext.getInstance( "TLS" );
+            sslContext.init( null, new TrustManager[] { ACCEPTING_TRUST_MANAGER }, new SecureRandom() );
+            return new HttpClient( sslContext, connectTimeout, timeout );
+        } catch( NoSuchAlgorithmException | KeyManagementException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static Client.Response toResponse( HttpResponse<InputStream> response ) {
+        var headers = new ArrayList<Pair<String, String>>();
+        response.headers().map().forEach( ( name, values ) -> values.forEach( value -> headers.add( __( name, value ) ) ) );
+
+        var contentType = response.headers().firstValue( "Content-Type" )
+            .map( ContentType::parse )
+            .orElse( APPLICATION_OCTET_STREAM );
+
+        var reasonPhrase = EnglishReasonPhraseCatalog.INSTANCE.getReason( response.statusCode(), Locale.ENGLISH );
+        return new Client.Response( response.statusCode(), reasonPhrase != null ? reasonPhrase : "", headers, contentType, response.body() );
+    }
+
+    /**
+     * HTTP/2 (h2 over tls, h2c upgrade otherwise) lets concurrent requests to the same host share one connection.
+     * The future completes as soon as the headers are received, the body is streamed from {@link Client.Response#getInputStream()}.
+     * The timeout of {@code request} applies, the client timeout is used by the other methods only.
+     */
+    public CompletableFuture<Client.Response> execute( HttpRequest request ) {
+        return impl.sendAsync( request, HttpResponse.BodyHandlers.ofInputStream() ).thenApply( HttpClient::toResponse );
+    }
+
+    public CompletableFuture<Client.Response> get( URI uri, Map<String, Object> headers ) {
+        return execute( request( uri, headers ).GET().build() );
+    }
+
+    public CompletableFuture<Client.Response> post( URI uri, byte[] content, ContentType contentType, Map<String, Object> headers ) {
+        return execute( request( uri, headers )
+            .header( "Content-Type", contentType.toString() )
+            .POST( HttpRequest.BodyPublishers.ofByteArray( content ) )
+            .build() );
+    }
+
+    private HttpRequest.Builder request( URI uri, Map<String, Object> headers ) {
+        var builder = HttpRequest.newBuilder( uri ).timeout( timeout );
+        headers.forEach( ( name, value ) -> builder.header( name, value == null ? "" : value.toString() ) );
+        return builder;
+    }
 
     @SneakyThrows
     public static SSLContext createSSLContext( Path certificateLocation, String certificatePassword ) {
@@ -0,0 +1,338 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTimeUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends records from many threads to many files. Records go to per-file lock-free queues and are written
+ * in batches by a single I/O thread. Files are fsynced at most once per {@link #syncInterval} (group commit):
+ * futures returned by {@link #writeDurable(Path, byte[])} complete after the fsync that covers them.
+ * <p>
+ * With {@link #rotateSize} or {@link #rotateInterval} set, the active file is renamed to
+ * {@code <name>-<opened millis>.<ext>} and a new one is started.
+ * <p>
+ * A file that is rotated or not written for {@link #idleTimeout} is closed and forgotten, so writing to many
+ * paths over time does not hold their descriptors and buffers.
+ * <p>
+ * {@link #close()} writes and syncs every record accepted before it, writes after close fail. A writer re-checks
+ * the state after adding its record and takes the record back if the file was closed meanwhile.
+ * <p>
+ * metrics (tag name):
+ * - oap_file_writer_flush
+ * - oap_file_writer_queue_bytes
+ * - oap_file_writer_open_files
+ */
+@Slf4j
+public class AsyncFileWriter implements Closeable {
+    public long flushInterval = 100;
+    public long syncInterval = 1000;
+    public long rotateSize = 0;
+    public long rotateInterval = 0;
+    public int batchSize = 1024 * 1024;
+    /**
+     * ms
+     */
+    public long idleTimeout = 60000;
+
+    private final String name;
+    private final ConcurrentHashMap<Path, FileQueue> files = new ConcurrentHashMap<>();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicInteger openFiles = new AtomicInteger();
+    private final Timer flushTimer;
+    private Thread thread;
+    private volatile boolean closed;
+    private long lastOpened;
+
+    public AsyncFileWriter( String name ) {
+        this.name = name;
+        this.flushTimer = Metrics.timer( "oap_file_writer_flush", Tags.of( "name", name ) );
+        Metrics.gauge( "oap_file_writer_queue_bytes", Tags.of( "name", name ), queued, AtomicLong::get );
+        Metrics.gauge( "oap_file_writer_open_files", Tags.of( "name", name ), openFiles, AtomicInteger::get );
+    }
+
+    public void start() {
+        log.info( "{}: flushInterval = {}, syncInterval = {}, rotateSize = {}, rotateInterval = {}",
+            name, flushInterval, syncInterval, rotateSize, rotateInterval );
+
+        thread = new Thread( this::run, "file-writer-" + name );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    public void write( Path path, byte[] record ) {
+        enqueue( path, new Record( record, null ) );
+    }
+
+    public CompletableFuture<Void> writeDurable( Path path, byte[] record ) {
+        var future = new CompletableFuture<Void>();
+        enqueue( path, new Record( record, future ) );
+        return future;
+    }
+
+    private void enqueue( Path path, Record record ) {
+        var size = queued.addAndGet( record.data.length );
+        while( true ) {
+            if( closed ) {
+                queued.addAndGet( -record.data.length );
+                throw new IllegalStateException( name + " is closed" );
+            }
+
+            var file = files.computeIfAbsent( path, FileQueue::new );
+            file.queue.add( record );
+            // the record is polled by the io thread unless it is still in the queue
+            if( !closed && !file.evicted || !file.queue.remove( record ) ) break;
+        }
+        if( size >= batchSize ) LockSupport.unpark( thread );
+    }
+
+    public long queued() {
+        return queued.get();
+    }
+
+    int openFiles() {
+        return openFiles.get();
+    }
+
+    int files() {
+        return files.size();
+    }
+
+    private void run() {
+        while( !closed ) {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( flushInterval ) );
+            flush( false );
+        }
+        shutdown();
+    }
+
+    /**
+     * Runs once no more records can be enqueued. Records left behind by a failed file fail their futures.
+     */
+    private void shutdown() {
+        flush( true );
+        for( var file : files.values() ) {
+            file.failQueued( new IllegalStateException( name + " is closed" ) );
+            file.close();
+        }
+    }
+
+    private void flush( boolean force ) {
+        var now = DateTimeUtils.currentTimeMillis();
+        for( var file : files.values() ) {
+            flush( file, now, force );
+            if( !closed && file.idle( now ) ) evict( file, now );
+        }
+    }
+
+    private void flush( FileQueue file, long now, boolean force ) {
+        try {
+            file.flush( now, force );
+        } catch( Exception e ) {
+            log.error( name + ": " + file.path, e );
+            file.fail( e );
+        }
+    }
+
+    /**
+     * Writers that still see the file take their record back, the rest are written by the last flush.
+     */
+    private void evict( FileQueue file, long now ) {
+        if( !files.remove( file.path, file ) ) return;
+        file.evicted = true;
+        flush( file, now, true );
+        file.close();
+    }
+
+    @Override
+    public synchronized void close() {
+        if( closed ) return;
+        closed = true;
+
+        if( thread != null ) {
+            LockSupport.unpark( thread );
+            try {
+                thread.join();
+            } catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        } else shutdown();
+    }
+
+    static Path rotated( Path path, long opened ) {
+        var fileName = path.getFileName().toString();
+        var dot = fileName.indexOf( '.' );
+        return dot > 0
+            ? path.resolveSibling( fileName.substring( 0, dot ) + "-" + opened + fileName.substring( dot ) )
+            : path.resolveSibling( fileName + "-" + opened );
+    }
+
+    private static class Record {
+        final byte[] data;
+        final CompletableFuture<Void> future;
+
+        Record( byte[] data, CompletableFuture<Void> future ) {
+            this.data = data;
+            this.future = future;
+        }
+    }
+
+    private class FileQueue {
+        final Path path;
+        final ConcurrentLinkedQueue<Record> queue = new ConcurrentLinkedQueue<>();
+        final ArrayList<CompletableFuture<Void>> unsynced = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect( 64 * 1024 );
+        FileChannel channel;
+        long size;
+        long opened;
+        long lastSync;
+        long lastWrite = DateTimeUtils.currentTimeMillis();
+        boolean dirty;
+        volatile boolean evicted;
+
+        FileQueue( Path path ) {
+            this.path = path;
+        }
+
+        /**
+         * @return true if rotated or not written for {@link #idleTimeout} and nothing waits for it
+         */
+        boolean idle( long now ) {
+            return queue.isEmpty() && unsynced.isEmpty() && !dirty
+                && ( channel == null || now - lastWrite >= idleTimeout );
+        }
+
+        void flush( long now, boolean force ) {
+            try {
+                var start = System.nanoTime();
+                var written = false;
+                Record record;
+                while( ( record = queue.poll() ) != null ) {
+                    if( channel != null && rotateSize > 0 && size >= rotateSize ) rotate( now );
+                    if( channel == null ) open( now );
+                    queued.addAndGet( -record.data.length );
+                    if( buffer.remaining() < record.data.length ) {
+                        drain();
+                        if( buffer.capacity() < record.data.length ) buffer = ByteBuffer.allocateDirect( record.data.length );
+                    }
+                    buffer.put( record.data );
+                    size += record.data.length;
+                    dirty = true;
+                    if( record.future != null ) unsynced.add( record.future );
+                    written = true;
+                }
+                if( written ) {
+                    drain();
+                    lastWrite = now;
+                }
+
+                if( dirty && ( force || now - lastSync >= syncInterval ) ) sync( now );
+                if( written ) flushTimer.record( System.nanoTime() - start, TimeUnit.NANOSECONDS );
+
+                if( channel != null && ( rotateSize > 0 && size >= rotateSize
+                    || rotateInterval > 0 && now - opened >= rotateInterval ) ) rotate( now );
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        private void open( long now ) throws IOException {
+            Files.ensureFile( path );
+            channel = FileChannel.open( path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND );
+            openFiles.incrementAndGet();
+            size = channel.size();
+            // unique across evicted and reopened queues of the same path
+            opened = lastOpened = Math.max( now, lastOpened + 1 );
+        }
+
+        private void rotate( long now ) throws IOException {
+            drain();
+            sync( now );
+            close();
+            Files.rename( path, rotated( path, opened ) );
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while( buffer.hasRemaining() ) channel.write( buffer );
+            buffer.clear();
+        }
+
+        private void sync( long now ) throws IOException {
+            if( channel != null && dirty ) channel.force( false );
+            dirty = false;
+            lastSync = now;
+            for( var future : unsynced ) future.complete( null );
+            unsynced.clear();
+        }
+
+        void failQueued( Exception e ) {
+            Record record;
+            while( ( record = queue.poll() ) != null ) {
+                queued.addAndGet( -record.data.length );
+                if( record.future != null ) record.future.completeExceptionally( e );
+            }
+            for( var future : unsynced ) future.completeExceptionally( e );
+            unsynced.clear();
+        }
+
+        void fail( Exception e ) {
+            for( var future : unsynced ) future.completeExceptionally( e );
+            unsynced.clear();
+            buffer.clear();
+            close();
+        }
+
+        void close() {
+            if( channel == null ) return;
+            try {
+                channel.close();
+            } catch( IOException e ) {
+                log.error( name + ": " + path, e );
+            }
+            channel = null;
+            openFiles.decrementAndGet();
+        }
+    }
+}
@@ -7,6 +7,10 @@ import java.io.UncheckedIOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
 
 public class FileWalker {
@@ -14,7 +18,7 @@ public class FileWalker {
     private final String[] paths;
     private final boolean[] wildcard;
     private final boolean[] any;
-    private FileWalkerCache cache;
+    private final FileWalkerCache cache;
 
     public FileWalker( Path basePath, String wildcard ) {
         this( basePath, wildcard, new FileWalkerCache() );
@@ -42,13 +46,7 @@ public class FileWalker {
         if( wildcard[position] ) {
             if( !cache.isDirectory( path ) ) return;
 
-            var anyPosition = any[position];
-            var pathPosition = paths[position];
-
-            try( DirectoryStream<Path> stream = cache.newDirectoryStream(
-                path,
-                entry -> anyPosition || Files.wildcardMatch( entry.getFileName().toString(), pathPosition ) )
-            ) {
+            try( DirectoryStream<Path> stream = cache.newDirectoryStream( path, filter( position ) ) ) {
                 if( position < paths.length - 1 ) {
                     stream.forEach( p -> walkFileTree( p, position + 1, visitor ) );
                 } else {
@@ -68,4 +66,58 @@ public class FileWalker {
             }
         }
     }
+
+    private DirectoryStream.Filter<Path> filter( int position ) {
+        var anyPosition = any[position];
+        var pathPosition = paths[position];
+
+        return entry -> anyPosition || Files.wildcardMatch( entry.getFileName().toString(), pathPosition );
+    }
+
+    /**
+     * Walks independent subtrees on {@code pool}. The cache is shared between the tasks.
+     *
+     * @return matched paths in the same order as {@link #walkFileTree(Consumer)} visits them
+     */
+    public List<Path> walkFileTree( ForkJoinPool pool ) {
+        return pool.invoke( new Walk( basePath, 0 ) );
+    }
+
+    private class Walk extends RecursiveTask<List<Path>> {
+        private final Path path;
+        private final int position;
+
+        Walk( Path path, int position ) {
+            this.path = path;
+            this.position = position;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            var result = new ArrayList<Path>();
+            if( wildcard[position] ) {
+                if( !cache.isDirectory( path ) ) return result;
+
+                var matched = new ArrayList<Path>();
+                try( DirectoryStream<Path> stream = cache.newDirectoryStream( path, filter( position ) ) ) {
+                    stream.forEach( matched::add );
+                } catch( NoSuchFileException ignore ) {
+                    return result;
+                } catch( IOException e ) {
+                    throw new UncheckedIOException( e );
+                }
+                if( position == paths.length - 1 ) return matched;
+
+                var tasks = new ArrayList<Walk>( matched.size() );
+                for( var p : matched ) tasks.add( new Walk( p, position + 1 ) );
+                invokeAll( tasks );
+                for( var task : tasks ) result.addAll( task.join() );
+            } else {
+                var resolve = path.resolve( paths[position] );
+                if( position < paths.length - 1 ) return new Walk( resolve, position + 1 ).compute();
+                if( cache.exists( resolve ) ) result.add( resolve );
+            }
+            return result;
+        }
+    }
 }
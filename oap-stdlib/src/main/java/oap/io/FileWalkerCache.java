@@ -21,41 +21,47 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package oap.io;
 
 import com.google.common.collect.Iterators;
-import oap.util.Try;
+import org.joda.time.DateTimeUtils;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * Thread safe cache of directory listings and file attributes.
+ * Entries older than {@code ttl} ms are revalidated: a directory is listed again only if its mtime changed.
+ */
 public class FileWalkerCache {
-    private final HashMap<Path, ArrayList<Path>> map = new HashMap<>();
-    private final HashMap<Path, Boolean> isDirectory = new HashMap<>();
-    private final HashMap<Path, Boolean> exists = new HashMap<>();
-    private HashMap<Path, FileTime> lastModifiedTime = new HashMap<>();
+    private final long ttl;
+    private final ConcurrentHashMap<Path, Listing> map = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Cached<Boolean>> isDirectory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Cached<Boolean>> exists = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Cached<FileTime>> lastModifiedTime = new ConcurrentHashMap<>();
+
+    public FileWalkerCache() {
+        this( Long.MAX_VALUE );
+    }
+
+    public FileWalkerCache( long ttl ) {
+        this.ttl = ttl;
+    }
 
     public DirectoryStream<Path> newDirectoryStream( Path dir,
                                                      DirectoryStream.Filter<? super Path> filter ) throws IOException {
-        final ArrayList<Path> list = map.get( dir );
-        if( list == null ) {
-            final ArrayList<Path> paths = map.computeIfAbsent( dir, ( d ) -> new ArrayList<>() );
-
-            return java.nio.file.Files.newDirectoryStream( dir, ( file ) -> {
-                paths.add( file );
-                exists.put( file, true );
-                return filter.accept( file );
-            } );
-        }
+        var list = listing( dir ).paths;
 
-        return new DirectoryStream<Path>() {
+        return new DirectoryStream<>() {
             @Override
             public Iterator<Path> iterator() {
                 return Iterators.filter( list.iterator(), ( p ) -> {
@@ -68,21 +74,103 @@ public class FileWalkerCache {
             }
 
             @Override
-            public void close() throws IOException {
+            public void close() {
 
             }
         };
     }
 
+    private Listing listing( Path dir ) throws IOException {
+        var now = DateTimeUtils.currentTimeMillis();
+        var listing = map.get( dir );
+        if( listing != null ) {
+            if( now - listing.checked < ttl ) return listing;
+
+            try {
+                if( java.nio.file.Files.getLastModifiedTime( dir ).equals( listing.modified ) ) {
+                    listing.checked = now;
+                    return listing;
+                }
+            } catch( IOException e ) {
+                map.remove( dir );
+                throw e;
+            }
+        }
+
+        var modified = java.nio.file.Files.getLastModifiedTime( dir );
+        var paths = new ArrayList<Path>();
+        try( var stream = java.nio.file.Files.newDirectoryStream( dir ) ) {
+            for( var path : stream ) {
+                paths.add( path );
+                exists.put( path, new Cached<>( true, now ) );
+            }
+        }
+        listing = new Listing( modified, paths, now );
+        map.put( dir, listing );
+        return listing;
+    }
+
     public boolean isDirectory( Path path ) {
-        return isDirectory.computeIfAbsent( path, ( p ) -> java.nio.file.Files.isDirectory( p ) );
+        return cached( isDirectory, path, p -> java.nio.file.Files.isDirectory( p ) );
     }
 
     public boolean exists( Path path ) {
-        return exists.computeIfAbsent( path, ( p ) -> java.nio.file.Files.exists( p ) );
+        return cached( exists, path, p -> java.nio.file.Files.exists( p ) );
     }
 
     public FileTime getLastModifiedTime( Path path ) {
-        return lastModifiedTime.computeIfAbsent( path, Try.map( p -> java.nio.file.Files.getLastModifiedTime( p ) ) );
+        return cached( lastModifiedTime, path, p -> {
+            try {
+                return java.nio.file.Files.getLastModifiedTime( p );
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        } );
+    }
+
+    private <T> T cached( ConcurrentHashMap<Path, Cached<T>> cache, Path path, Function<Path, T> load ) {
+        var now = DateTimeUtils.currentTimeMillis();
+        var cached = cache.get( path );
+        if( cached != null && now - cached.loaded < ttl ) return cached.value;
+
+        var value = load.apply( path );
+        cache.put( path, new Cached<>( value, now ) );
+        return value;
+    }
+
+    public void invalidate( Path path ) {
+        map.remove( path );
+        isDirectory.remove( path );
+        exists.remove( path );
+        lastModifiedTime.remove( path );
+    }
+
+    public void clear() {
+        map.clear();
+        isDirectory.clear();
+        exists.clear();
+        lastModifiedTime.clear();
+    }
+
+    private static class Listing {
+        final FileTime modified;
+        final List<Path> paths;
+        volatile long checked;
+
+        Listing( FileTime modified, List<Path> paths, long checked ) {
+            this.modified = modified;
+            this.paths = paths;
+            this.checked = checked;
+        }
+    }
+
+    private static class Cached<T> {
+        final T value;
+        final long loaded;
+
+        Cached( T value, long loaded ) {
+            this.value = value;
+            this.loaded = loaded;
+        }
     }
 }
@@ -72,6 +72,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -124,6 +125,14 @@ public final class Files {
         return result;
     }
 
+    public static ArrayList<Path> fastWildcardParallel( Path basePath, String wildcard, FileWalkerCache cache ) {
+        return fastWildcardParallel( basePath, wildcard, cache, ForkJoinPool.commonPool() );
+    }
+
+    public static ArrayList<Path> fastWildcardParallel( Path basePath, String wildcard, FileWalkerCache cache, ForkJoinPool pool ) {
+        return new ArrayList<>( new FileWalker( basePath, wildcard, cache ).walkFileTree( pool ) );
+    }
+
     public static ArrayList<Path> wildcard( String basePath, String wildcard ) {
         return wildcard( Paths.get( basePath ), wildcard );
     }
@@ -87,11 +87,14 @@ public class IoStreams {
     }
 
     public static Stream<String> lines( Path path ) {
-        return lines( path, Encoding.from( path ), consume() );
+        return lines( path, Encoding.from( path ) );
     }
 
+    /**
+     * @see MappedLines#lines(Path) for plain files that are not written to while being read and need parallel streams
+     */
     public static Stream<String> lines( Path path, Encoding encoding ) {
-        return lines( path, encoding, p -> {} );
+        return lines( path, encoding, consume() );
     }
 
     public static Stream<String> lines( Path path, Encoding encoding, Consumer<Integer> progress ) {
@@ -175,8 +178,12 @@ public class IoStreams {
         return out( path, encoding, bufferSize, append, false );
     }
 
-    @SneakyThrows
     public static OutputStream out( Path path, Encoding encoding, int bufferSize, boolean append, boolean safe ) {
+        return out( path, encoding, bufferSize, append, safe, ParallelCompression.DISABLED );
+    }
+
+    @SneakyThrows
+    public static OutputStream out( Path path, Encoding encoding, int bufferSize, boolean append, boolean safe, ParallelCompression parallel ) {
 
         Files.ensureFile( path );
         if( append ) Files.ensureFileEncodingValid( path );
@@ -184,6 +191,7 @@ public class IoStreams {
             ? new SafeFileOutputStream( path, append, encoding )
             : new FileOutputStream( path.toFile(), append );
         OutputStream fos = bufferSize > 0 ? new BufferedOutputStream( outputStream, bufferSize ) : outputStream;
+        if( parallel.supports( encoding ) ) return parallel.out( fos, encoding );
         switch( encoding ) {
             case GZIP:
                 return Archiver.ungzip( fos );
@@ -196,6 +204,8 @@ public class IoStreams {
                 return new LZ4BlockOutputStream( fos );
             case LZ4:
                 return new LZ4FrameOutputStream( fos, SIZE_64KB );
+            case ZSTD:
+                return ( parallel.threads > 1 ? ZstdCompression.DEFAULT.withWorkers( parallel.threads ) : ZstdCompression.DEFAULT ).out( fos );
             case PLAIN:
                 return fos;
             default:
@@ -203,6 +213,21 @@ public class IoStreams {
         }
     }
 
+    /**
+     * Writes {@link Encoding#ZSTD} with explicit level, workers or dictionary.
+     */
+    @SneakyThrows
+    public static OutputStream out( Path path, ZstdCompression zstd, boolean append ) {
+        Files.ensureFile( path );
+        OutputStream fos = new BufferedOutputStream( new FileOutputStream( path.toFile(), append ), DEFAULT_BUFFER );
+        try {
+            return zstd.out( fos );
+        } catch( IOException e ) {
+            fos.close();
+            throw e;
+        }
+    }
+
     public static InputStream in( Path path, Encoding encoding ) {
         return in( path, encoding, DEFAULT_BUFFER );
     }
@@ -270,6 +295,13 @@ public class IoStreams {
                     stream.close();
                     throw e;
                 }
+            case ZSTD:
+                try {
+                    return ZstdCompression.in( stream );
+                } catch( Exception e ) {
+                    stream.close();
+                    throw e;
+                }
             default:
                 throw new IllegalArgumentException( "Unknown encoding " + encoding );
         }
@@ -280,7 +312,8 @@ public class IoStreams {
         ZIP( ".zip", true ),
         GZIP( ".gz", true ),
         LZ4( ".lz4", true ),
-        LZ4_BLOCK( ".lz4b", true );
+        LZ4_BLOCK( ".lz4b", true ),
+        ZSTD( ".zst", true );
 
         public final String extension;
         public final boolean compressed;
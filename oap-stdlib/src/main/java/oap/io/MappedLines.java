@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import lombok.SneakyThrows;
+import oap.util.Stream;
+import oap.util.Try;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * Line reader for plain files backed by memory mapped windows. Newlines are found on raw bytes and
+ * the file is split into newline aligned ranges, so parallel streams scale across cores.
+ * Lines are separated by {@code \n}, {@code \r} or {@code \r\n} like {@link java.io.BufferedReader#readLine()}.
+ * <p>
+ * The returned stream holds the file channel open and must be closed. Mapped windows are released by gc.
+ * The file must not be truncated while it is read, accessing a truncated mapping fails with {@link InternalError}.
+ * Use {@link IoStreams#lines(Path)} for files that are rotated or written to concurrently.
+ */
+public final class MappedLines {
+    static final int DEFAULT_WINDOW = 64 * 1024 * 1024;
+    private static final int MIN_SPLIT = 1024 * 1024;
+
+    private MappedLines() {
+    }
+
+    public static Stream<String> lines( Path path ) {
+        return stream( path, DEFAULT_WINDOW, ByteLine::toString );
+    }
+
+    /**
+     * Lines as reusable byte views. A {@link ByteLine} is only valid inside the consumer call, use
+     * {@link ByteLine#toString()} or {@link ByteLine#field(int, byte)} to keep data.
+     */
+    public static Stream<ByteLine> byteLines( Path path ) {
+        return stream( path, DEFAULT_WINDOW, Function.identity() );
+    }
+
+    @SneakyThrows
+    static <T> Stream<T> stream( Path path, int window, Function<ByteLine, T> mapper ) {
+        var channel = FileChannel.open( path, StandardOpenOption.READ );
+        try {
+            var spliterator = new LineSpliterator<>( channel, 0, channel.size(), channel.size(), window, mapper );
+            return Stream.of( StreamSupport.stream( spliterator, false ) ).onClose( Try.run( channel::close ) );
+        } catch( IOException e ) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Owns the lines starting in [position, end).
+     */
+    private static final class LineSpliterator<T> implements Spliterator<T> {
+        private final FileChannel channel;
+        private final long size;
+        private final int window;
+        private final Function<ByteLine, T> mapper;
+        private final ByteLine line = new ByteLine();
+        private long position;
+        private long end;
+        private MappedByteBuffer buffer;
+        private long bufferStart;
+
+        LineSpliterator( FileChannel channel, long position, long end, long size, int window, Function<ByteLine, T> mapper ) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+            this.size = size;
+            this.window = window;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance( Consumer<? super T> action ) {
+            if( position >= end ) return false;
+
+            if( buffer == null || position < bufferStart || position >= bufferStart + buffer.limit() )
+                map( position, window );
+            var from = ( int ) ( position - bufferStart );
+            var newline = indexOf( from );
+            while( ( newline < 0 || newline == buffer.limit() - 1 && buffer.get( newline ) == '\r' )
+                && bufferStart + buffer.limit() < size ) {
+                map( position, Math.max( window, ( buffer.limit() - from ) * 2L ) );
+                from = 0;
+                newline = indexOf( from );
+            }
+
+            var to = newline < 0 ? buffer.limit() : newline;
+            var next = newline < 0 ? to : to + 1;
+            if( newline >= 0 && buffer.get( newline ) == '\r' && next < buffer.limit() && buffer.get( next ) == '\n' ) next++;
+            position = bufferStart + next;
+
+            line.set( buffer, from, to - from );
+            action.accept( mapper.apply( line ) );
+            return true;
+        }
+
+        private int indexOf( int from ) {
+            var limit = buffer.limit();
+            for( var i = from; i < limit; i++ ) {
+                var b = buffer.get( i );
+                if( b == '\n' || b == '\r' ) return i;
+            }
+            return -1;
+        }
+
+        private void map( long start, long length ) {
+            try {
+                buffer = channel.map( FileChannel.MapMode.READ_ONLY, start, Math.min( Math.min( length, Integer.MAX_VALUE - 8 ), size - start ) );
+                bufferStart = start;
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if( end - position < MIN_SPLIT * 2L ) return null;
+
+            var middle = position + ( end - position ) / 2;
+            var splitAt = nextLineStart( middle );
+            if( splitAt <= position || splitAt >= end ) return null;
+
+            var prefix = new LineSpliterator<>( channel, position, splitAt, size, window, mapper );
+            position = splitAt;
+            buffer = null;
+            return prefix;
+        }
+
+        /**
+         * Splits after {@code \n} only, it always ends a line while a {@code \r} may be followed by {@code \n}.
+         */
+        private long nextLineStart( long from ) {
+            try {
+                var probe = channel.map( FileChannel.MapMode.READ_ONLY, from, Math.min( MIN_SPLIT, size - from ) );
+                for( var i = 0; i < probe.limit(); i++ )
+                    if( probe.get( i ) == '\n' ) return from + i + 1;
+                return -1;
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Byte view of one line of a mapped file.
+     */
+    public static final class ByteLine {
+        private MappedByteBuffer buffer;
+        private int offset;
+        private int length;
+        private byte[] scratch = new byte[256];
+
+        private void set( MappedByteBuffer buffer, int offset, int length ) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public byte get( int index ) {
+            return buffer.get( offset + index );
+        }
+
+        public int indexOf( byte b, int from ) {
+            for( var i = from; i < length; i++ )
+                if( buffer.get( offset + i ) == b ) return i;
+            return -1;
+        }
+
+        /**
+         * @return field {@code index} of the line split by {@code separator}, or null if there are fewer fields
+         */
+        public String field( int index, byte separator ) {
+            var from = 0;
+            for( var i = 0; i < index; i++ ) {
+                from = indexOf( separator, from );
+                if( from < 0 ) return null;
+                from++;
+            }
+            var to = indexOf( separator, from );
+            return substring( from, to < 0 ? length : to );
+        }
+
+        public String substring( int from, int to ) {
+            var len = to - from;
+            if( scratch.length < len ) scratch = new byte[Math.max( len, scratch.length * 2 )];
+            buffer.get( offset + from, scratch, 0, len );
+            return new String( scratch, 0, len, StandardCharsets.UTF_8 );
+        }
+
+        @Override
+        public String toString() {
+            return substring( 0, length );
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.ToString;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+import oap.io.IoStreams.Encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB;
+
+/**
+ * Parallel compression options for {@link IoStreams#out(java.nio.file.Path, Encoding, int, boolean, boolean, ParallelCompression)}.
+ * The stream is split into blocks of {@code blockSize} bytes compressed independently by a pool of {@code threads} threads,
+ * shared by all streams opened with the same instance: gzip blocks become gzip members, lz4 blocks become lz4 frames,
+ * lz4-block blocks become lz4 blocks. The result is readable by standard decoders. Zstd uses its native worker threads,
+ * zip and plain files are written as usual.
+ * <p>
+ * {@code flush()} writes the blocks compressed so far. With {@code syncFlush} it also cuts the partial block, so flushed
+ * data is readable at once, at the cost of one member or frame per flush.
+ */
+@ToString( exclude = "executor" )
+public class ParallelCompression {
+    public static final ParallelCompression DISABLED = new ParallelCompression( 1, 1024 * 1024 );
+    private static final int LZ4_BLOCK_MAX_SIZE = 1 << 25;
+
+    public final int threads;
+    public final int blockSize;
+    public final boolean syncFlush;
+    private final ExecutorService executor;
+
+    public ParallelCompression( int threads, int blockSize ) {
+        this( threads, blockSize, false );
+    }
+
+    public ParallelCompression( int threads, int blockSize, boolean syncFlush ) {
+        Preconditions.checkArgument( threads > 0, "threads must be positive" );
+        Preconditions.checkArgument( blockSize >= 64 && blockSize <= LZ4_BLOCK_MAX_SIZE,
+            "blockSize must be between 64 and " + LZ4_BLOCK_MAX_SIZE );
+        this.threads = threads;
+        this.blockSize = blockSize;
+        this.syncFlush = syncFlush;
+        // threads start on demand and end when idle
+        var executor = new ThreadPoolExecutor( threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat( "compression-%d" ).setDaemon( true ).build() );
+        executor.allowCoreThreadTimeOut( true );
+        this.executor = executor;
+    }
+
+    public static ParallelCompression of( int threads ) {
+        return new ParallelCompression( threads, 1024 * 1024 );
+    }
+
+    public static ParallelCompression of( int threads, int blockSize ) {
+        return new ParallelCompression( threads, blockSize );
+    }
+
+    public boolean supports( Encoding encoding ) {
+        return threads > 1 && ( encoding == Encoding.GZIP || encoding == Encoding.LZ4 || encoding == Encoding.LZ4_BLOCK );
+    }
+
+    OutputStream out( OutputStream out, Encoding encoding ) {
+        return new ParallelCompressionOutputStream( out, compressor( encoding ), executor, threads * 2, blockSize, syncFlush );
+    }
+
+    private BlockCompressor compressor( Encoding encoding ) {
+        switch( encoding ) {
+            case GZIP:
+                return ( data, length ) -> {
+                    var bytes = new ByteArrayOutputStream( length / 2 + 64 );
+                    try( var gzip = new GZIPOutputStream( bytes, 64 * 1024 ) ) {
+                        gzip.write( data, 0, length );
+                    }
+                    return bytes.toByteArray();
+                };
+            case LZ4:
+                return ( data, length ) -> {
+                    var bytes = new ByteArrayOutputStream( length / 2 + 64 );
+                    try( var lz4 = new LZ4FrameOutputStream( bytes, SIZE_64KB ) ) {
+                        lz4.write( data, 0, length );
+                    }
+                    return bytes.toByteArray();
+                };
+            case LZ4_BLOCK:
+                return new BlockCompressor() {
+                    @Override
+                    public byte[] compress( byte[] data, int length ) throws IOException {
+                        var bytes = new ByteArrayOutputStream( length / 2 + 64 );
+                        var lz4 = new LZ4BlockOutputStream( bytes, blockSize, LZ4Factory.fastestInstance().fastCompressor(),
+                            XXHashFactory.fastestInstance().newStreamingHash32( 0x9747b28c ).asChecksum(), true );
+                        lz4.write( data, 0, length );
+                        lz4.flush();
+                        return bytes.toByteArray();
+                    }
+
+                    @Override
+                    public boolean compressEmpty() {
+                        return false;
+                    }
+
+                    @Override
+                    public byte[] end() throws IOException {
+                        var bytes = new ByteArrayOutputStream( 32 );
+                        new LZ4BlockOutputStream( bytes ).finish();
+                        return bytes.toByteArray();
+                    }
+                };
+            default:
+                throw new IllegalArgumentException( "parallel compression is not supported for " + encoding );
+        }
+    }
+
+    interface BlockCompressor {
+        byte[] compress( byte[] data, int length ) throws IOException;
+
+        /**
+         * @return true if an empty stream still has to be written as one empty block to be a valid file
+         */
+        default boolean compressEmpty() {
+            return true;
+        }
+
+        default byte[] end() throws IOException {
+            return new byte[0];
+        }
+    }
+}
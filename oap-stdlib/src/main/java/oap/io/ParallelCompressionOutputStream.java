@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Compresses blocks on the pool of its {@link ParallelCompression} and writes them in order, at most {@code window}
+ * blocks are in flight. {@link #flush()} writes completed blocks, and cuts the partial block only with {@code syncFlush}.
+ */
+class ParallelCompressionOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final ParallelCompression.BlockCompressor compressor;
+    private final ExecutorService executor;
+    private final boolean syncFlush;
+    private final int window;
+    private final int blockSize;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] buffer;
+    private int count;
+    private boolean written;
+    private boolean closed;
+
+    ParallelCompressionOutputStream( OutputStream out, ParallelCompression.BlockCompressor compressor, ExecutorService executor,
+                                     int window, int blockSize, boolean syncFlush ) {
+        this.out = out;
+        this.compressor = compressor;
+        this.executor = executor;
+        this.window = window;
+        this.blockSize = blockSize;
+        this.syncFlush = syncFlush;
+        this.buffer = new byte[blockSize];
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+        ensureOpen();
+        buffer[count++] = ( byte ) b;
+        if( count == blockSize ) submit();
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+        ensureOpen();
+        while( len > 0 ) {
+            var size = Math.min( len, blockSize - count );
+            System.arraycopy( b, off, buffer, count, size );
+            count += size;
+            off += size;
+            len -= size;
+            if( count == blockSize ) submit();
+        }
+    }
+
+    private void submit() throws IOException {
+        var block = buffer;
+        var length = count;
+        buffer = new byte[blockSize];
+        count = 0;
+
+        if( pending.size() >= window ) writeCompleted();
+        pending.add( executor.submit( () -> compressor.compress( block, length ) ) );
+        written = true;
+    }
+
+    private void writeCompleted() throws IOException {
+        try {
+            out.write( pending.remove().get() );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( e.getMessage() );
+        } catch( ExecutionException e ) {
+            throw e.getCause() instanceof IOException ? ( IOException ) e.getCause() : new IOException( e.getCause() );
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if( syncFlush ) {
+            if( count > 0 ) submit();
+            while( !pending.isEmpty() ) writeCompleted();
+        } else while( !pending.isEmpty() && pending.peek().isDone() ) writeCompleted();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( closed ) return;
+        closed = true;
+
+        try {
+            if( count > 0 || !written && compressor.compressEmpty() ) submit();
+            while( !pending.isEmpty() ) writeCompleted();
+            out.write( compressor.end() );
+        } finally {
+            pending.forEach( f -> f.cancel( true ) );
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if( closed ) throw new IOException( "stream closed" );
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import oap.util.Stream;
+import oap.util.Try;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access to files written by {@link SeekableLz4OutputStream}: only frames from the requested
+ * uncompressed offset or line onwards are decompressed.
+ */
+public class SeekableLz4File {
+    public final Path path;
+    public final long length;
+    public final long lines;
+    private final long[] offsets;
+    private final long[] firstLines;
+    private final long[] positions;
+
+    private SeekableLz4File( Path path, long length, long lines, long[] offsets, long[] firstLines, long[] positions ) {
+        this.path = path;
+        this.length = length;
+        this.lines = lines;
+        this.offsets = offsets;
+        this.firstLines = firstLines;
+        this.positions = positions;
+    }
+
+    public static Path indexPath( Path path ) {
+        return Paths.get( path + ".idx" );
+    }
+
+    public static SeekableLz4File open( Path path ) {
+        try( var in = new DataInputStream( IoStreams.in( indexPath( path ), IoStreams.Encoding.PLAIN ) ) ) {
+            if( in.readInt() != SeekableLz4OutputStream.INDEX_MAGIC )
+                throw new IOException( "invalid index " + indexPath( path ) );
+            var blocks = in.readInt();
+            var length = in.readLong();
+            var lines = in.readLong();
+            var offsets = new long[blocks];
+            var firstLines = new long[blocks];
+            var positions = new long[blocks];
+            for( var i = 0; i < blocks; i++ ) {
+                offsets[i] = in.readLong();
+                firstLines[i] = in.readLong();
+                positions[i] = in.readLong();
+            }
+            return new SeekableLz4File( path, length, lines, offsets, firstLines, positions );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    public int blocks() {
+        return offsets.length;
+    }
+
+    /**
+     * Uncompressed content starting at {@code offset}.
+     */
+    public InputStream in( long offset ) {
+        var block = find( offsets, offset );
+        var in = open( block );
+        try {
+            in.skipNBytes( offset - offsets[block] );
+            return in;
+        } catch( IOException e ) {
+            Closeables.close( in );
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Lines starting with line number {@code from} (0 based).
+     */
+    public Stream<String> lines( long from ) {
+        var block = find( firstLines, from );
+        var in = open( block );
+        return IoStreams.lines( in ).skip( from - firstLines[block] ).onClose( Try.run( in::close ) );
+    }
+
+    private InputStream open( int block ) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open( path, StandardOpenOption.READ );
+            channel.position( positions[block] );
+            return new LZ4FrameInputStream( new BufferedInputStream( Channels.newInputStream( channel ), IoStreams.DEFAULT_BUFFER ) );
+        } catch( IOException e ) {
+            Closeables.close( channel );
+            throw new UncheckedIOException( e );
+        } catch( RuntimeException e ) {
+            Closeables.close( channel );
+            throw e;
+        }
+    }
+
+    /**
+     * @return last block starting at or before {@code value}
+     */
+    private static int find( long[] starts, long value ) {
+        if( value < 0 ) throw new IllegalArgumentException( "negative position " + value );
+        var low = 0;
+        var high = starts.length - 1;
+        while( low < high ) {
+            var mid = ( low + high + 1 ) >>> 1;
+            if( starts[mid] <= value ) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB;
+
+/**
+ * Writes an lz4 file as a sequence of independent frames cut at line boundaries, plus a sidecar
+ * {@link SeekableLz4File#indexPath(Path)} mapping uncompressed offsets and line numbers to frame positions.
+ * The file itself stays a regular lz4 stream, readable by {@link IoStreams#in(Path)} and the lz4 tools.
+ *
+ * @see SeekableLz4File
+ */
+public class SeekableLz4OutputStream extends OutputStream {
+    static final int INDEX_MAGIC = 0x4c5a3449;
+    private final Path path;
+    private final OutputStream out;
+    private final int blockSize;
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexOut = new DataOutputStream( index );
+    private byte[] buffer;
+    private int count;
+    private long offset;
+    private long line;
+    private long position;
+    private int blocks;
+    private boolean closed;
+
+    public SeekableLz4OutputStream( Path path, int blockSize ) {
+        this.path = path;
+        this.blockSize = blockSize;
+        this.buffer = new byte[blockSize];
+        this.out = IoStreams.out( path, IoStreams.Encoding.PLAIN );
+    }
+
+    public SeekableLz4OutputStream( Path path ) {
+        this( path, 1024 * 1024 );
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+        write( new byte[] { ( byte ) b }, 0, 1 );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+        if( closed ) throw new IOException( "stream closed" );
+        if( count + len > buffer.length ) buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, count + len ) );
+        System.arraycopy( b, off, buffer, count, len );
+        count += len;
+
+        if( count >= blockSize ) {
+            var end = count - 1;
+            while( end >= 0 && buffer[end] != '\n' ) end--;
+            if( end >= 0 ) {
+                block( end + 1 );
+                System.arraycopy( buffer, end + 1, buffer, 0, count - end - 1 );
+                count -= end + 1;
+            }
+        }
+    }
+
+    private void block( int length ) throws IOException {
+        var compressed = new ByteArrayOutputStream( length / 2 + 64 );
+        try( var lz4 = new LZ4FrameOutputStream( compressed, SIZE_64KB ) ) {
+            lz4.write( buffer, 0, length );
+        }
+
+        indexOut.writeLong( offset );
+        indexOut.writeLong( line );
+        indexOut.writeLong( position );
+        blocks++;
+
+        compressed.writeTo( out );
+        offset += length;
+        position += compressed.size();
+        for( var i = 0; i < length; i++ ) if( buffer[i] == '\n' ) line++;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( closed ) return;
+        closed = true;
+
+        try( out ) {
+            if( count > 0 || blocks == 0 ) block( count );
+            count = 0;
+        }
+
+        try( var idx = new DataOutputStream( IoStreams.out( SeekableLz4File.indexPath( path ), IoStreams.Encoding.PLAIN ) ) ) {
+            idx.writeInt( INDEX_MAGIC );
+            idx.writeInt( blocks );
+            idx.writeLong( offset );
+            idx.writeLong( line );
+            index.writeTo( idx );
+        }
+    }
+}
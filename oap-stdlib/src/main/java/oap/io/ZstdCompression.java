@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.google.common.base.Preconditions;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zstandard options for {@link IoStreams.Encoding#ZSTD}.
+ * Defaults come from {@code oap.io.zstd.level} (3) and {@code oap.io.zstd.workers} (0, single threaded).
+ * <p>
+ * Dictionaries are registered by id: {@link IoStreams#in(java.nio.file.Path)} reads the dictionary id from the
+ * frame header, so files written with a registered dictionary are read, copied and appended transparently.
+ */
+@ToString( exclude = "dictionary" )
+public class ZstdCompression {
+    public static final ZstdCompression DEFAULT = new ZstdCompression(
+        Integer.getInteger( "oap.io.zstd.level", 3 ), Integer.getInteger( "oap.io.zstd.workers", 0 ), null );
+    private static final int FRAME_HEADER_MAX_SIZE = 18;
+    private static final Map<Long, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+    public final int level;
+    public final int workers;
+    public final byte[] dictionary;
+
+    private ZstdCompression( int level, int workers, byte[] dictionary ) {
+        Preconditions.checkArgument( level >= Zstd.minCompressionLevel() && level <= Zstd.maxCompressionLevel(),
+            "level must be between " + Zstd.minCompressionLevel() + " and " + Zstd.maxCompressionLevel() );
+        Preconditions.checkArgument( workers >= 0, "workers must not be negative" );
+        this.level = level;
+        this.workers = workers;
+        this.dictionary = dictionary;
+    }
+
+    public static ZstdCompression of( int level, int workers ) {
+        return new ZstdCompression( level, workers, null );
+    }
+
+    public ZstdCompression withLevel( int level ) {
+        return new ZstdCompression( level, workers, dictionary );
+    }
+
+    public ZstdCompression withWorkers( int workers ) {
+        return new ZstdCompression( level, workers, dictionary );
+    }
+
+    /**
+     * Also registers the dictionary for reading.
+     */
+    public ZstdCompression withDictionary( byte[] dictionary ) {
+        register( dictionary );
+        return new ZstdCompression( level, workers, dictionary );
+    }
+
+    /**
+     * @return dictionary id
+     */
+    public static long register( byte[] dictionary ) {
+        var id = Zstd.getDictIdFromDict( dictionary );
+        Preconditions.checkArgument( id != 0, "not a zstd dictionary" );
+        dictionaries.put( id, dictionary );
+        return id;
+    }
+
+    /**
+     * Trains a dictionary on samples of small, similar records.
+     */
+    public static byte[] train( Iterable<byte[]> samples, int dictionarySize ) {
+        long total = 0;
+        for( var sample : samples ) total += sample.length;
+        var trainer = new ZstdDictTrainer( ( int ) Math.min( Integer.MAX_VALUE, total ), dictionarySize );
+        for( var sample : samples ) trainer.addSample( sample );
+        return trainer.trainSamples();
+    }
+
+    public OutputStream out( OutputStream out ) throws IOException {
+        var zstd = new ZstdOutputStream( out, level );
+        if( workers > 0 ) zstd.setWorkers( workers );
+        if( dictionary != null ) zstd.setDict( dictionary );
+        return zstd;
+    }
+
+    public static InputStream in( InputStream in ) throws IOException {
+        var pushback = new PushbackInputStream( in, FRAME_HEADER_MAX_SIZE );
+        var header = pushback.readNBytes( FRAME_HEADER_MAX_SIZE );
+        pushback.unread( header );
+
+        var zstd = new ZstdInputStream( pushback );
+        if( header.length > 0 ) {
+            var dictionary = dictionaries.get( Zstd.getDictIdFromFrame( header ) );
+            if( dictionary != null ) zstd.setDict( dictionary );
+        }
+        return zstd;
+    }
+}
@@ -37,6 +37,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.AnnotationIntrospector;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -44,6 +45,8 @@ import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -56,6 +59,7 @@ import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import com.jasonclawson.jackson.dataformat.hocon.HoconFactory;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import oap.io.Closeables;
 import oap.io.Files;
 import oap.io.IoStreams;
 import oap.io.Resources;
@@ -64,6 +68,7 @@ import oap.json.ext.ExtModule;
 import oap.reflect.Reflection;
 import oap.reflect.TypeRef;
 import oap.util.Dates;
+import oap.util.Stream;
 import oap.util.Try;
 import org.joda.time.ReadableInstant;
 
@@ -72,12 +77,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import static oap.io.IoStreams.DEFAULT_BUFFER;
 import static oap.io.IoStreams.Encoding.from;
@@ -92,9 +104,12 @@ public class Binder {
     public static final Binder xmlWithTyping;
     public static final Binder yaml;
     private static final JacksonJodaDateFormat JACKSON_DATE_FORMAT = new JacksonJodaDateFormat( Dates.PARSER_FULL );
-    private static final byte[] BEGIN_ARRAY = "[".getBytes();
-    private static final byte[] END_ARRAY = "]".getBytes();
-    private static final byte[] ITEM_SEP = ",".getBytes();
+    private static final String LINE_SEP = "\n";
+    private static final int LINE_END = '\n';
+    private static final int PARALLEL_CHUNK_SIZE = 1024 * 1024;
+    private static final Set<Class<?>> IMMUTABLE = Set.of(
+        String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+        Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class );
     private static Set<Module> modules;
 
     static {
@@ -115,7 +130,9 @@ public class Binder {
         yaml = new Binder( initialize( new ObjectMapper( new YAMLFactory() ), false, false, true ) );
     }
 
-    private ObjectMapper mapper;
+    private final ObjectMapper mapper;
+    private final ConcurrentHashMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
 
     public Binder( ObjectMapper mapper ) {
         this.mapper = mapper;
@@ -237,6 +254,22 @@ public class Binder {
         return mapper;
     }
 
+    /**
+     * Readers and writers are immutable and thread safe, so one fully initialized instance is kept per type.
+     * Note: changes made to the mapper after the first use of a type are not visible to its cached reader/writer.
+     */
+    private ObjectReader reader( Type type ) {
+        var reader = readers.get( type );
+        if( reader != null ) return reader;
+        return readers.computeIfAbsent( type, t -> mapper.readerFor( mapper.getTypeFactory().constructType( t ) ) );
+    }
+
+    private ObjectWriter writer( Type type ) {
+        var writer = writers.get( type );
+        if( writer != null ) return writer;
+        return writers.computeIfAbsent( type, t -> mapper.writerFor( mapper.getTypeFactory().constructType( t ) ) );
+    }
+
     public final JsonGenerator getJsonGenerator( Path path ) {
         try {
             return mapper.getFactory().createGenerator( path.toFile(), JsonEncoding.UTF8 );
@@ -275,7 +308,7 @@ public class Binder {
 
     public <T> String marshal( TypeRef<T> ref, Object value ) {
         try {
-            return mapper.writerFor( toTypeReference( ref ) ).writeValueAsString( value );
+            return writer( ref.type() ).writeValueAsString( value );
         } catch( IOException e ) {
             throw new JsonException( e );
         }
@@ -290,6 +323,22 @@ public class Binder {
         }
     }
 
+    public byte[] marshalToBytes( Object value ) {
+        try {
+            return mapper.writeValueAsBytes( value );
+        } catch( IOException e ) {
+            throw new JsonException( e );
+        }
+    }
+
+    public <T> byte[] marshalToBytes( TypeRef<T> ref, Object value ) {
+        try {
+            return writer( ref.type() ).writeValueAsBytes( value );
+        } catch( IOException e ) {
+            throw new JsonException( e );
+        }
+    }
+
     public void marshal( OutputStream os, Object value ) {
         try {
             mapper.writeValue( os, value );
@@ -326,7 +375,7 @@ public class Binder {
 
     public <T> T unmarshal( TypeRef<T> ref, String string ) {
         try {
-            return mapper.readValue( string, toTypeReference( ref ) );
+            return reader( ref.type() ).readValue( string );
         } catch( IOException e ) {
             log.trace( "json: " + string );
             throw new JsonException( "json error: " + e.getMessage(), e );
@@ -335,7 +384,7 @@ public class Binder {
 
     public <T> T unmarshal( Reflection type, String string ) {
         try {
-            return mapper.readValue( string, mapper.getTypeFactory().constructType( type.getType() ) );
+            return reader( type.getType() ).readValue( string );
         } catch( IOException e ) {
             log.trace( "json: " + string );
             throw new JsonException( "json error: " + e.getMessage(), e );
@@ -353,7 +402,7 @@ public class Binder {
     }
 
     public ObjectReader readerFor( TypeRef<?> ref ) {
-        return mapper.readerFor( toTypeReference( ref ) );
+        return reader( ref.type() );
     }
 
     @Deprecated
@@ -366,7 +415,7 @@ public class Binder {
     }
 
     public ObjectWriter writerFor( TypeRef<?> ref ) {
-        return mapper.writerFor( toTypeReference( ref ) );
+        return writer( ref.type() );
     }
 
     @Deprecated
@@ -410,7 +459,7 @@ public class Binder {
 
     public <T> T unmarshal( TypeRef<T> ref, InputStream is ) {
         try {
-            return mapper.readValue( is, toTypeReference( ref ) );
+            return reader( ref.type() ).readValue( is );
         } catch( IOException e ) {
             throw new JsonException( e.getMessage(), e );
         }
@@ -427,7 +476,7 @@ public class Binder {
 
     public <T> T unmarshal( Class<T> clazz, String string ) {
         try {
-            return mapper.readValue( string, clazz );
+            return reader( clazz ).readValue( string );
         } catch( Exception e ) {
             log.trace( string );
             throw new JsonException( e.getMessage(), e );
@@ -444,8 +493,34 @@ public class Binder {
     }
 
     public <T> T unmarshal( TypeRef<T> ref, byte[] bytes ) {
+        return unmarshal( reader( ref.type() ), bytes, 0, bytes.length );
+    }
+
+    public <T> T unmarshal( Class<T> clazz, byte[] bytes ) {
+        return unmarshal( reader( clazz ), bytes, 0, bytes.length );
+    }
+
+    public <T> T unmarshal( TypeRef<T> ref, ByteBuffer buffer ) {
+        return unmarshal( reader( ref.type() ), buffer );
+    }
+
+    public <T> T unmarshal( Class<T> clazz, ByteBuffer buffer ) {
+        return unmarshal( reader( clazz ), buffer );
+    }
+
+    private static <T> T unmarshal( ObjectReader reader, ByteBuffer buffer ) {
+        if( buffer.hasArray() )
+            return unmarshal( reader, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
         try {
-            return mapper.readValue( bytes, toTypeReference( ref ) );
+            return reader.readValue( new ByteBufferBackedInputStream( buffer.duplicate() ) );
+        } catch( Exception e ) {
+            throw new JsonException( e.getMessage(), e );
+        }
+    }
+
+    private static <T> T unmarshal( ObjectReader reader, byte[] bytes, int offset, int length ) {
+        try {
+            return reader.readValue( bytes, offset, length );
         } catch( Exception e ) {
             throw new JsonException( e.getMessage(), e );
         }
@@ -499,7 +574,7 @@ public class Binder {
 
     public <T> T unmarshal( Class<T> clazz, InputStream json ) {
         try {
-            return mapper.readValue( json, clazz );
+            return reader( clazz ).readValue( json );
         } catch( IOException e ) {
             throw new JsonException( e.getMessage(), e );
         }
@@ -515,24 +590,107 @@ public class Binder {
 
     }
 
+    /**
+     * Deep copy through a {@link TokenBuffer}: same semantics as a json round trip without the text step.
+     * Immutable values are returned as is.
+     */
     @SuppressWarnings( "unchecked" )
     public <T> T clone( T object ) {
-        return unmarshal( ( Class<T> ) object.getClass(), marshal( object ) );
+        if( object == null || object instanceof Enum<?> || IMMUTABLE.contains( object.getClass() ) ) return object;
+
+        try {
+            var buffer = new TokenBuffer( mapper, false );
+            mapper.writeValue( buffer, object );
+            try( var parser = buffer.asParser( mapper ) ) {
+                return mapper.readValue( parser, ( Class<T> ) object.getClass() );
+            }
+        } catch( IOException e ) {
+            throw new JsonException( e.getMessage(), e );
+        }
     }
 
+    /**
+     * Writes a json array one element at a time.
+     */
     @SneakyThrows
     public void marshal( Path path, Iterable<?> iterable ) {
+        try( OutputStream out = IoStreams.out( path, from( path ), DEFAULT_BUFFER, false, true );
+             var values = sequenceWriter().writeValuesAsArray( out ) ) {
+            for( var value : iterable ) values.write( value );
+        }
+    }
+
+    /**
+     * Writes one json value per line (json-lines).
+     */
+    @SneakyThrows
+    public void marshalLines( Path path, Iterable<?> iterable ) {
         try( OutputStream out = IoStreams.out( path, from( path ), DEFAULT_BUFFER, false, true ) ) {
-            out.write( BEGIN_ARRAY );
-            var it = iterable.iterator();
-            while( it.hasNext() ) {
-                marshal( out, it.next() );
-                if( it.hasNext() ) out.write( ITEM_SEP );
+            marshalLines( out, iterable.iterator() );
+        }
+    }
+
+    public void marshalLines( OutputStream out, Iterator<?> iterator ) {
+        try {
+            try( var values = sequenceWriter().withRootValueSeparator( LINE_SEP ).writeValues( out ) ) {
+                while( iterator.hasNext() ) values.write( iterator.next() );
             }
-            out.write( END_ARRAY );
+            out.write( LINE_END );
+        } catch( IOException e ) {
+            throw new JsonException( e );
         }
     }
 
+    private ObjectWriter sequenceWriter() {
+        return mapper.writer().without( SerializationFeature.FLUSH_AFTER_WRITE_VALUE );
+    }
+
+    /**
+     * Lazily reads a json array or json-lines file in any {@link IoStreams.Encoding}. The stream must be closed.
+     */
+    public <T> Stream<T> unmarshalStream( Class<T> clazz, Path path ) {
+        return unmarshalStream( reader( clazz ), IoStreams.in( path ) );
+    }
+
+    public <T> Stream<T> unmarshalStream( TypeRef<T> ref, Path path ) {
+        return unmarshalStream( readerFor( ref ), IoStreams.in( path ) );
+    }
+
+    public <T> Stream<T> unmarshalStream( Class<T> clazz, InputStream in ) {
+        return unmarshalStream( reader( clazz ), in );
+    }
+
+    public <T> Stream<T> unmarshalStream( TypeRef<T> ref, InputStream in ) {
+        return unmarshalStream( readerFor( ref ), in );
+    }
+
+    private <T> Stream<T> unmarshalStream( ObjectReader reader, InputStream in ) {
+        try {
+            MappingIterator<T> values = reader.readValues( in );
+            return Stream.of( values ).onClose( Try.run( () -> {
+                values.close();
+                in.close();
+            } ) );
+        } catch( IOException e ) {
+            Closeables.close( in );
+            throw new JsonException( e.getMessage(), e );
+        }
+    }
+
+    public <T> Stream<T> unmarshalLinesParallel( TypeRef<T> ref, Path path ) {
+        return unmarshalLinesParallel( ref, path, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Decodes a json-lines file in line aligned chunks on the pool, preserving order and keeping
+     * a bounded number of chunks in memory.
+     */
+    public <T> Stream<T> unmarshalLinesParallel( TypeRef<T> ref, Path path, ForkJoinPool pool ) {
+        var values = new ParallelLinesIterator<T>( IoStreams.in( path ), readerFor( ref ), pool,
+            PARALLEL_CHUNK_SIZE, pool.getParallelism() * 2 );
+        return Stream.of( values ).onClose( Try.run( values::close ) );
+    }
+
     public enum Format {
         JSON( Binder.json ),
         HOCON( Binder.hocon ),
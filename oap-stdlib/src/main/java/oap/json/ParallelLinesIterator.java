@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.json;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Splits a json-lines stream into line aligned chunks and decodes them on a {@link ForkJoinPool}.
+ * At most {@code window} chunks are in memory at once, values are returned in input order.
+ */
+class ParallelLinesIterator<T> implements Iterator<T>, Closeable {
+    private final InputStream in;
+    private final ObjectReader reader;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int window;
+    private final ArrayDeque<ForkJoinTask<List<T>>> tasks = new ArrayDeque<>();
+    private byte[] buffer;
+    private int length;
+    private boolean eof;
+    private Iterator<T> current = Collections.emptyIterator();
+
+    ParallelLinesIterator( InputStream in, ObjectReader reader, ForkJoinPool pool, int chunkSize, int window ) {
+        this.in = in;
+        this.reader = reader;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.window = window;
+        this.buffer = new byte[chunkSize];
+    }
+
+    @Override
+    public boolean hasNext() {
+        while( !current.hasNext() ) {
+            fill();
+            var task = tasks.poll();
+            if( task == null ) return false;
+            current = task.join().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if( !hasNext() ) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    private void fill() {
+        try {
+            while( !eof && tasks.size() < window ) {
+                var chunk = readChunk();
+                if( chunk != null ) tasks.add( pool.submit( () -> decode( chunk ) ) );
+            }
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * @return bytes up to and including the last complete line read, or null if no complete line is available yet
+     */
+    private byte[] readChunk() throws IOException {
+        if( length == buffer.length ) buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+
+        var read = in.read( buffer, length, buffer.length - length );
+        if( read < 0 ) {
+            eof = true;
+            if( length == 0 ) return null;
+            var chunk = Arrays.copyOf( buffer, length );
+            length = 0;
+            return chunk;
+        }
+        length += read;
+        if( length < chunkSize ) return null;
+
+        var end = length - 1;
+        while( end >= 0 && buffer[end] != '\n' ) end--;
+        if( end < 0 ) return null;
+
+        var chunk = Arrays.copyOf( buffer, end + 1 );
+        length -= end + 1;
+        System.arraycopy( buffer, end + 1, buffer, 0, length );
+        return chunk;
+    }
+
+    private List<T> decode( byte[] chunk ) throws IOException {
+        try( var values = reader.<T>readValues( chunk ) ) {
+            return values.readAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        tasks.forEach( t -> t.cancel( false ) );
+        tasks.clear();
+        in.close();
+    }
+}
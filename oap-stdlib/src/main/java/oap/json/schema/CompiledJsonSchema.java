@@ -0,0 +1,361 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.json.schema;
+
+import oap.json.schema.validator.array.ArraySchemaAST;
+import oap.json.schema.validator.number.NumberSchemaAST;
+import oap.json.schema.validator.object.ObjectSchemaAST;
+import oap.json.schema.validator.string.StringSchemaAST;
+import oap.util.Dates;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.DoubleFunction;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static oap.json.schema.JsonSchemaValidator.getType;
+
+/**
+ * Schema compiled once into a tree of specialized validators.
+ * Constant required/enabled flags and static enums are resolved at compile time,
+ * error paths are only rendered when an error is reported.
+ * Types without a specialized validator (dictionary, custom ones) and built-in types whose validator was replaced
+ * through {@link JsonSchema#add(JsonSchemaValidator)} are delegated to the registered {@link JsonSchemaValidator}.
+ */
+public final class CompiledJsonSchema {
+    private final JsonSchema jsonSchema;
+    private final Node root;
+
+    CompiledJsonSchema( JsonSchema jsonSchema ) {
+        this.jsonSchema = jsonSchema;
+        this.root = compile( jsonSchema.schema, Optional.empty() );
+    }
+
+    /**
+     * @see JsonSchema#validate(Object, boolean)
+     */
+    public List<String> validate( Object json, boolean ignoreRequiredDefault ) {
+        var context = new Context( json, ignoreRequiredDefault );
+        root.validate( context, null, json );
+        return context.errors != null ? context.errors : new ArrayList<>();
+    }
+
+    private Node compile( SchemaAST<?> schema, Optional<Boolean> additionalProperties ) {
+        var type = compileType( schema, additionalProperties );
+        var required = schema.common.required.orElse( BooleanReference.FALSE );
+        var enumValue = schema.common.enumValue.orElse( null );
+
+        Node withEnum;
+        if( enumValue == null ) withEnum = type;
+        else if( enumValue instanceof ListObjectEnumFunction ) {
+            var members = ( ( ListObjectEnumFunction ) enumValue ).values;
+            Set<Object> set = new HashSet<>( members );
+            withEnum = ( context, path, value ) -> {
+                type.validate( context, path, value );
+                if( !set.contains( value ) )
+                    context.error( path, "instance does not match any member resolve the enumeration " + members );
+            };
+        } else withEnum = ( context, path, value ) -> {
+            type.validate( context, path, value );
+            var members = enumValue.apply( context.rootJson, Path.toOptional( path ) );
+            if( !members.contains( value ) )
+                context.error( path, "instance does not match any member resolve the enumeration " + members );
+        };
+
+        if( required == BooleanReference.FALSE )
+            return ( context, path, value ) -> {
+                if( value != null ) withEnum.validate( context, path, value );
+            };
+
+        return ( context, path, value ) -> {
+            if( value != null ) withEnum.validate( context, path, value );
+            else if( !context.ignoreRequiredDefault
+                && ( required == BooleanReference.TRUE
+                || required.apply( context.rootJson, null, Path.toOptional( path ), Optional.empty() ) ) )
+                context.error( path, "required property is missing" );
+        };
+    }
+
+    private Node compileType( SchemaAST<?> schema, Optional<Boolean> additionalProperties ) {
+        if( !JsonSchema.isBuiltIn( schema.common.schemaType ) ) return delegate( schema, additionalProperties );
+
+        switch( schema.common.schemaType ) {
+            case "object":
+                return compileObject( ( ObjectSchemaAST ) schema, additionalProperties );
+            case "array":
+                return compileArray( ( ArraySchemaAST ) schema, additionalProperties );
+            case "string":
+            case "text":
+                return compileString( ( StringSchemaAST ) schema );
+            case "integer":
+                return compileNumber( ( NumberSchemaAST ) schema,
+                    v -> v instanceof Long && ( Long ) v == ( long ) ( ( Long ) v ).intValue(),
+                    v -> String.valueOf( ( int ) v ) );
+            case "long":
+                return compileNumber( ( NumberSchemaAST ) schema, v -> v instanceof Long, v -> String.valueOf( ( long ) v ) );
+            case "double":
+                return compileNumber( ( NumberSchemaAST ) schema, v -> v instanceof Number, String::valueOf );
+            case "boolean":
+                return ( context, path, value ) -> {
+                    if( !( value instanceof Boolean ) ) context.typeFailed( path, schema, value );
+                };
+            case "date":
+                return ( context, path, value ) -> {
+                    if( !( value instanceof String ) ) context.typeFailed( path, schema, value );
+                    else Dates.parseDateWithTimeZone( ( String ) value )
+                        .ifFailure( e -> context.error( path, e.getMessage() ) );
+                };
+            case "any":
+                return ( context, path, value ) -> {};
+            default:
+                return delegate( schema, additionalProperties );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Node compileObject( ObjectSchemaAST schema, Optional<Boolean> additionalProperties ) {
+        var size = schema.properties.size();
+        var names = new String[size];
+        var nodes = new Node[size];
+        var enabled = new BooleanReference[size];
+        var defaults = new Object[size];
+        var staticEnabled = new HashSet<String>();
+        var dynamic = false;
+
+        var childAdditionalProperties = schema.additionalProperties.isPresent() ? schema.additionalProperties : additionalProperties;
+        var i = 0;
+        for( var entry : schema.properties.entrySet() ) {
+            SchemaAST<?> ast = entry.getValue();
+            names[i] = entry.getKey();
+            nodes[i] = compile( ast, childAdditionalProperties );
+            enabled[i] = ast.common.enabled.orElse( BooleanReference.TRUE );
+            defaults[i] = ast.common.defaultValue.orElse( null );
+            if( enabled[i] == BooleanReference.TRUE ) staticEnabled.add( names[i] );
+            else if( enabled[i] != BooleanReference.FALSE ) dynamic = true;
+            i++;
+        }
+        var hasDynamicEnabled = dynamic;
+        var additionalPropertiesAllowed = schema.additionalProperties.orElse( additionalProperties.orElse( true ) );
+
+        return ( context, path, value ) -> {
+            if( !( value instanceof Map<?, ?> ) ) {
+                context.typeFailed( path, schema, value );
+                return;
+            }
+            var map = ( Map<String, Object> ) value;
+            var enabledNames = staticEnabled;
+            boolean[] dynamicEnabled = null;
+            if( hasDynamicEnabled ) {
+                dynamicEnabled = new boolean[size];
+                enabledNames = new HashSet<>( staticEnabled );
+                for( var p = 0; p < size; p++ )
+                    if( enabled[p] != BooleanReference.TRUE && enabled[p] != BooleanReference.FALSE
+                        && enabled[p].apply( context.rootJson, value, Optional.of( new Path( path, names[p] ).toString() ), Optional.empty() ) ) {
+                        dynamicEnabled[p] = true;
+                        enabledNames.add( names[p] );
+                    }
+            }
+
+            for( var p = 0; p < size; p++ ) {
+                if( enabled[p] != BooleanReference.TRUE && ( dynamicEnabled == null || !dynamicEnabled[p] ) ) continue;
+
+                var name = names[p];
+                var v = map.get( name );
+                if( v == null && defaults[p] != null ) map.put( name, defaults[p] );
+                else nodes[p].validate( context, new Path( path, name ), v );
+            }
+
+            if( !additionalPropertiesAllowed ) {
+                List<String> additional = null;
+                for( var key : map.keySet() )
+                    if( !enabledNames.contains( key ) ) {
+                        if( additional == null ) additional = new ArrayList<>();
+                        additional.add( key );
+                    }
+                if( additional != null ) context.error( path, "additional properties are not permitted " + additional );
+            }
+        };
+    }
+
+    private Node compileArray( ArraySchemaAST schema, Optional<Boolean> additionalProperties ) {
+        var items = compile( schema.items, schema.additionalProperties.isPresent() ? schema.additionalProperties : additionalProperties );
+        int minItems = schema.minItems.orElse( Integer.MIN_VALUE );
+        int maxItems = schema.maxItems.orElse( Integer.MAX_VALUE );
+
+        return ( context, path, value ) -> {
+            if( !( value instanceof List<?> ) ) {
+                context.typeFailed( path, schema, value );
+                return;
+            }
+            var list = ( List<?> ) value;
+            var size = list.size();
+            if( size < minItems )
+                context.error( path, "array " + list + " has less than minItems elements " + minItems );
+            if( size > maxItems )
+                context.error( path, "array " + list + " has more than maxItems elements " + maxItems );
+
+            for( var i = 0; i < size; i++ )
+                items.validate( context, new Path( path, i ), list.get( i ) );
+        };
+    }
+
+    private Node compileString( StringSchemaAST schema ) {
+        int minLength = schema.minLength.orElse( Integer.MIN_VALUE );
+        int maxLength = schema.maxLength.orElse( Integer.MAX_VALUE );
+        Pattern pattern = schema.pattern.orElse( null );
+
+        return ( context, path, value ) -> {
+            if( !( value instanceof String ) ) {
+                context.typeFailed( path, schema, value );
+                return;
+            }
+            var str = ( String ) value;
+            if( str.length() < minLength )
+                context.error( path, "string " + str + " is shorter than minLength " + minLength );
+            if( str.length() > maxLength )
+                context.error( path, "string " + str + " is longer than maxLength " + maxLength );
+            if( pattern != null && !pattern.matcher( str ).matches() )
+                context.error( path, "string " + str + " does not match specified regex " + pattern );
+        };
+    }
+
+    private Node compileNumber( NumberSchemaAST schema, Predicate<Object> valid, DoubleFunction<String> print ) {
+        var hasMinimum = schema.minimum.isPresent();
+        var hasMaximum = schema.maximum.isPresent();
+        double minimum = schema.minimum.orElse( 0d );
+        double maximum = schema.maximum.orElse( 0d );
+        boolean exclusiveMinimum = schema.exclusiveMinimum.orElse( false );
+        boolean exclusiveMaximum = schema.exclusiveMaximum.orElse( false );
+
+        return ( context, path, value ) -> {
+            if( !valid.test( value ) ) {
+                context.typeFailed( path, schema, value );
+                return;
+            }
+            if( !hasMinimum && !hasMaximum ) return;
+
+            var d = ( ( Number ) value ).doubleValue();
+            if( hasMinimum ) {
+                if( !exclusiveMinimum && d < minimum )
+                    context.error( path, "number " + print.apply( d ) + " is lower than the required minimum " + print.apply( minimum ) );
+                else if( exclusiveMinimum && d <= minimum )
+                    context.error( path, "number " + print.apply( d ) + " is not strictly greater than the required minimum " + print.apply( minimum ) );
+            }
+            if( hasMaximum ) {
+                if( !exclusiveMaximum && d > maximum )
+                    context.error( path, "number " + print.apply( d ) + " is greater than the required maximum " + print.apply( maximum ) );
+                else if( exclusiveMaximum && d >= maximum )
+                    context.error( path, "number " + print.apply( d ) + " is not strictly lower than the required maximum " + print.apply( maximum ) );
+            }
+        };
+    }
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private Node delegate( SchemaAST<?> schema, Optional<Boolean> additionalProperties ) {
+        JsonSchemaValidator validator = JsonSchema.validator( schema.common.schemaType );
+
+        return ( context, path, value ) -> {
+            var properties = new JsonValidatorProperties( jsonSchema.schema, context.rootJson,
+                Optional.empty(), Path.toOptional( path ), additionalProperties,
+                context.ignoreRequiredDefault, jsonSchema::validate );
+            List<String> errors = validator.validate( properties, schema, value );
+            for( var error : errors ) context.error( error );
+        };
+    }
+
+    @FunctionalInterface
+    private interface Node {
+        void validate( Context context, Path path, Object value );
+    }
+
+    private static final class Context {
+        final Object rootJson;
+        final boolean ignoreRequiredDefault;
+        List<String> errors;
+
+        Context( Object rootJson, boolean ignoreRequiredDefault ) {
+            this.rootJson = rootJson;
+            this.ignoreRequiredDefault = ignoreRequiredDefault;
+        }
+
+        void error( Path path, String message ) {
+            error( path != null ? "/" + path + ": " + message : message );
+        }
+
+        void error( String error ) {
+            if( errors == null ) errors = new ArrayList<>();
+            errors.add( error );
+        }
+
+        void typeFailed( Path path, SchemaAST<?> schema, Object value ) {
+            error( path, "instance type is " + getType( value ) + ", but allowed type is " + schema.common.schemaType );
+        }
+    }
+
+    /**
+     * Linked path, rendered as "a/b/0" only on demand.
+     */
+    private static final class Path {
+        final Path parent;
+        final String name;
+        final int index;
+
+        Path( Path parent, String name ) {
+            this.parent = parent;
+            this.name = name;
+            this.index = -1;
+        }
+
+        Path( Path parent, int index ) {
+            this.parent = parent;
+            this.name = null;
+            this.index = index;
+        }
+
+        static Optional<String> toOptional( Path path ) {
+            return path != null ? Optional.of( path.toString() ) : Optional.empty();
+        }
+
+        private void append( StringBuilder sb ) {
+            if( parent != null ) {
+                parent.append( sb );
+                sb.append( '/' );
+            }
+            if( name != null ) sb.append( name );
+            else sb.append( index );
+        }
+
+        @Override
+        public String toString() {
+            var sb = new StringBuilder();
+            append( sb );
+            return sb.toString();
+        }
+    }
+}
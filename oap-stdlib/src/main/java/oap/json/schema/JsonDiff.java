@@ -24,27 +24,25 @@
 
 package oap.json.schema;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import oap.json.Binder;
+import oap.json.JsonException;
 import oap.json.schema.validator.array.ArraySchemaAST;
 import oap.json.schema.validator.object.ObjectSchemaAST;
-import oap.reflect.TypeRef;
-import oap.util.Lists;
-import oap.util.Sets;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 
 import static java.lang.Math.min;
-import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
-import static org.apache.commons.collections4.CollectionUtils.subtract;
 
 public class JsonDiff {
     private final ArrayList<Line> diff;
@@ -54,19 +52,29 @@ public class JsonDiff {
     }
 
     public static JsonDiff diff( String oldJson, String newJson, SchemaAST schema ) {
-        var result = new ArrayList<Line>();
+        return diff( readTree( oldJson ), readTree( newJson ), schema );
+    }
 
-        var to = Binder.json.unmarshal( new TypeRef<Map<String, Object>>() {
-        }, newJson );
-        var from = Binder.json.unmarshal( new TypeRef<Map<String, Object>>() {
-        }, oldJson );
+    /**
+     * Diffs json trees; values are only converted back to json for the changed lines.
+     */
+    public static JsonDiff diff( JsonNode oldJson, JsonNode newJson, SchemaAST schema ) {
+        var result = new ArrayList<Line>();
 
-        diff( "", schema, result, to, from );
+        diff( "", schema, result, value( newJson ), value( oldJson ) );
 
         return new JsonDiff( result );
     }
 
-    private static void diff( String prefix, SchemaAST schema, ArrayList<Line> result, Object to, Object from ) {
+    private static JsonNode readTree( String json ) {
+        try {
+            return Binder.json.getMapper().readTree( json );
+        } catch( IOException e ) {
+            throw new JsonException( "json error: " + e.getMessage(), e );
+        }
+    }
+
+    private static void diff( String prefix, SchemaAST schema, ArrayList<Line> result, JsonNode to, JsonNode from ) {
         if( schema instanceof ObjectSchemaAST ) {
             diffObject( prefix, ( ObjectSchemaAST ) schema, result, to, from );
         } else if( schema instanceof ArraySchemaAST ) {
@@ -81,112 +89,133 @@ public class JsonDiff {
             result.add( new Line(
                 prefix,
                 toLineType( schema ),
-                Optional.ofNullable( from ).map( Binder.json::marshal ),
-                Optional.ofNullable( to ).map( Binder.json::marshal )
+                Optional.ofNullable( from ).map( JsonDiff::marshal ),
+                Optional.ofNullable( to ).map( JsonDiff::marshal )
             ) );
         }
     }
 
-    private static void diffArray( String prefix, ArraySchemaAST schema, ArrayList<Line> result, Object to, Object from ) {
-        if( !( to instanceof List ) || !( from instanceof List ) )
-            throw new IllegalArgumentException( prefix + ": invalid json" );
-        var toList = ( List<?> ) to;
-        var fromList = ( List<?> ) from;
+    private static String marshal( Object value ) {
+        var mapper = Binder.json.getMapper();
+        try {
+            if( value instanceof JsonNode )
+                return Binder.json.marshal( mapper.treeToValue( ( JsonNode ) value, Object.class ) );
+
+            var list = new ArrayList<>();
+            for( var node : ( List<?> ) value ) list.add( mapper.treeToValue( ( JsonNode ) node, Object.class ) );
+            return Binder.json.marshal( list );
+        } catch( IOException e ) {
+            throw new JsonException( e );
+        }
+    }
 
-        var diffDel = subtract( fromList, toList );
-        var diffAdd = subtract( toList, fromList );
+    private static void diffArray( String prefix, ArraySchemaAST schema, ArrayList<Line> result, JsonNode to, JsonNode from ) {
+        if( !to.isArray() || !from.isArray() )
+            throw new IllegalArgumentException( prefix + ": invalid json" );
 
         var items = schema.items;
         if( items instanceof ObjectSchemaAST ) {
             var idField = schema.idField
                 .orElseThrow( () -> new IllegalArgumentException( prefix + ": schema: id field is required" ) );
 
-            var added = unique( toList, fromList, idField );
-            var removed = unique( fromList, toList, idField );
+            if( isIndex( idField ) ) diffArrayByIndex( prefix, items, result, to, from );
+            else diffArrayById( prefix, idField, items, result, to, from );
+        } else if( items instanceof ArraySchemaAST ) {
+            throw new IllegalArgumentException( prefix + ": sub-array" );
+        } else {
+            var diffAdd = subtract( to, from );
+            var diffDel = subtract( from, to );
 
-            for( var i = 0; i < added.size(); i++ ) {
-                var item = added.get( i );
+            diffField( prefix, schema, result, diffAdd.isEmpty() ? null : diffAdd, diffDel.isEmpty() ? null : diffDel );
+        }
+    }
 
-                var id = isIndex( idField ) ? fromList.size() : getId( idField, item );
-                diffField( prefixWithIndex( prefix, id ), items, result, item, null );
-            }
+    private static void diffArrayByIndex( String prefix, SchemaAST items, ArrayList<Line> result, JsonNode to, JsonNode from ) {
+        for( var i = from.size(); i < to.size(); i++ )
+            diffField( prefixWithIndex( prefix, from.size() ), items, result, value( to.get( i ) ), null );
 
-            for( var i = 0; i < removed.size(); i++ ) {
-                var item = removed.get( i );
+        for( var i = to.size(); i < from.size(); i++ )
+            diffField( prefixWithIndex( prefix, to.size() ), items, result, null, value( from.get( i ) ) );
 
-                var id = isIndex( idField ) ? toList.size() : getId( idField, item );
+        for( var i = 0; i < min( from.size(), to.size() ); i++ )
+            diff( prefixWithIndex( prefix, i ), items, result, to.get( i ), from.get( i ) );
+    }
 
-                diffField( prefixWithIndex( prefix, id ), items, result, null, item );
-            }
+    /**
+     * Linear: items are matched through a hash index by id instead of scanning the other list.
+     */
+    private static void diffArrayById( String prefix, String idField, SchemaAST items, ArrayList<Line> result, JsonNode to, JsonNode from ) {
+        var toById = new HashMap<JsonNode, JsonNode>( to.size() * 2 );
+        for( var toItem : to ) toById.putIfAbsent( id( toItem, idField ), toItem );
 
+        var fromIds = new HashSet<JsonNode>( from.size() * 2 );
+        for( var fromItem : from ) fromIds.add( id( fromItem, idField ) );
 
-            if( isIndex( idField ) ) {
-                for( int i = 0; i < min( fromList.size(), toList.size() ); i++ ) {
-                    diff( prefixWithIndex( prefix, i ), items, result, toList.get( i ), fromList.get( i ) );
-                }
-            } else {
-                for( var fromItem : fromList ) {
-                    var fromItemMap = ( Map ) fromItem;
-                    var id = fromItemMap.get( idField );
-                    if( id == null )
-                        throw new IllegalArgumentException( prefix + ": id field " + idField + ": not found" );
-
-                    toList
-                        .stream()
-                        .filter( toItem -> {
-                            var toItemMap = ( Map ) toItem;
-                            var toId = toItemMap.get( idField );
-
-                            return Objects.equals( toId, id );
-                        } )
-                        .findAny()
-                        .ifPresent( toItem -> diff( prefixWithIndex( prefix, id ), items, result, toItem, fromItemMap ) );
-                }
-            }
-        } else if( items instanceof ArraySchemaAST ) {
-            throw new IllegalArgumentException( prefix + ": sub-array" );
-        } else {
+        for( var toItem : to ) {
+            var id = id( toItem, idField );
+            if( !fromIds.contains( id ) )
+                diffField( prefixWithIndex( prefix, marshalId( id ) ), items, result, toItem, null );
+        }
 
-            diffField( prefix, schema, result, diffAdd.isEmpty() ? null : diffAdd, diffDel.isEmpty() ? null : diffDel );
+        for( var fromItem : from ) {
+            var id = id( fromItem, idField );
+            if( !toById.containsKey( id ) )
+                diffField( prefixWithIndex( prefix, marshalId( id ) ), items, result, null, fromItem );
         }
-    }
 
-    private static boolean isIndex( String idField ) {
-        return "{index}".equals( idField );
-    }
+        for( var fromItem : from ) {
+            var id = id( fromItem, idField );
+            if( id == null )
+                throw new IllegalArgumentException( prefix + ": id field " + idField + ": not found" );
 
-    private static String prefixWithIndex( String prefix, Object id ) {
-        return prefix.isEmpty() ? "[" + id + "]" : prefix + "[" + id + "]";
+            var toItem = toById.get( id );
+            if( toItem != null ) diff( prefixWithIndex( prefix, marshalId( id ) ), items, result, toItem, fromItem );
+        }
     }
 
-    private static List unique( List<?> to, List<?> from, String idField ) {
-        if( isIndex( idField ) ) {
-            if( to.size() <= from.size() ) return emptyList();
-            return to.subList( from.size(), to.size() );
-        } else {
-            final Set<Object> ids2 = Sets.map( from, i -> getId( idField, i ) );
+    private static JsonNode id( JsonNode item, String idField ) {
+        return value( item.get( idField ) );
+    }
 
-            return Lists.filter( to, i -> {
-                var id = getId( idField, i );
+    private static Object marshalId( JsonNode id ) {
+        if( id == null ) return null;
+        return id.isTextual() ? id.textValue() : id.toString();
+    }
 
-                return !ids2.contains( id );
-            } );
+    /**
+     * Multiset difference keeping the order of {@code a}, as {@code CollectionUtils.subtract}, in linear time.
+     */
+    private static List<JsonNode> subtract( JsonNode a, JsonNode b ) {
+        var counts = new HashMap<JsonNode, Integer>( b.size() * 2 );
+        for( var node : b ) counts.merge( node, 1, Integer::sum );
+
+        var result = new ArrayList<JsonNode>();
+        for( var node : a ) {
+            var count = counts.get( node );
+            if( count == null ) result.add( node );
+            else if( count == 1 ) counts.remove( node );
+            else counts.put( node, count - 1 );
         }
+        return result;
     }
 
-    private static Object getId( String idField, Object i ) {
-        return ( ( Map<?, ?> ) i ).get( idField );
+    private static boolean isIndex( String idField ) {
+        return "{index}".equals( idField );
     }
 
-    private static void diffObject( String prefix, ObjectSchemaAST schema, ArrayList<Line> result, Object to, Object from ) {
+    private static String prefixWithIndex( String prefix, Object id ) {
+        return prefix.isEmpty() ? "[" + id + "]" : prefix + "[" + id + "]";
+    }
 
-        var toMap = ( Map ) to;
-        var fromMap = ( Map ) from;
+    private static JsonNode value( JsonNode node ) {
+        return node == null || node.isNull() || node.isMissingNode() ? null : node;
+    }
 
+    private static void diffObject( String prefix, ObjectSchemaAST schema, ArrayList<Line> result, JsonNode to, JsonNode from ) {
         for( var child : schema.properties.entrySet() ) {
             var property = child.getKey();
-            var fromProperty = fromMap.get( property );
-            var toProperty = toMap.get( property );
+            var fromProperty = value( from.get( property ) );
+            var toProperty = value( to.get( property ) );
 
             var newPrefix = prefix.length() > 0 ? prefix + "." + property : property;
 
@@ -47,6 +47,7 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class JsonSchema {
     private static final Map<String, JsonSchemaValidator<?>> validators = new HashMap<>();
+    private static final Map<String, Class<?>> builtIn = new HashMap<>();
     private static Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
 
     static {
@@ -62,10 +63,12 @@ public class JsonSchema {
         JsonSchema.add( new ObjectJsonValidator() );
         JsonSchema.add( new DictionaryJsonValidator() );
         JsonSchema.add( new AnyJsonValidator() );
+
+        validators.forEach( ( type, validator ) -> builtIn.put( type, validator.getClass() ) );
     }
 
     public final SchemaAST schema;
-
+    private volatile CompiledJsonSchema compiled;
 
     JsonSchema( String schemaJson ) {
         this( schemaJson, ResourceSchemaStorage.INSTANCE );
@@ -85,6 +88,10 @@ public class JsonSchema {
         return schemas.computeIfAbsent( schemaPath, u -> schemaFromString( ResourceSchemaStorage.INSTANCE.get( u ) ) );
     }
 
+    public static CompiledJsonSchema compiledSchema( String schemaPath ) {
+        return schema( schemaPath ).compiled();
+    }
+
     public static JsonSchema schemaFromString( String schemaJson, SchemaStorage storage ) {
         return new JsonSchema( schemaJson, storage );
     }
@@ -97,6 +104,35 @@ public class JsonSchema {
         validators.put( validator.type, validator );
     }
 
+    /**
+     * {@code type} is still validated by the validator registered for it out of the box
+     */
+    static boolean isBuiltIn( String type ) {
+        var validator = validators.get( type );
+        return validator != null && validator.getClass() == builtIn.get( type );
+    }
+
+    static JsonSchemaValidator<?> validator( String type ) {
+        var validator = validators.get( type );
+        if( validator == null ) {
+            log.trace( "registered validators: " + validators.keySet() );
+            throw new ValidationSyntaxException( "[schema:type]: unknown simple type [" + type + "]" );
+        }
+        return validator;
+    }
+
+    /**
+     * Compiled form of this schema, built on first use.
+     */
+    public CompiledJsonSchema compiled() {
+        var result = compiled;
+        if( result == null ) synchronized( this ) {
+            result = compiled;
+            if( result == null ) compiled = result = new CompiledJsonSchema( this );
+        }
+        return result;
+    }
+
     private SchemaASTWrapper parse( String schema, JsonSchemaParserContext context ) {
         return parse( context.withNode( "", parseWithTemplate( schema, context.storage ) ) );
     }
@@ -149,7 +185,7 @@ public class JsonSchema {
     }
 
     @SuppressWarnings( "unchecked" )
-    private List<String> validate( JsonValidatorProperties properties, SchemaAST schema, Object value ) {
+    List<String> validate( JsonValidatorProperties properties, SchemaAST schema, Object value ) {
         JsonSchemaValidator jsonSchemaValidator = validators.get( schema.common.schemaType );
         if( jsonSchemaValidator == null ) {
             log.trace( "registered validators: " + validators.keySet() );
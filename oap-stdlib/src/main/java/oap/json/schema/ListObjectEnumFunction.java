@@ -28,7 +28,7 @@ import java.util.List;
 import java.util.Optional;
 
 public class ListObjectEnumFunction implements EnumFunction {
-    private final List<Object> values;
+    final List<Object> values;
 
     public ListObjectEnumFunction( List<Object> values ) {
         this.values = values;
@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.joda.time.DateTimeUtils;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free variant of {@link Counter}. The tick and the value are packed into one long, 24 low bits of the tick
+ * and a 40 bit value, so the rollover to a new tick and the increment are a single CAS.
+ * <p>
+ * Values are kept in [0, 2^40-1] per tick, saturating at both ends. Ticks are compared modulo 2^24: a counter left untouched for exactly
+ * 2^24 periods would be taken as current.
+ *
+ * @see CounterArray
+ */
+@ThreadSafe
+@EqualsAndHashCode
+@ToString
+public abstract class AtomicCounter implements Mergeable<AtomicCounter>, Serializable {
+    static final int VALUE_BITS = 40;
+    static final long VALUE_MASK = ( 1L << VALUE_BITS ) - 1;
+    static final long TICK_MASK = ( 1L << ( 64 - VALUE_BITS ) ) - 1;
+    private static final long serialVersionUID = -1460384440364938254L;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle( AtomicCounter.class, "state", long.class );
+        } catch( ReflectiveOperationException e ) {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+
+    private volatile long state;
+
+    protected abstract long getCurrentTick();
+
+    static long pack( long tick, long value ) {
+        return ( tick & TICK_MASK ) << VALUE_BITS | Math.max( 0, Math.min( value, VALUE_MASK ) );
+    }
+
+    static long valueOf( long state ) {
+        return state & VALUE_MASK;
+    }
+
+    static boolean sameTick( long state, long tick ) {
+        return state >>> VALUE_BITS == ( tick & TICK_MASK );
+    }
+
+    static long add( long state, long tick, long value ) {
+        if( !sameTick( state, tick ) ) return pack( tick, value );
+        return pack( tick, value >= VALUE_MASK ? VALUE_MASK : valueOf( state ) + value );
+    }
+
+    /**
+     * @return state with the later tick, or the sum of both on the same tick
+     */
+    static long merge( long state, long other ) {
+        if( other == 0 ) return state;
+        if( state == 0 ) return other;
+
+        var diff = ( ( state >>> VALUE_BITS ) - ( other >>> VALUE_BITS ) ) << VALUE_BITS >> VALUE_BITS;
+        if( diff == 0 ) {
+            var sum = valueOf( state ) + valueOf( other );
+            return ( state & ~VALUE_MASK ) | Math.min( sum, VALUE_MASK );
+        }
+        return diff < 0 ? other : state;
+    }
+
+    public final void inc() {
+        inc( 1 );
+    }
+
+    public final void inc( long value ) {
+        var tick = getCurrentTick();
+        long current;
+        do {
+            current = state;
+        } while( !STATE.compareAndSet( this, current, add( current, tick, value ) ) );
+    }
+
+    public final long get( long tick ) {
+        var current = state;
+        return sameTick( current, tick ) ? valueOf( current ) : 0;
+    }
+
+    public final long get() {
+        return get( getCurrentTick() );
+    }
+
+    @Override
+    public AtomicCounter merge( AtomicCounter other ) {
+        var update = other.state;
+        long current;
+        do {
+            current = state;
+        } while( !STATE.compareAndSet( this, current, merge( current, update ) ) );
+
+        return this;
+    }
+
+    public final void reset() {
+        state = 0;
+    }
+
+    @ToString( callSuper = true )
+    @EqualsAndHashCode( callSuper = true )
+    public static final class Custom extends AtomicCounter {
+        private static final long serialVersionUID = -2993516263925434516L;
+        private final long periodMs;
+
+        public Custom( long periodMs ) {
+            this.periodMs = periodMs;
+        }
+
+        @Override
+        protected long getCurrentTick() {
+            return DateTimeUtils.currentTimeMillis() / periodMs;
+        }
+    }
+
+    @ToString( callSuper = true )
+    @EqualsAndHashCode( callSuper = true )
+    public static final class Hourly extends AtomicCounter {
+        private static final long serialVersionUID = 6109386557958311426L;
+
+        @Override
+        protected long getCurrentTick() {
+            return Counter.HourlyCounter.currentTick();
+        }
+    }
+
+    @ToString( callSuper = true )
+    @EqualsAndHashCode( callSuper = true )
+    public static final class Daily extends AtomicCounter {
+        private static final long serialVersionUID = 3520186146911347652L;
+
+        @Override
+        protected long getCurrentTick() {
+            return Counter.DailyCounter.currentTick();
+        }
+    }
+
+    @ToString( callSuper = true )
+    @EqualsAndHashCode( callSuper = true )
+    public static final class Monthly extends AtomicCounter {
+        private static final long serialVersionUID = -7237813311567916213L;
+
+        @Override
+        protected long getCurrentTick() {
+            return Counter.MonthlyCounter.currentTick();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongSupplier;
+
+import static oap.util.AtomicCounter.add;
+import static oap.util.AtomicCounter.sameTick;
+import static oap.util.AtomicCounter.valueOf;
+
+/**
+ * Millions of {@link AtomicCounter}s keyed by int id in one {@code long[]}, 8 bytes per counter and no objects.
+ * All counters share the tick source, e.g. {@code Counter.HourlyCounter::currentTick}.
+ */
+@ThreadSafe
+public class CounterArray {
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle( long[].class );
+
+    private final long[] states;
+    private final LongSupplier currentTick;
+
+    public CounterArray( int size, LongSupplier currentTick ) {
+        this.states = new long[size];
+        this.currentTick = currentTick;
+    }
+
+    public int size() {
+        return states.length;
+    }
+
+    public void inc( int id ) {
+        inc( id, 1 );
+    }
+
+    public void inc( int id, long value ) {
+        var tick = currentTick.getAsLong();
+        long current;
+        do {
+            current = ( long ) STATES.getVolatile( states, id );
+        } while( !STATES.compareAndSet( states, id, current, add( current, tick, value ) ) );
+    }
+
+    public long get( int id, long tick ) {
+        var current = ( long ) STATES.getVolatile( states, id );
+        return sameTick( current, tick ) ? valueOf( current ) : 0;
+    }
+
+    public long get( int id ) {
+        return get( id, currentTick.getAsLong() );
+    }
+
+    /**
+     * {@link Mergeable} semantics per id: the later tick wins, equal ticks are summed.
+     */
+    public CounterArray merge( CounterArray other ) {
+        var length = Math.min( states.length, other.states.length );
+        for( var id = 0; id < length; id++ ) {
+            var update = ( long ) STATES.getVolatile( other.states, id );
+            if( update == 0 ) continue;
+            long current;
+            do {
+                current = ( long ) STATES.getVolatile( states, id );
+            } while( !STATES.compareAndSet( states, id, current, AtomicCounter.merge( current, update ) ) );
+        }
+        return this;
+    }
+
+    public void reset( int id ) {
+        STATES.setVolatile( states, id, 0L );
+    }
+}
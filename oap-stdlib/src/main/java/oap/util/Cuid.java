@@ -27,6 +27,7 @@ import java.net.Inet4Address;
 import java.net.NetworkInterface;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static oap.util.Characters.HEX_CHARACTERS;
 import static oap.util.Strings.toHexString;
 
 /**
@@ -41,13 +42,29 @@ public interface Cuid {
 
     String last();
 
+    /**
+     * Appends the next id without building an intermediate string.
+     */
+    default StringBuilder next( StringBuilder sb ) {
+        return sb.append( next() );
+    }
+
     static IncrementalCuid incremental( long seed ) {
         return new IncrementalCuid( seed );
     }
 
+    /**
+     * Id is the pair ({@link #nextLong()}, {@link #node()}), formatted as the hex value followed by the hex node ip.
+     */
     class UniqueCuid implements Cuid {
+        /**
+         * max formatted length
+         */
+        public static final int LENGTH = 24;
         private static final String UNKNOWN_IP = "UUUUUUUU";
-        private static String suffix = ipSuffix();
+        private static final String suffix = ipSuffix();
+        private static final char[] suffixChars = suffix.toCharArray();
+        private static final long node = UNKNOWN_IP.equals( suffix ) ? -1 : Long.parseLong( suffix, 16 );
         private static final IncrementalUniqueValueGenerator generator = new IncrementalUniqueValueGenerator();
 
         @Override
@@ -55,17 +72,52 @@ public interface Cuid {
             return format( nextLong() );
         }
 
+        @Override
+        public StringBuilder next( StringBuilder sb ) {
+            var value = nextLong();
+            for( var i = hexLength( value ) - 1; i >= 0; i-- ) sb.append( HEX_CHARACTERS[( int ) ( value >>> ( i * 4 ) ) & 0xF] );
+            return sb.append( suffixChars );
+        }
+
+        /**
+         * Formats the next id into {@code buffer}, which needs {@link #LENGTH} chars from {@code offset}.
+         *
+         * @return number of chars written
+         */
+        public int next( char[] buffer, int offset ) {
+            return format( nextLong(), buffer, offset );
+        }
+
         public long nextLong() {
             return generator.next();
         }
 
+        /**
+         * @return node ip as an unsigned int, -1 if unknown
+         */
+        public long node() {
+            return node;
+        }
+
         @Override
         public String last() {
             return format( generator.last() );
         }
 
         private static String format( long value ) {
-            return toHexString( value ) + suffix;
+            var buffer = new char[LENGTH];
+            return new String( buffer, 0, format( value, buffer, 0 ) );
+        }
+
+        public static int format( long value, char[] buffer, int offset ) {
+            var length = hexLength( value );
+            for( int i = offset + length - 1; i >= offset; i--, value >>>= 4 ) buffer[i] = HEX_CHARACTERS[( int ) value & 0xF];
+            System.arraycopy( suffixChars, 0, buffer, offset + length, suffixChars.length );
+            return length + suffixChars.length;
+        }
+
+        private static int hexLength( long value ) {
+            return Math.max( ( Long.SIZE - Long.numberOfLeadingZeros( value ) + 3 ) / 4, 1 );
         }
 
         private static String ipSuffix() {
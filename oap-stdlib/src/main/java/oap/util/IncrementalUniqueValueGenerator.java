@@ -24,24 +24,62 @@
 
 package oap.util;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Unique values laid out as {@code millis << 19 | stripe << 16 | sequence}, 60 bits until 2039.
+ * <p>
+ * Threads are spread over 8 cache-line padded stripes. Each stripe advances its own (millis, sequence) clock with a CAS
+ * and borrows from the next millisecond once 65536 values are taken within one, so values never repeat and
+ * increase per thread, but are only roughly ordered across threads.
+ * <p>
+ * A stripe only runs ahead of the wall clock above 65536 values per millisecond. Values are unique per process:
+ * a restart while a stripe is ahead, or a clock moved back, may repeat values of the previous run.
+ */
 public class IncrementalUniqueValueGenerator {
-    private volatile long lastTime = System.currentTimeMillis();
-    private final AtomicLong value = new AtomicLong( lastTime << 16 );
+    static final int STRIPE_BITS = 3;
+    static final int SEQUENCE_BITS = 16;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final long SEQUENCE_MASK = ( 1L << SEQUENCE_BITS ) - 1;
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray clocks = new AtomicLongArray( STRIPES * PADDING );
+
+    public IncrementalUniqueValueGenerator() {
+        var now = System.currentTimeMillis() << SEQUENCE_BITS;
+        for( var i = 0; i < STRIPES; i++ ) clocks.set( i * PADDING, now );
+    }
 
     public long next() {
-        long ct = System.currentTimeMillis();
-        if( ct > lastTime ) synchronized( IncrementalUniqueValueGenerator.class ) {
-            if( ct > lastTime ) {
-                value.set( ct << 16 );
-                lastTime = ct;
-            }
-        }
-        return value.incrementAndGet();
+        var stripe = stripe();
+        var index = stripe * PADDING;
+        var now = System.currentTimeMillis() << SEQUENCE_BITS;
+
+        long last;
+        long next;
+        do {
+            last = clocks.get( index );
+            next = Math.max( now, last + 1 );
+        } while( !clocks.compareAndSet( index, last, next ) );
+
+        return value( next, stripe );
     }
 
+    /**
+     * @return last value of the calling thread's stripe
+     */
     public long last() {
-        return value.get();
+        var stripe = stripe();
+        return value( clocks.get( stripe * PADDING ), stripe );
+    }
+
+    private static long value( long clock, int stripe ) {
+        return ( clock >>> SEQUENCE_BITS ) << ( STRIPE_BITS + SEQUENCE_BITS )
+            | ( long ) stripe << SEQUENCE_BITS
+            | clock & SEQUENCE_MASK;
+    }
+
+    private static int stripe() {
+        return ( int ) ( Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> ( Long.SIZE - STRIPE_BITS ) );
     }
 }
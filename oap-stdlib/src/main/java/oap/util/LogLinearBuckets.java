@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.util;
+
+/**
+ * Log-linear bucket layout: values below {@code 2^subBits} get a bucket each, above that every power of two is split
+ * into {@code 2^(subBits-1)} linear sub-buckets, so a bucket value is within {@code 2^-subBits} of any value in it.
+ */
+public final class LogLinearBuckets {
+    public final int subBits;
+    private final int sub;
+    private final int half;
+
+    public LogLinearBuckets( int subBits ) {
+        if( subBits < 1 || subBits > 16 ) throw new IllegalArgumentException( "subBits must be between 1 and 16 " + subBits );
+        this.subBits = subBits;
+        this.sub = 1 << subBits;
+        this.half = sub >> 1;
+    }
+
+    /**
+     * @param value not negative
+     */
+    public int index( long value ) {
+        if( value < sub ) return ( int ) value;
+        var bucket = 64 - Long.numberOfLeadingZeros( value ) - subBits;
+        return bucket * half + ( int ) ( value >>> bucket );
+    }
+
+    /**
+     * @return middle of the bucket
+     */
+    public long value( int index ) {
+        if( index < sub ) return index;
+        var bucket = index / half - 1;
+        var lower = ( long ) ( index - bucket * half ) << bucket;
+        return lower + ( ( 1L << bucket ) >> 1 );
+    }
+
+    /**
+     * @return number of buckets for values up to {@code maxValue}
+     */
+    public int size( long maxValue ) {
+        return index( maxValue ) + 1;
+    }
+
+    /**
+     * @param total sum of {@code counts}
+     * @param max   largest recorded value, returned when the percentile falls into the last non-empty bucket
+     * @return bucket value of the percentile, at most {@code max}, 0 if empty
+     */
+    public long percentile( long[] counts, long total, double percentile, long max ) {
+        if( total == 0 ) return 0;
+        var target = Math.max( ( long ) Math.ceil( total * percentile / 100 ), 1 );
+        long count = 0;
+        for( var i = 0; i < counts.length; i++ ) {
+            count += counts[i];
+            if( count >= total ) return max;
+            if( count >= target ) return Math.min( value( i ), max );
+        }
+        return max;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.joda.time.DateTimeUtils;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent distribution of long values (latencies, sizes) over a sliding window of {@code windows} periods.
+ * Values go to log-linear buckets, 32 linear sub-buckets per power of two (~3% precision), kept in striped
+ * {@link AtomicLongArray}s: {@link #record(long)} is two atomic increments and never allocates.
+ * <p>
+ * A period slot is cleared one period before it becomes current. Only after an idle gap the first record clears
+ * it, and concurrent records spin until the clear is done.
+ */
+@ThreadSafe
+public class StripedHistogram {
+    private static final LogLinearBuckets BUCKETS = new LogLinearBuckets( 6 );
+
+    public final long maxValue;
+    public final long period;
+    public final int windows;
+    private final int stripes;
+    private final int size;
+    private final int stride;
+    private final Slot[] slots;
+    private final AtomicLong activeTick = new AtomicLong( Long.MIN_VALUE );
+
+    /**
+     * @param maxValue larger values are recorded as {@code maxValue}
+     * @param period   ms
+     * @param windows  number of periods in a {@link #snapshot()}, the current one included
+     */
+    public StripedHistogram( long maxValue, long period, int windows ) {
+        this( maxValue, period, windows, Math.min( 8, Integer.highestOneBit( Runtime.getRuntime().availableProcessors() ) ) );
+    }
+
+    public StripedHistogram( long maxValue, long period, int windows, int stripes ) {
+        if( Integer.bitCount( stripes ) != 1 ) throw new IllegalArgumentException( "stripes must be a power of two " + stripes );
+        this.maxValue = maxValue;
+        this.period = period;
+        this.windows = windows;
+        this.stripes = stripes;
+        this.size = BUCKETS.size( maxValue );
+        this.stride = size + 1;
+        this.slots = new Slot[windows + 2];
+        for( var i = 0; i < slots.length; i++ ) slots[i] = new Slot( stripes * stride );
+    }
+
+    public void record( long value ) {
+        if( value < 0 ) value = 0;
+        else if( value > maxValue ) value = maxValue;
+
+        var tick = DateTimeUtils.currentTimeMillis() / period;
+        if( tick != activeTick.get() ) activate( tick );
+
+        var slot = slots[slot( tick )];
+        while( slot.tick < tick && activeTick.get() == tick ) Thread.onSpinWait();
+
+        var counts = slot.counts;
+        var base = ( int ) ( mix( Thread.currentThread().getId() ) & ( stripes - 1 ) ) * stride;
+        counts.getAndIncrement( base + BUCKETS.index( value ) );
+        counts.getAndAdd( base + size, value );
+    }
+
+    private void activate( long tick ) {
+        var active = activeTick.get();
+        if( tick <= active || !activeTick.compareAndSet( active, tick ) ) return;
+
+        var current = slots[slot( tick )];
+        if( current.tick != tick ) {
+            current.clear();
+            current.tick = tick;
+        }
+        var next = slots[slot( tick + 1 )];
+        if( next.tick != tick + 1 ) {
+            next.tick = Long.MIN_VALUE;
+            next.clear();
+            next.tick = tick + 1;
+        }
+    }
+
+    private int slot( long tick ) {
+        return ( int ) Math.floorMod( tick, ( long ) slots.length );
+    }
+
+    private static long mix( long id ) {
+        return ( id * 0x9E3779B97F4A7C15L ) >>> 32;
+    }
+
+    public Snapshot snapshot() {
+        var tick = DateTimeUtils.currentTimeMillis() / period;
+        var counts = new long[size];
+        long sum = 0;
+        for( var slot : slots ) {
+            var t = slot.tick;
+            if( t > tick || t <= tick - windows ) continue;
+            for( var s = 0; s < stripes; s++ ) {
+                var base = s * stride;
+                for( var i = 0; i < size; i++ ) counts[i] += slot.counts.get( base + i );
+                sum += slot.counts.get( base + size );
+            }
+        }
+        return new Snapshot( counts, sum );
+    }
+
+    /**
+     * Registers p50/p90/p99/p999 gauges tagged with {@code quantile}, plus {@code <name>_count} and {@code <name>_sum}
+     * of the current window.
+     */
+    public StripedHistogram bindTo( MeterRegistry registry, String name, Iterable<Tag> tags ) {
+        for( var quantile : new double[] { 0.5, 0.9, 0.99, 0.999 } )
+            Gauge.builder( name, this, h -> h.snapshot().percentile( quantile * 100 ) )
+                .tags( tags )
+                .tag( "quantile", String.valueOf( quantile ) )
+                .register( registry );
+        Gauge.builder( name + "_count", this, h -> h.snapshot().count ).tags( tags ).register( registry );
+        Gauge.builder( name + "_sum", this, h -> h.snapshot().sum ).tags( tags ).register( registry );
+        return this;
+    }
+
+    private static final class Slot {
+        final AtomicLongArray counts;
+        volatile long tick = Long.MIN_VALUE;
+
+        Slot( int length ) {
+            counts = new AtomicLongArray( length );
+        }
+
+        void clear() {
+            for( var i = 0; i < counts.length(); i++ ) counts.set( i, 0 );
+        }
+    }
+
+    public static final class Snapshot {
+        public final long count;
+        public final long sum;
+        private final long[] counts;
+
+        Snapshot( long[] counts, long sum ) {
+            this.counts = counts;
+            this.sum = sum;
+            long count = 0;
+            for( var c : counts ) count += c;
+            this.count = count;
+        }
+
+        public Snapshot merge( Snapshot other ) {
+            var merged = new long[Math.max( counts.length, other.counts.length )];
+            for( var i = 0; i < counts.length; i++ ) merged[i] += counts[i];
+            for( var i = 0; i < other.counts.length; i++ ) merged[i] += other.counts[i];
+            return new Snapshot( merged, sum + other.sum );
+        }
+
+        public long percentile( double percentile ) {
+            return BUCKETS.percentile( counts, count, percentile, max() );
+        }
+
+        /**
+         * @return value of the highest non-empty bucket
+         */
+        public long max() {
+            for( var i = counts.length - 1; i >= 0; i-- ) if( counts[i] > 0 ) return BUCKETS.value( i );
+            return 0;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : ( double ) sum / count;
+        }
+    }
+}
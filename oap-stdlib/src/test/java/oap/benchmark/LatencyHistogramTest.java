@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.benchmark;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+    @Test
+    public void percentiles() {
+        var histogram = new LatencyHistogram();
+        for( var i = 1; i <= 100000; i++ ) histogram.record( i );
+
+        assertThat( histogram.total() ).isEqualTo( 100000 );
+        assertThat( histogram.max() ).isEqualTo( 100000 );
+        assertThat( histogram.percentile( 50 ) ).isCloseTo( 50000L, within( 50000L / 64 ) );
+        assertThat( histogram.percentile( 99 ) ).isCloseTo( 99000L, within( 99000L / 64 ) );
+        assertThat( histogram.percentile( 100 ) ).isEqualTo( 100000 );
+    }
+
+    @Test
+    public void add() {
+        var a = new LatencyHistogram();
+        var b = new LatencyHistogram();
+        a.record( 10 );
+        b.record( 1000 );
+        a.add( b );
+
+        assertThat( a.total() ).isEqualTo( 2 );
+        assertThat( a.max() ).isEqualTo( 1000 );
+        assertThat( a.percentile( 50 ) ).isEqualTo( 10 );
+    }
+}
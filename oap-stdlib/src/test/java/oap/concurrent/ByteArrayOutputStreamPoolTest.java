@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.concurrent;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ByteArrayOutputStreamPoolTest {
+    @Test
+    public void reuse() {
+        ByteArrayOutputStream out;
+        try( var pooled = ByteArrayOutputStreamPool.borrowObject() ) {
+            out = pooled.getObject();
+            out.writeBytes( new byte[1024] );
+        }
+        try( var pooled = ByteArrayOutputStreamPool.borrowObject() ) {
+            assertThat( pooled.getObject() ).isSameAs( out );
+            assertThat( pooled.getObject().size() ).isZero();
+        }
+    }
+
+    @Test
+    public void oversized() {
+        ByteArrayOutputStream huge;
+        try( var pooled = ByteArrayOutputStreamPool.borrowObject() ) {
+            huge = pooled.getObject();
+            huge.writeBytes( new byte[2 * 1024 * 1024] );
+            huge.reset();
+        }
+        try( var pooled = ByteArrayOutputStreamPool.borrowObject() ) {
+            assertThat( pooled.getObject() ).isNotSameAs( huge );
+        }
+    }
+}
@@ -26,6 +26,7 @@ package oap.concurrent;
 
 import org.testng.annotations.Test;
 
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,6 +42,37 @@ public class LimitedTimeExecutorTest {
         } );
     }
 
+    @Test
+    public void executeAsync() {
+        var timeout = new AtomicInteger();
+        var executor = new LimitedTimeExecutor( 100, TimeUnit.MILLISECONDS, true )
+            .onTimeout( l -> timeout.incrementAndGet() );
+
+        var fast = executor.executeAsync( () -> "ok" );
+        var slow = executor.executeAsync( () -> {
+            Threads.sleepSafely( 500 );
+            return "late";
+        } );
+
+        assertThat( fast.join() ).contains( "ok" );
+        assertThat( slow.join() ).isEqualTo( Optional.empty() );
+        assertThat( timeout.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void virtualThreadFactory() throws InterruptedException {
+        var thread = Executors.threadFactory( "test", true ).newThread( () -> {} );
+        assertThat( thread.getName() ).startsWith( "test-" );
+        if( !Executors.VIRTUAL_THREADS_SUPPORTED ) assertThat( thread.isDaemon() ).isTrue();
+
+        var ran = new AtomicInteger();
+        var executor = Executors.newVirtualThreadPerTaskExecutor( "test" );
+        for( var i = 0; i < 100; i++ ) executor.execute( ran::incrementAndGet );
+        executor.shutdown();
+        assertThat( executor.awaitTermination( 10, TimeUnit.SECONDS ) ).isTrue();
+        assertThat( ran.get() ).isEqualTo( 100 );
+    }
+
     private void assertExecution( int expectedSuccess, int expectedTimeout, int expectedError, Runnable code ) {
         AtomicInteger success = new AtomicInteger();
         AtomicInteger timeout = new AtomicInteger();
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.concurrent;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MpscCircularBufferTest {
+    @Test
+    public void cycle() {
+        var buffer = new MpscCircularBuffer<>( Integer.class, 3 );
+        buffer.add( 1 );
+        buffer.add( 2 );
+        assertThat( buffer.getElements() ).containsExactly( 1, 2 );
+        buffer.add( 3 );
+        buffer.add( 4 );
+        assertThat( buffer.getElements() ).containsExactly( 2, 3, 4 );
+    }
+
+    @Test
+    public void drain() {
+        var buffer = new MpscCircularBuffer<>( Integer.class, 4 );
+        for( var i = 0; i < 3; i++ ) buffer.add( i );
+
+        var drained = new ArrayList<Integer>();
+        assertThat( buffer.drainTo( drained::add, 2 ) ).isEqualTo( 2 );
+        assertThat( buffer.drainTo( drained ) ).isEqualTo( 1 );
+        assertThat( drained ).containsExactly( 0, 1, 2 );
+
+        for( var i = 3; i < 13; i++ ) buffer.add( i );
+        drained.clear();
+        buffer.drainTo( drained );
+        assertThat( drained ).containsExactly( 9, 10, 11, 12 );
+        assertThat( buffer.dropped() ).isEqualTo( 6 );
+    }
+
+    @Test
+    public void concurrent() throws InterruptedException {
+        var buffer = new MpscCircularBuffer<>( Integer.class, 1 << 20 );
+        var drained = new HashSet<Integer>();
+
+        var threads = new ArrayList<Thread>();
+        for( var t = 0; t < 8; t++ ) {
+            var from = t * 10000;
+            var thread = new Thread( () -> {
+                for( var i = from; i < from + 10000; i++ ) buffer.add( i );
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+        while( threads.stream().anyMatch( Thread::isAlive ) ) buffer.drainTo( drained::add, 1000 );
+        for( var thread : threads ) thread.join();
+        buffer.drainTo( drained );
+
+        assertThat( drained ).hasSize( 80000 );
+        assertThat( buffer.getElements() ).hasSize( 80000 );
+        assertThat( buffer.dropped() ).isZero();
+    }
+}
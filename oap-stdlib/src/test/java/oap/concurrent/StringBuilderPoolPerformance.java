@@ -28,33 +28,29 @@ import oap.benchmark.Benchmark;
 import org.testng.annotations.Test;
 
 public class StringBuilderPoolPerformance {
-    private static final int THREADS = 64;
-    private static final int SAMPLES = 100;
-    private static final int ITERATIONS = 100;
+    private static final int SAMPLES = 100_000;
 
     @Test
-    public void test() {
-        var threads = new Thread[THREADS];
+    public void contention() {
+        for( var threads : new int[] { 1, 8, 64 } ) {
+            Benchmark.benchmark( "StringBuilderPool-" + threads, SAMPLES, () -> {
+                try( var sbp = StringBuilderPool.borrowObject() ) {
+                    sbp.getObject().append( "test" );
+                }
+            } ).inThreads( threads ).experiments( 5 ).run();
 
-        Benchmark.benchmark( "FastObjectPool", SAMPLES, () -> {
-            for( var i1 = 0; i1 < THREADS; i1++ ) {
-                threads[i1] = new Thread( () -> {
-                    for( var i = 0; i < ITERATIONS; i++ ) {
-                        try( var sbp1 = StringBuilderPool.borrowObject() ) {
-                            sbp1.getObject().append( "test" );
-                        }
-                    }
-                } );
-            }
-            for( var i1 = 0; i1 < THREADS; i1++ ) {
-                threads[i1].start();
-            }
-            for( var i1 = 0; i1 < THREADS; i1++ ) {
-                threads[i1].join();
-            }
-        } ).experiments( 5 ).run();
+            Benchmark.benchmark( "StringBuilderPool-nested-" + threads, SAMPLES, () -> {
+                try( var outer = StringBuilderPool.borrowObject(); var inner = StringBuilderPool.borrowObject() ) {
+                    outer.getObject().append( inner.getObject().append( "test" ) );
+                }
+            } ).inThreads( threads ).experiments( 5 ).run();
+
+            Benchmark.benchmark( "new-StringBuilder-" + threads, SAMPLES, () -> {
+                var sb = new StringBuilder();
+                sb.append( "test" );
+            } ).inThreads( threads ).experiments( 5 ).run();
+        }
 
         System.out.println( StringBuilderPool.getSize() );
     }
-
 }
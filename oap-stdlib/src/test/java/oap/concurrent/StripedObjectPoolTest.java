@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.concurrent;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedObjectPoolTest {
+    @Test
+    public void reuse() {
+        var pool = new StripedObjectPool<>( "test", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity, 1024 );
+
+        StringBuilder first;
+        try( var pooled = pool.borrowObject() ) {
+            first = pooled.getObject().append( "test" );
+        }
+        try( var pooled = pool.borrowObject() ) {
+            assertThat( pooled.getObject() ).isSameAs( first );
+            assertThat( pooled.getObject().length() ).isZero();
+        }
+
+        assertThat( pool.misses() ).isEqualTo( 1 );
+        assertThat( pool.hits() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void localCapacity() {
+        var pool = new StripedObjectPool<>( "test", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity, 1024, 64, 4 );
+
+        try( var pooled = pool.borrowObject() ) {
+            pooled.getObject().append( "x".repeat( 512 ) );
+        }
+        assertThat( pool.getSize() ).isEqualTo( 1 );
+
+        try( var pooled = pool.borrowObject() ) {
+            assertThat( pooled.getObject().capacity() ).isGreaterThanOrEqualTo( 512 );
+        }
+        assertThat( pool.getSize() ).isEqualTo( 1 );
+        assertThat( pool.hits() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void virtualThreads() throws InterruptedException {
+        var pool = new StripedObjectPool<>( "test", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity, 1024 );
+
+        var thread = Executors.virtualThreadFactory( "pool" ).newThread( () -> pool.borrowObject().close() );
+        thread.start();
+        thread.join();
+
+        assertThat( pool.getSize() ).isEqualTo( Executors.VIRTUAL_THREADS_SUPPORTED ? 1 : 0 );
+    }
+
+    @Test
+    public void nested() {
+        var pool = new StripedObjectPool<>( "test", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity, 1024 );
+
+        try( var outer = pool.borrowObject(); var inner = pool.borrowObject() ) {
+            assertThat( outer.getObject() ).isNotSameAs( inner.getObject() );
+        }
+        assertThat( pool.getSize() ).isEqualTo( 1 );
+
+        try( var outer = pool.borrowObject(); var inner = pool.borrowObject() ) {
+            assertThat( outer.getObject() ).isNotSameAs( inner.getObject() );
+        }
+        assertThat( pool.hits() ).isEqualTo( 2 );
+    }
+
+    @Test
+    public void oversized() {
+        var pool = new StripedObjectPool<>( "test", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity, 1024 );
+
+        StringBuilder huge;
+        try( var pooled = pool.borrowObject() ) {
+            huge = pooled.getObject().append( "x".repeat( 4096 ) );
+        }
+        try( var pooled = pool.borrowObject() ) {
+            assertThat( pooled.getObject() ).isNotSameAs( huge );
+        }
+
+        assertThat( pool.oversized() ).isEqualTo( 1 );
+        assertThat( pool.misses() ).isEqualTo( 2 );
+    }
+
+    @Test
+    public void doubleClose() {
+        var pool = new StripedObjectPool<>( "test", StringBuilder::new, sb -> sb.setLength( 0 ), StringBuilder::capacity, 1024 );
+
+        var pooled = pool.borrowObject();
+        pooled.close();
+        pooled.close();
+
+        try( var a = pool.borrowObject(); var b = pool.borrowObject() ) {
+            assertThat( a.getObject() ).isNotSameAs( b.getObject() );
+        }
+    }
+}
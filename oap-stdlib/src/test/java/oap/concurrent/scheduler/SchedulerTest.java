@@ -38,6 +38,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static oap.testng.Asserts.assertEventually;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertTrue;
 
 @Slf4j
@@ -118,4 +119,23 @@ public class SchedulerTest {
         scheduled.cancel();
     }
 
+    @Test
+    public void cron() {
+        var counter = new AtomicInteger();
+        try( Scheduled ignored = Scheduler.scheduleCron( "* * * * * ?", counter::incrementAndGet ) ) {
+            assertEventually( 100, 30, () -> assertThat( counter.get() ).isGreaterThanOrEqualTo( 2 ) );
+        }
+
+        assertThatThrownBy( () -> Scheduler.scheduleCron( "invalid", counter::incrementAndGet ) )
+            .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    public void jobKeys() {
+        var scheduled = Scheduler.scheduleWithFixedDelay( SchedulerTest.class, 50, SECONDS, last -> {} );
+        assertThat( Scheduler.getAllJobKeys() ).anyMatch( key -> key.startsWith( SchedulerTest.class.getName() + "/" ) );
+
+        scheduled.cancel();
+        assertThat( Scheduler.getAllJobKeys() ).noneMatch( key -> key.startsWith( SchedulerTest.class.getName() + "/" ) );
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import oap.io.IoStreams;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static oap.io.IoStreams.Encoding.GZIP;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClasspathResourceHandlerTest {
+    private final ClasspathResourceHandler handler = new ClasspathResourceHandler( "/static", "/oap/http/ClasspathResourceHandlerTest" );
+
+    private BasicHttpResponse handle( BasicHttpRequest request ) throws IOException {
+        var response = new BasicHttpResponse( HttpVersion.HTTP_1_1, HTTP_OK, "OK" );
+        handler.handle( request, response, new BasicHttpContext() );
+        return response;
+    }
+
+    @Test
+    public void gzipAndEtag() throws IOException {
+        var plain = handle( new BasicHttpRequest( "GET", "/static/test.js" ) );
+        assertThat( plain.getStatusLine().getStatusCode() ).isEqualTo( HTTP_OK );
+        assertThat( plain.getEntity().getContentEncoding() ).isNull();
+        var content = EntityUtils.toString( plain.getEntity() );
+        assertThat( content ).startsWith( "var a0 = " );
+        var etag = plain.getFirstHeader( "ETag" ).getValue();
+
+        var gzipRequest = new BasicHttpRequest( "GET", "/static/test.js" );
+        gzipRequest.addHeader( "Accept-Encoding", "gzip, deflate" );
+        var gzipped = handle( gzipRequest );
+        assertThat( gzipped.getEntity().getContentEncoding().getValue() ).isEqualTo( "gzip" );
+        assertThat( IoStreams.asString( gzipped.getEntity().getContent(), GZIP ) ).isEqualTo( content );
+        assertThat( gzipped.getFirstHeader( "ETag" ).getValue() ).isEqualTo( etag );
+
+        var conditional = new BasicHttpRequest( "GET", "/static/test.js" );
+        conditional.addHeader( "If-None-Match", etag );
+        var notModified = handle( conditional );
+        assertThat( notModified.getStatusLine().getStatusCode() ).isEqualTo( HTTP_NOT_MODIFIED );
+        assertThat( notModified.getEntity() ).isNull();
+    }
+
+    @Test
+    public void notFound() throws IOException {
+        assertThat( handle( new BasicHttpRequest( "GET", "/static/unknown.js" ) ).getStatusLine().getStatusCode() )
+            .isEqualTo( HTTP_NOT_FOUND );
+    }
+}
@@ -24,6 +24,8 @@
 
 package oap.http;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import oap.testng.Fixtures;
 import oap.testng.TestDirectoryFixture;
@@ -37,12 +39,17 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.net.HttpURLConnection.HTTP_OK;
 import static oap.testng.Asserts.assertFile;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Slf4j
 public class ClientTest extends Fixtures {
@@ -136,4 +143,54 @@ public class ClientTest extends Fixtures {
             assertThat( response.contentString() ).isEqualTo( "ok" );
         }
     }
+
+    @Test
+    public void getAsync() {
+        mockServer.when( HttpRequest.request()
+                .withMethod( "GET" )
+                .withPath( "/test" ),
+            Times.once()
+        ).respond( HttpResponse.response().withStatusCode( HTTP_OK ).withBody( "ok" ) );
+
+        try( var client = Client.custom().withMetrics( "test" ).build() ) {
+            var future = client.getAsync( "http://localhost:" + port + "/test" );
+
+            assertThat( future.join().contentString() ).isEqualTo( "ok" );
+            assertThat( client.poolStats().getMax() ).isEqualTo( 10000 );
+            assertThat( client.poolStats( URI.create( "http://localhost:" + port ) ).getMax() ).isEqualTo( 1000 );
+        }
+    }
+
+    @Test
+    public void getAsyncTimeout() {
+        mockServer.when( HttpRequest.request()
+                .withMethod( "GET" )
+                .withPath( "/slow" ),
+            Times.once()
+        ).respond( HttpResponse.response().withStatusCode( HTTP_OK ).withBody( "ok" ).withDelay( TimeUnit.SECONDS, 2 ) );
+
+        try( var client = Client.custom( null, null, 1000, 200 ).build() ) {
+            assertThatThrownBy( () -> client.getAsync( "http://localhost:" + port + "/slow" ).join() )
+                .isInstanceOf( CompletionException.class )
+                .hasCauseInstanceOf( TimeoutException.class );
+        }
+    }
+
+    @Test
+    public void routeMetricsLimit() {
+        mockServer.when( HttpRequest.request().withMethod( "GET" ) )
+            .respond( HttpResponse.response().withStatusCode( HTTP_OK ).withBody( "ok" ) );
+
+        var registry = new SimpleMeterRegistry();
+        Metrics.addRegistry( registry );
+        try( var client = Client.custom().withMetrics( "routes" ).withRouteMetrics( 1 ).build() ) {
+            client.getAsync( "http://localhost:" + port + "/test" ).join();
+            client.getAsync( "http://127.0.0.1:" + port + "/test" ).join();
+
+            assertThat( registry.find( "oap_http_client_pool_route" ).tag( "client", "routes" ).tag( "state", "leased" ).gauges() )
+                .hasSize( 1 );
+        } finally {
+            Metrics.removeRegistry( registry );
+        }
+    }
 }
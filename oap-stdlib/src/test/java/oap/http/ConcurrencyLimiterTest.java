@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.http;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimiterTest {
+    private static ConcurrencyLimiter.Options options( ConcurrencyLimiter.Algorithm algorithm ) {
+        var options = new ConcurrencyLimiter.Options();
+        options.algorithm = algorithm;
+        options.initialLimit = 10;
+        options.window = 0;
+        options.minSamples = 1;
+        return options;
+    }
+
+    private static void complete( ConcurrencyLimiter limiter, int requests, long latencyMs ) {
+        for( var i = 0; i < requests; i++ ) {
+            assertThat( limiter.tryAcquire() ).isTrue();
+        }
+        for( var i = 0; i < requests; i++ ) {
+            limiter.release( System.nanoTime() - TimeUnit.MILLISECONDS.toNanos( latencyMs ) );
+        }
+    }
+
+    @Test
+    public void reject() {
+        var limiter = new ConcurrencyLimiter( "/reject", options( ConcurrencyLimiter.Algorithm.AIMD ) );
+
+        for( var i = 0; i < 10; i++ ) assertThat( limiter.tryAcquire() ).isTrue();
+        assertThat( limiter.tryAcquire() ).isFalse();
+        assertThat( limiter.getInflight() ).isEqualTo( 10 );
+
+        limiter.release( System.nanoTime() );
+        assertThat( limiter.tryAcquire() ).isTrue();
+    }
+
+    @Test
+    public void aimd() {
+        var limiter = new ConcurrencyLimiter( "/aimd", options( ConcurrencyLimiter.Algorithm.AIMD ) );
+
+        complete( limiter, 10, 500 );
+        assertThat( limiter.getLimit() ).isLessThan( 10 );
+
+        var decreased = limiter.getLimit();
+        for( var i = 0; i < 10; i++ ) complete( limiter, limiter.getLimit(), 1 );
+        assertThat( limiter.getLimit() ).isGreaterThan( decreased );
+    }
+
+    @Test
+    public void gradient() {
+        var limiter = new ConcurrencyLimiter( "/gradient", options( ConcurrencyLimiter.Algorithm.GRADIENT ) );
+
+        for( var i = 0; i < 10; i++ ) complete( limiter, limiter.getLimit(), 10 );
+        var steady = limiter.getLimit();
+        assertThat( steady ).isGreaterThanOrEqualTo( 10 );
+
+        for( var i = 0; i < 10; i++ ) complete( limiter, limiter.getLimit(), 100 );
+        assertThat( limiter.getLimit() ).isLessThan( steady );
+    }
+}
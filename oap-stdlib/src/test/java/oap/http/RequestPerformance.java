@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import com.google.common.collect.ArrayListMultimap;
+import oap.util.Strings;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.BasicHttpContext;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static oap.benchmark.Benchmark.benchmark;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestPerformance {
+    public static final int SAMPLES = 1000000;
+    private static final String URI = "/ad/show?pid=123&cid=a%20b&w=300&h=250&ua=Mozilla%2F5.0+(X11%3B+Linux+x86_64)"
+        + "&ref=https%3A%2F%2Fexample.com%2Fpage%3Fq%3D1&lang=en&tz=UTC&cb=1234567890&gdpr=1&consent=CO1abcdefgh";
+
+    private static BasicHttpRequest underlying() {
+        var underlying = new BasicHttpRequest( "GET", URI );
+        underlying.addHeader( "Host", "ads.example.com" );
+        underlying.addHeader( "User-Agent", "Mozilla/5.0 (X11; Linux x86_64)" );
+        underlying.addHeader( "Accept-Encoding", "gzip, deflate" );
+        underlying.addHeader( "Accept-Language", "en-US,en;q=0.9" );
+        underlying.addHeader( "Cookie", "uid=0123456789abcdef; session=s1; prefs=dark" );
+        return underlying;
+    }
+
+    @Test
+    public void parameters() throws UnknownHostException {
+        var context = new Context( "/ad", InetAddress.getLocalHost(), new ServerHttpContext( new BasicHttpContext(), Protocol.HTTP, null ) );
+        var underlying = underlying();
+
+        assertThat( new Request( underlying, context ).parameter( "cid" ) ).contains( "a b" );
+
+        benchmark( "eager-multimap", SAMPLES, () -> {
+            var params = ArrayListMultimap.<String, String>create();
+            Url.parseQuery( Strings.substringAfter( URI, "?" ), params );
+            var request = new Request( underlying, context );
+            request.getHeaders();
+            request.getCookies();
+            params.get( "pid" );
+            params.get( "cid" );
+            request.getCookies().get( "uid" );
+        } ).run();
+
+        benchmark( "lazy-scan", SAMPLES, () -> {
+            var request = new Request( underlying, context );
+            request.parameter( "pid" );
+            request.parameter( "cid" );
+            request.cookie( "uid" );
+        } ).run();
+    }
+}
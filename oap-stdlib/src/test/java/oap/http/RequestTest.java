@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.BasicHttpContext;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.apache.http.entity.ContentType.APPLICATION_FORM_URLENCODED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestTest {
+    private static Request request( org.apache.http.HttpRequest underlying ) throws UnknownHostException {
+        return new Request( underlying, new Context( "/test",
+            InetAddress.getLocalHost(), new ServerHttpContext( new BasicHttpContext(), Protocol.HTTP, null ) ) );
+    }
+
+    @Test
+    public void parameters() throws UnknownHostException {
+        var request = request( new BasicHttpRequest( "GET", "/test/path?a=1&b=2&b=x%20y" ) );
+
+        assertThat( request.parameter( "a" ) ).contains( "1" );
+        assertThat( request.parameter( "c" ) ).isEmpty();
+        assertThat( request.parameterOrDefault( "c", "d" ) ).isEqualTo( "d" );
+        assertThat( request.parameters( "b" ) ).containsExactly( "2", "x y" );
+        assertThat( request.getRequestLine() ).isEqualTo( "/path" );
+    }
+
+    @Test
+    public void formParameters() throws UnknownHostException {
+        var underlying = new BasicHttpEntityEnclosingRequest( "POST", "/test?a=1" );
+        underlying.addHeader( "Content-Type", APPLICATION_FORM_URLENCODED.getMimeType() );
+        underlying.setEntity( new StringEntity( "b=2&b=3", APPLICATION_FORM_URLENCODED ) );
+        var request = request( underlying );
+
+        assertThat( request.parameter( "a" ) ).contains( "1" );
+        assertThat( request.parameters( "b" ) ).containsExactly( "2", "3" );
+    }
+
+    @Test
+    public void headers() throws UnknownHostException {
+        var underlying = new BasicHttpRequest( "GET", "/test" );
+        underlying.addHeader( "User-Agent", "ua" );
+        underlying.addHeader( "X-Forwarded-For", "1.1.1.1" );
+        underlying.addHeader( "X-Multi", "1" );
+        underlying.addHeader( "x-multi", "2" );
+        var request = request( underlying );
+
+        assertThat( request.ua ).isEqualTo( "ua" );
+        assertThat( request.ip ).isEqualTo( "1.1.1.1" );
+        assertThat( request.referrer ).isNull();
+        assertThat( request.header( "user-agent" ) ).contains( "ua" );
+        assertThat( request.headers( "X-MULTI" ) ).containsExactly( "1", "2" );
+        assertThat( request.headers( "unknown" ) ).isEmpty();
+    }
+
+    @Test
+    public void cookies() throws UnknownHostException {
+        var underlying = new BasicHttpRequest( "GET", "/test" );
+        underlying.addHeader( "Cookie", "a=1; bb=2 ;c; dd=" );
+        var request = request( underlying );
+
+        assertThat( request.cookie( "a" ) ).contains( "1" );
+        assertThat( request.cookie( "bb" ) ).contains( "2" );
+        assertThat( request.cookie( "b" ) ).isEmpty();
+        assertThat( request.cookie( "c" ) ).isEmpty();
+        assertThat( request.cookie( "dd" ) ).contains( "" );
+        assertThat( request.getCookies() ).containsEntry( "a", "1" ).containsEntry( "bb", "2" );
+    }
+
+    @Test
+    public void duplicateCookies() throws UnknownHostException {
+        var underlying = new BasicHttpRequest( "GET", "/test" );
+        underlying.addHeader( "Cookie", "a=1; b=2; a=3" );
+
+        assertThat( request( underlying ).cookie( "a" ) ).contains( "3" );
+        assertThat( request( underlying ).getCookies() ).containsEntry( "a", "3" );
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import oap.concurrent.SynchronizedThread;
+import oap.http.cors.GenericCorsPolicy;
+import oap.testng.Env;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static oap.http.ContentTypes.TEXT_PLAIN;
+import static oap.testng.Asserts.assertEventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerTest {
+    private int port;
+    private Server server;
+    private SynchronizedThread thread;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        port = Env.port( getClass().getName() );
+        server = new Server( 1024, false );
+        server.start();
+        PlainHttpListener listener = new PlainHttpListener( server, port );
+        thread = new SynchronizedThread( listener, 5000 );
+        listener.readyListener( thread );
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        thread.stop();
+        server.stop();
+    }
+
+    @Test
+    public void concurrencyLimit() throws Exception {
+        server.concurrencyLimit = fixedLimit( 2 );
+        var entered = new CountDownLatch( 2 );
+        var release = new CountDownLatch( 1 );
+        var failures = new AtomicInteger();
+        server.bind( "test", GenericCorsPolicy.DEFAULT, slow( entered, release, failures ), Protocol.HTTP );
+        thread.start();
+
+        var url = "http://localhost:" + port + "/test";
+        var slow = List.of( Client.DEFAULT.getAsync( url ), Client.DEFAULT.getAsync( url ) );
+        await( entered );
+
+        var rejected = Client.DEFAULT.get( url );
+        assertThat( rejected.code ).isEqualTo( HTTP_UNAVAILABLE );
+        assertThat( rejected.header( "Retry-After" ) ).contains( "1" );
+        assertThat( server.limiter( "test" ).getInflight() ).isEqualTo( 2 );
+
+        release.countDown();
+        for( var response : slow ) assertThat( response.get( 10, TimeUnit.SECONDS ).code ).isEqualTo( HTTP_OK );
+        assertEventually( 10, 500, () -> assertThat( server.limiter( "test" ).getInflight() ).isZero() );
+
+        try {
+            Client.DEFAULT.get( url + "?fail=true" );
+        } catch( Exception ignored ) {
+        }
+        assertThat( failures.get() ).isPositive();
+        assertEventually( 10, 500, () -> assertThat( server.limiter( "test" ).getInflight() ).isZero() );
+    }
+
+    @Test
+    public void concurrencyLimitRebind() {
+        var registry = new SimpleMeterRegistry();
+        Metrics.addRegistry( registry );
+        try {
+            Handler handler = ( request, response ) -> response.respond( HttpResponse.ok( "ok", true, TEXT_PLAIN ).response() );
+            server.concurrencyLimit = fixedLimit( 2 );
+            server.bind( "test", GenericCorsPolicy.DEFAULT, handler, Protocol.HTTP );
+            assertThat( registry.find( "oap_http_limit" ).tag( "context", "/test" ).gauge().value() ).isEqualTo( 2 );
+
+            server.unbind( "test" );
+            assertThat( registry.find( "oap_http_limit" ).tag( "context", "/test" ).gauge() ).isNull();
+
+            server.concurrencyLimit = fixedLimit( 3 );
+            server.bind( "test", GenericCorsPolicy.DEFAULT, handler, Protocol.HTTP );
+            assertThat( registry.find( "oap_http_limit" ).tag( "context", "/test" ).gauge().value() ).isEqualTo( 3 );
+
+            server.concurrencyLimit = fixedLimit( 4 );
+            server.bind( "test", GenericCorsPolicy.DEFAULT, handler, Protocol.HTTP );
+            assertThat( registry.find( "oap_http_limit" ).tag( "context", "/test" ).gauge().value() ).isEqualTo( 4 );
+            assertThat( registry.find( "oap_http_inflight" ).tag( "context", "/test" ).gauges() ).hasSize( 1 );
+        } finally {
+            Metrics.removeRegistry( registry );
+        }
+    }
+
+    static ConcurrencyLimiter.Options fixedLimit( int limit ) {
+        var options = new ConcurrencyLimiter.Options();
+        options.initialLimit = limit;
+        options.minLimit = limit;
+        options.maxLimit = limit;
+        return options;
+    }
+
+    /**
+     * waits for {@code release}, throws if the request has a fail parameter
+     */
+    static Handler slow( CountDownLatch entered, CountDownLatch release, AtomicInteger failures ) {
+        return ( request, response ) -> {
+            if( request.parameter( "fail" ).isPresent() ) {
+                failures.incrementAndGet();
+                throw new IllegalStateException( "fail" );
+            }
+            entered.countDown();
+            await( release );
+            response.respond( HttpResponse.ok( "ok", true, TEXT_PLAIN ).response() );
+        };
+    }
+
+    @SneakyThrows
+    static void await( CountDownLatch latch ) {
+        assertThat( latch.await( 10, TimeUnit.SECONDS ) ).isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import oap.http.cors.GenericCorsPolicy;
+import oap.io.Closeables;
+import oap.testng.Env;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.benchmark.Benchmark.benchmark;
+import static oap.http.ContentTypes.TEXT_PLAIN;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 10k keep-alive clients served by a small worker pool.
+ * The same setup requires 10k workers with {@link Server}.
+ * <p>
+ * The limit of open files has to be raised ({@code ulimit -n}) to run it.
+ */
+public class UndertowServerPerformance {
+    private static final int CLIENTS = 10_000;
+    private static final int WORKERS = 64;
+    private static final int THREADS = 100;
+    private static final byte[] REQUEST = ( "GET /test HTTP/1.1\r\nHost: localhost\r\nConnection: keep-alive\r\n\r\n" ).getBytes( UTF_8 );
+
+    private static String roundtrip( Connection connection ) throws IOException {
+        connection.out.write( REQUEST );
+        connection.out.flush();
+
+        var contentLength = -1;
+        String line;
+        String status = null;
+        while( !( line = readLine( connection.in ) ).isEmpty() ) {
+            if( status == null ) status = line;
+            else if( line.toLowerCase().startsWith( "content-length:" ) )
+                contentLength = Integer.parseInt( line.substring( "content-length:".length() ).trim() );
+        }
+        assertThat( contentLength ).isGreaterThanOrEqualTo( 0 );
+        assertThat( connection.in.readNBytes( contentLength ) ).hasSize( contentLength );
+
+        return status;
+    }
+
+    private static String readLine( InputStream in ) throws IOException {
+        var sb = new StringBuilder();
+        int c;
+        while( ( c = in.read() ) != '\n' ) {
+            if( c < 0 ) throw new IOException( "connection closed" );
+            if( c != '\r' ) sb.append( ( char ) c );
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void keepAliveClients() throws IOException {
+        var port = Env.port( getClass().getName() );
+        var server = new UndertowServer( port, WORKERS, false );
+        server.keepAliveTimeout = 1000 * 60 * 5;
+        server.start();
+        var handled = new AtomicInteger();
+        server.bind( "test", GenericCorsPolicy.DEFAULT, ( request, response ) -> {
+            handled.incrementAndGet();
+            response.respond( HttpResponse.ok( "ok", true, TEXT_PLAIN ).response() );
+        }, Protocol.HTTP );
+
+        var connections = new Connection[CLIENTS];
+        try {
+            for( var i = 0; i < CLIENTS; i++ ) connections[i] = new Connection( port );
+
+            benchmark( "keep-alive-clients-" + CLIENTS, CLIENTS,
+                i -> assertThat( roundtrip( connections[i] ) ).isEqualTo( "HTTP/1.1 200 OK" ) )
+                .inThreads( THREADS, 0 )
+                .experiments( 5 )
+                .run();
+
+            assertThat( handled.get() ).isEqualTo( CLIENTS * 5 );
+            for( var connection : connections ) assertThat( connection.socket.isClosed() ).isFalse();
+        } finally {
+            for( var connection : connections ) Closeables.close( connection );
+            server.stop();
+        }
+    }
+
+    private static class Connection implements Closeable {
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+
+        Connection( int port ) throws IOException {
+            socket = new Socket();
+            socket.connect( new InetSocketAddress( "localhost", port ) );
+            in = new BufferedInputStream( socket.getInputStream() );
+            out = socket.getOutputStream();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http;
+
+import oap.http.cors.GenericCorsPolicy;
+import oap.io.Files;
+import oap.io.IoStreams;
+import oap.testng.Env;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static oap.http.ContentTypes.TEXT_PLAIN;
+import static oap.io.IoStreams.Encoding.GZIP;
+import static oap.testng.Asserts.assertEventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UndertowServerTest {
+    private int port;
+    private UndertowServer server;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        port = Env.port( getClass().getName() );
+        server = new UndertowServer( port, 16, false );
+        server.start();
+    }
+
+    @AfterMethod
+    public void afterMethod() {
+        server.stop();
+    }
+
+    @Test
+    public void get() {
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.ok(
+                request.getRequestLine() + ":" + request.parameter( "a" ).orElse( "" ), true, TEXT_PLAIN ).response() ),
+            Protocol.HTTP );
+
+        var response = Client.DEFAULT.get( "http://localhost:" + port + "/test/path?a=1" );
+
+        assertThat( response.code ).isEqualTo( HTTP_OK );
+        assertThat( response.contentType.toString() ).isEqualTo( TEXT_PLAIN.toString() );
+        assertThat( response.contentString() ).isEqualTo( "/path:1" );
+    }
+
+    @Test
+    public void post() {
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.ok(
+                new String( request.readBody().orElseThrow() ), true, TEXT_PLAIN ).response() ),
+            Protocol.HTTP );
+
+        var response = Client.DEFAULT.post( "http://localhost:" + port + "/test", "body", TEXT_PLAIN );
+
+        assertThat( response.code ).isEqualTo( HTTP_OK );
+        assertThat( response.contentString() ).isEqualTo( "body" );
+    }
+
+    @Test
+    public void gzipOutput() {
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.ok( "test", true, TEXT_PLAIN ).response() ), Protocol.HTTP );
+
+        var responseGzip = Client.DEFAULT.get( "http://localhost:" + port + "/test",
+            Map.of(), Map.of( "Accept-encoding", "gzip" ) );
+
+        assertThat( responseGzip.code ).isEqualTo( HTTP_OK );
+        assertThat( IoStreams.asString( responseGzip.getInputStream(), GZIP ) ).isEqualTo( "test" );
+    }
+
+    @Test
+    public void file() {
+        var path = Env.tmpPath( "file.txt" );
+        Files.writeString( path, "file content" );
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.file( path, TEXT_PLAIN ).response() ), Protocol.HTTP );
+
+        var response = Client.DEFAULT.get( "http://localhost:" + port + "/test" );
+
+        assertThat( response.code ).isEqualTo( HTTP_OK );
+        assertThat( response.contentString() ).isEqualTo( "file content" );
+    }
+
+    @Test
+    public void missingFile() {
+        var path = Env.tmpPath( "missing.txt" );
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.file( path, TEXT_PLAIN ).response() ), Protocol.HTTP );
+
+        assertThat( Client.DEFAULT.get( "http://localhost:" + port + "/test" ).code ).isEqualTo( HTTP_NOT_FOUND );
+    }
+
+    @Test
+    public void localOnly() {
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.ok( "test", true, TEXT_PLAIN ).response() ), Protocol.LOCAL );
+
+        assertThat( Client.DEFAULT.get( "http://localhost:" + port + "/test" ).code ).isEqualTo( HTTP_OK );
+    }
+
+    @Test
+    public void localProtocol() {
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.ok( request.context.protocol.name(), true, TEXT_PLAIN ).response() ),
+            Protocol.HTTP );
+
+        assertThat( Client.DEFAULT.get( "http://localhost:" + port + "/test" ).contentString() ).isEqualTo( "LOCAL" );
+        assertThat( Client.DEFAULT.get( "http://localhost:" + port + "/test" ).contentString() ).isEqualTo( "LOCAL" );
+    }
+
+    @Test
+    public void concurrencyLimit() throws Exception {
+        server.concurrencyLimit = ServerTest.fixedLimit( 2 );
+        var entered = new CountDownLatch( 2 );
+        var release = new CountDownLatch( 1 );
+        var failures = new AtomicInteger();
+        server.bind( "test", GenericCorsPolicy.DEFAULT, ServerTest.slow( entered, release, failures ), Protocol.HTTP );
+
+        var url = "http://localhost:" + port + "/test";
+        var slow = List.of( Client.DEFAULT.getAsync( url ), Client.DEFAULT.getAsync( url ) );
+        ServerTest.await( entered );
+
+        var rejected = Client.DEFAULT.get( url );
+        assertThat( rejected.code ).isEqualTo( HTTP_UNAVAILABLE );
+        assertThat( rejected.header( "Retry-After" ) ).contains( "1" );
+        assertThat( server.limiter( "test" ).getInflight() ).isEqualTo( 2 );
+
+        release.countDown();
+        for( var response : slow ) assertThat( response.get( 10, TimeUnit.SECONDS ).code ).isEqualTo( HTTP_OK );
+        assertEventually( 10, 500, () -> assertThat( server.limiter( "test" ).getInflight() ).isZero() );
+
+        assertThat( Client.DEFAULT.get( url + "?fail=true" ).code ).isEqualTo( HTTP_INTERNAL_ERROR );
+        assertThat( failures.get() ).isEqualTo( 1 );
+        assertEventually( 10, 500, () -> assertThat( server.limiter( "test" ).getInflight() ).isZero() );
+    }
+
+    @Test
+    public void unbind() {
+        server.bind( "test", GenericCorsPolicy.DEFAULT,
+            ( request, response ) -> response.respond( HttpResponse.ok( "test", true, TEXT_PLAIN ).response() ), Protocol.HTTP );
+        server.unbind( "test" );
+
+        assertThat( Client.DEFAULT.get( "http://localhost:" + port + "/test" ).code ).isEqualTo( HTTP_NOT_FOUND );
+    }
+}
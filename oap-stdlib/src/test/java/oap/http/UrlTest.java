@@ -40,6 +40,24 @@ public class UrlTest {
             Maps.listmmap( __( "a", "1" ), __( "b", "2" ), __( "b", "3" ), __( "b", "2" ) ) );
     }
 
+    @Test
+    public void parameter() {
+        assertThat( Url.parameter( "a=&b=2", "a" ) ).contains( "" );
+        assertThat( Url.parameter( "a=1&b=2&", "b" ) ).contains( "2" );
+        assertThat( Url.parameter( "a=1&ab=2", "b" ) ).isEmpty();
+        assertThat( Url.parameter( "a&b=x%20y+z", "b" ) ).contains( "x y z" );
+        assertThat( Url.parameter( "a&b=2", "a" ) ).contains( "" );
+        assertThat( Url.parameter( "/path?a=1&b=2", 6, "a" ) ).contains( "1" );
+        assertThat( Url.parameter( "", "a" ) ).isEmpty();
+        assertThat( Url.parameter( null, "a" ) ).isEmpty();
+    }
+
+    @Test
+    public void parameters() {
+        assertThat( Url.parameters( "a=1&b=2&b=3&b=2", "b" ) ).containsExactly( "2", "3", "2" );
+        assertThat( Url.parameters( "a=1&b=2&b=3&b=2", "c" ) ).isEmpty();
+    }
+
     @Test
     public void subdomains() {
         assertThat( Url.subdomains( null ) ).isEmpty();
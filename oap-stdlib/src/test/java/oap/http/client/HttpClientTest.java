@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.http.client;
+
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HttpClientTest {
+    private int port;
+    private ClientAndServer mockServer;
+
+    @BeforeMethod
+    public void start() {
+        mockServer = ClientAndServer.startClientAndServer( 0 );
+        port = mockServer.getLocalPort();
+    }
+
+    @AfterMethod
+    public void stop() {
+        mockServer.stop( true );
+    }
+
+    @Test
+    public void reasonPhrase() {
+        mockServer.when( HttpRequest.request().withPath( "/missing" ) )
+            .respond( HttpResponse.response().withStatusCode( HTTP_NOT_FOUND ) );
+
+        var response = HttpClient.DEFAULT.get( URI.create( "http://localhost:" + port + "/missing" ), Map.of() ).join();
+
+        assertThat( response.code ).isEqualTo( HTTP_NOT_FOUND );
+        assertThat( response.reasonPhrase ).isEqualTo( "Not Found" );
+    }
+
+    @Test
+    public void timeout() {
+        mockServer.when( HttpRequest.request().withPath( "/slow" ) )
+            .respond( HttpResponse.response().withStatusCode( HTTP_OK ).withBody( "ok" ).withDelay( TimeUnit.SECONDS, 2 ) );
+
+        var client = HttpClient.create( 1000, 200 );
+        assertThatThrownBy( () -> client.get( URI.create( "http://localhost:" + port + "/slow" ), Map.of() ).join() )
+            .isInstanceOf( CompletionException.class )
+            .hasCauseInstanceOf( HttpTimeoutException.class );
+    }
+}
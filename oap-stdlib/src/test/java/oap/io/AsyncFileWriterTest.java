@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static oap.testng.Asserts.assertEventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncFileWriterTest extends Fixtures {
+    {
+        fixture( TestDirectoryFixture.FIXTURE );
+    }
+
+    @Test
+    public void write() throws Exception {
+        var a = TestDirectoryFixture.testPath( "async/a.txt" );
+        var b = TestDirectoryFixture.testPath( "async/b.txt" );
+
+        try( var writer = new AsyncFileWriter( "test" ) ) {
+            writer.flushInterval = 10;
+            writer.start();
+
+            var threads = new ArrayList<Thread>();
+            for( var t = 0; t < 4; t++ ) {
+                var thread = new Thread( () -> {
+                    for( var i = 0; i < 1000; i++ )
+                        writer.write( i % 2 == 0 ? a : b, "record\n".getBytes( StandardCharsets.UTF_8 ) );
+                } );
+                thread.start();
+                threads.add( thread );
+            }
+            for( var thread : threads ) thread.join();
+
+            writer.writeDurable( a, "durable\n".getBytes( StandardCharsets.UTF_8 ) ).get( 10, TimeUnit.SECONDS );
+            assertThat( Files.readString( a ) ).endsWith( "durable\n" );
+        }
+
+        assertThat( IoStreams.lines( a ).toList() ).hasSize( 2001 );
+        assertThat( IoStreams.lines( b ).toList() ).hasSize( 2000 );
+    }
+
+    @Test
+    public void closeUnderConcurrentWriteDurable() throws Exception {
+        var path = TestDirectoryFixture.testPath( "close/log.txt" );
+        var futures = new ConcurrentLinkedQueue<CompletableFuture<Void>>();
+
+        var writer = new AsyncFileWriter( "close" );
+        writer.flushInterval = 10;
+        writer.start();
+
+        var threads = new ArrayList<Thread>();
+        for( var t = 0; t < 4; t++ ) {
+            var thread = new Thread( () -> {
+                try {
+                    for( var i = 0; i < 100000; i++ )
+                        futures.add( writer.writeDurable( path, "record\n".getBytes( StandardCharsets.UTF_8 ) ) );
+                } catch( IllegalStateException ignored ) {
+                }
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+        while( futures.size() < 10000 ) Thread.onSpinWait();
+        writer.close();
+        for( var thread : threads ) thread.join();
+
+        CompletableFuture.allOf( futures.toArray( new CompletableFuture<?>[0] ) ).get( 10, TimeUnit.SECONDS );
+        assertThat( IoStreams.lines( path ).count() ).isEqualTo( futures.size() );
+        assertThat( writer.queued() ).isZero();
+    }
+
+    @Test
+    public void closeWithoutStart() throws Exception {
+        var path = TestDirectoryFixture.testPath( "unstarted/log.txt" );
+
+        var writer = new AsyncFileWriter( "unstarted" );
+        var future = writer.writeDurable( path, "record\n".getBytes( StandardCharsets.UTF_8 ) );
+        writer.close();
+
+        future.get( 10, TimeUnit.SECONDS );
+        assertThat( Files.readString( path ) ).isEqualTo( "record\n" );
+    }
+
+    @Test
+    public void rotateBySize() {
+        var path = TestDirectoryFixture.testPath( "rotate/log.txt" );
+
+        try( var writer = new AsyncFileWriter( "rotate" ) ) {
+            writer.flushInterval = 10;
+            writer.rotateSize = 100;
+            writer.start();
+
+            for( var i = 0; i < 100; i++ ) writer.write( path, "0123456789\n".getBytes( StandardCharsets.UTF_8 ) );
+
+            assertEventually( 10, 500, () -> assertThat( writer.files() ).isZero() );
+        }
+
+        var files = Files.fastWildcard( TestDirectoryFixture.testPath( "rotate" ), "log*.txt" );
+        assertThat( files.size() ).isGreaterThan( 1 );
+        assertThat( files.stream().mapToLong( f -> IoStreams.lines( f ).count() ).sum() ).isEqualTo( 100 );
+    }
+
+    @Test
+    public void evictIdleFiles() throws Exception {
+        try( var writer = new AsyncFileWriter( "evict" ) ) {
+            writer.flushInterval = 10;
+            writer.idleTimeout = 50;
+            writer.start();
+
+            for( var i = 0; i < 100; i++ )
+                writer.write( TestDirectoryFixture.testPath( "evict/" + i + ".txt" ), "record\n".getBytes( StandardCharsets.UTF_8 ) );
+            assertEventually( 10, 500, () -> {
+                assertThat( writer.files() ).isZero();
+                assertThat( writer.openFiles() ).isZero();
+            } );
+
+            writer.writeDurable( TestDirectoryFixture.testPath( "evict/0.txt" ), "record\n".getBytes( StandardCharsets.UTF_8 ) )
+                .get( 10, TimeUnit.SECONDS );
+            assertThat( writer.openFiles() ).isEqualTo( 1 );
+        }
+
+        assertThat( IoStreams.lines( TestDirectoryFixture.testPath( "evict/0.txt" ) ).count() ).isEqualTo( 2 );
+        for( var i = 1; i < 100; i++ )
+            assertThat( IoStreams.lines( TestDirectoryFixture.testPath( "evict/" + i + ".txt" ) ).count() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void rotated() {
+        assertThat( AsyncFileWriter.rotated( TestDirectoryFixture.testPath( "log.tsv.gz" ), 1 ) )
+            .isEqualTo( TestDirectoryFixture.testPath( "log-1.tsv.gz" ) );
+        assertThat( AsyncFileWriter.rotated( TestDirectoryFixture.testPath( "log" ), 1 ) )
+            .isEqualTo( TestDirectoryFixture.testPath( "log-1" ) );
+    }
+}
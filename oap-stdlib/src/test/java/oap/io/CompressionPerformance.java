@@ -32,17 +32,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import static oap.benchmark.Benchmark.benchmark;
-import static oap.io.IoStreams.Encoding.GZIP;
-import static oap.io.IoStreams.Encoding.LZ4;
 import static oap.io.IoStreams.Encoding.PLAIN;
 
 @Test( enabled = false )
 public class CompressionPerformance {
     @DataProvider( name = "encodings" )
     public Object[][] encodings() {
-        return new Object[][] { { GZIP }, { LZ4 } };
+        return Stream.of( IoStreams.Encoding.values() ).map( e -> new Object[] { e } ).toArray( Object[][]::new );
     }
 
     @Test( dataProvider = "encodings" )
@@ -63,7 +62,9 @@ public class CompressionPerformance {
 
         } ).run();
 
-        System.out.println( encoding + " = " + path.toFile().length() + " bytes" );
+        var source = Resources.filePath( getClass(), "/file.txt" ).get().toFile().length();
+        System.out.println( encoding + " = " + path.toFile().length() + " bytes, ratio "
+            + String.format( "%.2f", ( double ) source / path.toFile().length() ) );
 
         byte[] bytes = new byte[1024];
 
@@ -79,4 +80,19 @@ public class CompressionPerformance {
 
         System.out.println( encoding + " = " + path.toFile().length() + " bytes" );
     }
+
+    @Test( dataProvider = "encodings" )
+    public void testParallelC( IoStreams.Encoding encoding ) {
+        Path path = TestDirectoryFixture.testPath( "test-parallel." + encoding );
+        var threads = Runtime.getRuntime().availableProcessors();
+
+        benchmark( "compress parallel " + encoding.name(), 2, () -> {
+            try( InputStream is = IoStreams.in( Resources.filePath( getClass(), "/file.txt" ).get(), PLAIN );
+                 OutputStream out = IoStreams.out( path, encoding, 1024 * 1024 * 10, false, false, ParallelCompression.of( threads ) ) ) {
+                is.transferTo( out );
+            }
+        } ).run();
+
+        System.out.println( encoding + " parallel = " + path.toFile().length() + " bytes" );
+    }
 }
@@ -6,9 +6,12 @@ import oap.testng.TestDirectoryFixture;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import static java.util.Collections.emptyList;
@@ -96,6 +99,45 @@ public class FileWalkerTest extends Fixtures {
         assertThat( visitor2.files ).containsOnly( TestDirectoryFixture.testPath( "/wildcard/w2/3.txt" ), TestDirectoryFixture.testPath( "/wildcard/w2/33.txt" ) );
     }
 
+    @Test
+    public void walkFileTreeParallel() {
+        for( var wildcard : new String[] { "*/*.txt", "w2/*", "*/w1/*.txt", "w2/3.txt", "unknown/*", "*.txt" } ) {
+            final MockVisitor visitor = new MockVisitor();
+            var fwc = new FileWalkerCache();
+            new FileWalker( TestDirectoryFixture.testPath( "wildcard" ), wildcard, fwc ).walkFileTree( visitor );
+
+            var pool = new ForkJoinPool( 4 );
+            try {
+                assertThat( new FileWalker( TestDirectoryFixture.testPath( "wildcard" ), wildcard, fwc ).walkFileTree( pool ) )
+                    .isEqualTo( visitor.files );
+                assertThat( Files.fastWildcardParallel( TestDirectoryFixture.testPath( "wildcard" ), wildcard, new FileWalkerCache(), pool ) )
+                    .containsExactlyInAnyOrderElementsOf( visitor.files );
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void walkFileTreeCacheInvalidation() throws IOException {
+        var dir = TestDirectoryFixture.testPath( "wildcard/w2" );
+        var fwc = new FileWalkerCache( 0 );
+        var cached = new FileWalkerCache();
+
+        assertThat( Files.fastWildcard( TestDirectoryFixture.testPath( "wildcard" ), "w2/*.txt", fwc ) ).hasSize( 2 );
+        assertThat( Files.fastWildcard( TestDirectoryFixture.testPath( "wildcard" ), "w2/*.txt", cached ) ).hasSize( 2 );
+
+        var modified = java.nio.file.Files.getLastModifiedTime( dir );
+        Files.writeString( Env.tmp( "/wildcard/w2/5.txt" ), "1" );
+        java.nio.file.Files.setLastModifiedTime( dir, FileTime.fromMillis( modified.toMillis() + 2000 ) );
+
+        assertThat( Files.fastWildcard( TestDirectoryFixture.testPath( "wildcard" ), "w2/*.txt", fwc ) ).hasSize( 3 );
+        assertThat( Files.fastWildcard( TestDirectoryFixture.testPath( "wildcard" ), "w2/*.txt", cached ) ).hasSize( 2 );
+
+        cached.invalidate( dir );
+        assertThat( Files.fastWildcard( TestDirectoryFixture.testPath( "wildcard" ), "w2/*.txt", cached ) ).hasSize( 3 );
+    }
+
     private class MockVisitor implements Consumer<Path> {
         public final ArrayList<Path> files = new ArrayList<>();
 
@@ -35,10 +35,16 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.io.IoStreams.DEFAULT_BUFFER;
 import static oap.io.IoStreams.Encoding.GZIP;
 import static oap.io.IoStreams.Encoding.LZ4;
+import static oap.io.IoStreams.Encoding.LZ4_BLOCK;
 import static oap.io.IoStreams.Encoding.PLAIN;
+import static oap.io.IoStreams.Encoding.ZSTD;
 import static oap.testng.Asserts.assertFile;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -100,4 +106,103 @@ public class IoStreamsTest extends Fixtures {
         assertThat( PLAIN.resolve( Paths.get( "/x/a.txt.gz" ) ) ).isEqualTo( Paths.get( "/x/a.txt" ) );
         assertThat( GZIP.resolve( Paths.get( "/x/a.txt" ) ) ).isEqualTo( Paths.get( "/x/a.txt.gz" ) );
     }
+
+    @DataProvider
+    public Object[][] parallelEncodings() {
+        return new Object[][] {
+            { GZIP },
+            { LZ4 },
+            { LZ4_BLOCK }
+        };
+    }
+
+    @Test( dataProvider = "parallelEncodings" )
+    public void parallelCompression( Encoding encoding ) throws IOException {
+        Path path = encoding.resolve( TestDirectoryFixture.testPath( "parallel.txt" ) );
+        var content = new StringBuilder();
+        for( var i = 0; i < 20000; i++ ) content.append( "line " ).append( i ).append( '\n' );
+
+        try( OutputStream out = IoStreams.out( path, encoding, DEFAULT_BUFFER, false, false, ParallelCompression.of( 4, 4096 ) ) ) {
+            out.write( content.toString().getBytes( UTF_8 ) );
+        }
+
+        assertFile( path ).hasContent( content.toString(), encoding );
+        if( encoding == GZIP )
+            try( var in = new GZIPInputStream( java.nio.file.Files.newInputStream( path ) ) ) {
+                assertThat( new String( in.readAllBytes(), UTF_8 ) ).isEqualTo( content.toString() );
+            }
+    }
+
+    @Test( dataProvider = "parallelEncodings" )
+    public void parallelCompressionEmpty( Encoding encoding ) throws IOException {
+        Path path = encoding.resolve( TestDirectoryFixture.testPath( "parallel-empty.txt" ) );
+        try( OutputStream out = IoStreams.out( path, encoding, DEFAULT_BUFFER, false, false, ParallelCompression.of( 2 ) ) ) {
+            out.flush();
+        }
+
+        try( InputStream in = IoStreams.in( path, encoding ) ) {
+            assertThat( in.read() ).isEqualTo( -1 );
+        }
+    }
+
+    @Test( dataProvider = "parallelEncodings" )
+    public void parallelCompressionFlush( Encoding encoding ) throws IOException {
+        Path path = encoding.resolve( TestDirectoryFixture.testPath( "parallel-flush.txt" ) );
+        try( OutputStream out = IoStreams.out( path, encoding, DEFAULT_BUFFER, false, false, new ParallelCompression( 2, 4096, true ) ) ) {
+            out.write( "partial".getBytes( UTF_8 ) );
+            out.flush();
+
+            try( InputStream in = IoStreams.in( path, encoding ) ) {
+                assertThat( new String( in.readNBytes( 7 ), UTF_8 ) ).isEqualTo( "partial" );
+            }
+
+            out.write( " block".getBytes( UTF_8 ) );
+        }
+
+        assertFile( path ).hasContent( "partial block", encoding );
+    }
+
+    @Test
+    public void parallelCompressionFlushKeepsBlocks() throws IOException {
+        Path path = TestDirectoryFixture.testPath( "parallel-flush-blocks.txt.gz" );
+        var parallel = ParallelCompression.of( 2, 4096 );
+        try( OutputStream out = IoStreams.out( path, GZIP, DEFAULT_BUFFER, false, false, parallel ) ) {
+            for( var i = 0; i < 100; i++ ) {
+                out.write( "record\n".getBytes( UTF_8 ) );
+                out.flush();
+            }
+        }
+
+        assertFile( path ).hasContent( "record\n".repeat( 100 ), GZIP );
+        assertThat( java.nio.file.Files.size( path ) ).isLessThan( 100 );
+    }
+
+    @Test
+    public void zstd() throws IOException {
+        Path path = TestDirectoryFixture.testPath( "test.txt.zst" );
+        assertThat( Encoding.from( path ) ).isEqualTo( ZSTD );
+
+        IoStreams.write( path, ZSTD, "12345" );
+        IoStreams.write( path, ZSTD, "67890", true );
+        assertFile( path ).hasContent( "1234567890", ZSTD );
+
+        Path gz = TestDirectoryFixture.testPath( "test.txt.gz" );
+        Files.copy( path, ZSTD, gz, GZIP );
+        assertFile( gz ).hasContent( "1234567890", GZIP );
+    }
+
+    @Test
+    public void zstdDictionary() throws IOException {
+        var samples = new ArrayList<byte[]>();
+        for( var i = 0; i < 10000; i++ )
+            samples.add( ( "{\"id\":" + i + ",\"event\":\"click\",\"country\":\"US\",\"campaign\":\"c" + ( i % 100 ) + "\"}" ).getBytes( UTF_8 ) );
+        var dictionary = ZstdCompression.train( samples, 4096 );
+
+        Path path = TestDirectoryFixture.testPath( "dictionary.zst" );
+        try( OutputStream out = IoStreams.out( path, ZstdCompression.DEFAULT.withLevel( 9 ).withDictionary( dictionary ), false ) ) {
+            out.write( samples.get( 42 ) );
+        }
+
+        assertFile( path ).hasContent( new String( samples.get( 42 ), UTF_8 ), ZSTD );
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedLinesTest extends Fixtures {
+    {
+        fixture( TestDirectoryFixture.FIXTURE );
+    }
+
+    @Test
+    public void lines() {
+        var path = TestDirectoryFixture.testPath( "lines.txt" );
+        Files.writeString( path, "a\nbb\r\n\nccc" );
+
+        try( var lines = MappedLines.lines( path ) ) {
+            assertThat( lines.toList() ).containsExactly( "a", "bb", "", "ccc" );
+        }
+
+        Files.writeString( path, "a\rb\r\r\nc\r" );
+        try( var lines = MappedLines.lines( path ) ) {
+            assertThat( lines.toList() ).containsExactly( "a", "b", "", "c" );
+        }
+
+        Files.writeString( path, "a\n" );
+        assertThat( MappedLines.lines( path ).toList() ).containsExactly( "a" );
+
+        Files.writeString( path, "" );
+        assertThat( MappedLines.lines( path ).toList() ).isEmpty();
+    }
+
+    @Test
+    public void linesAcrossWindows() {
+        var path = TestDirectoryFixture.testPath( "windows.txt" );
+        var expected = expected( 1000 );
+        Files.writeString( path, String.join( "\n", expected ) + "\n" );
+
+        try( var lines = MappedLines.stream( path, 16, Object::toString ) ) {
+            assertThat( lines.toList() ).isEqualTo( expected );
+        }
+
+        Files.writeString( path, String.join( "\r\n", expected ) + "\r\n" );
+        try( var lines = MappedLines.stream( path, 16, Object::toString ) ) {
+            assertThat( lines.toList() ).isEqualTo( expected );
+        }
+    }
+
+    @Test
+    public void parallel() {
+        var path = TestDirectoryFixture.testPath( "parallel.txt" );
+        var expected = expected( 500000 );
+        Files.writeString( path, String.join( "\n", expected ) );
+
+        try( var lines = MappedLines.stream( path, 1024 * 1024, Object::toString ) ) {
+            assertThat( lines.parallel().collect( Collectors.toList() ) ).isEqualTo( expected );
+        }
+        try( var lines = IoStreams.lines( path ) ) {
+            assertThat( lines.parallel().count() ).isEqualTo( expected.size() );
+        }
+    }
+
+    @Test
+    public void byteLines() {
+        var path = TestDirectoryFixture.testPath( "fields.tsv" );
+        Files.writeString( path, "1\tfirst\tx\n2\tsecond\ty\n" );
+
+        try( var lines = MappedLines.byteLines( path ) ) {
+            assertThat( lines.map( l -> l.field( 1, ( byte ) '\t' ) ).toList() ).containsExactly( "first", "second" );
+        }
+        try( var lines = MappedLines.byteLines( path ) ) {
+            assertThat( lines.map( l -> l.field( 3, ( byte ) '\t' ) ).toList() ).containsExactly( null, null );
+        }
+    }
+
+    private static List<String> expected( int count ) {
+        var lines = new ArrayList<String>();
+        for( var i = 0; i < count; i++ ) lines.add( "line " + i + "\tvalue " + "x".repeat( i % 20 ) );
+        return lines;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.io;
+
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SeekableLz4FileTest extends Fixtures {
+    {
+        fixture( TestDirectoryFixture.FIXTURE );
+    }
+
+    @Test
+    public void seek() throws IOException {
+        var path = TestDirectoryFixture.testPath( "seekable.lz4" );
+        var expected = new ArrayList<String>();
+        for( var i = 0; i < 10000; i++ ) expected.add( "line " + i );
+
+        try( var out = new SeekableLz4OutputStream( path, 1024 ) ) {
+            for( var line : expected ) out.write( ( line + "\n" ).getBytes( StandardCharsets.UTF_8 ) );
+        }
+
+        assertThat( IoStreams.lines( path ).toList() ).isEqualTo( expected );
+
+        var file = SeekableLz4File.open( path );
+        assertThat( file.blocks() ).isGreaterThan( 1 );
+        assertThat( file.lines ).isEqualTo( expected.size() );
+
+        for( var from : List.of( 0, 1, 99, 5000, 9999 ) )
+            try( var lines = file.lines( from ) ) {
+                assertThat( lines.toList() ).isEqualTo( expected.subList( from, expected.size() ) );
+            }
+
+        var content = String.join( "\n", expected ) + "\n";
+        var offset = content.indexOf( "line 7777" ) + 2;
+        try( var in = file.in( offset ) ) {
+            assertThat( new String( in.readNBytes( 10 ), StandardCharsets.UTF_8 ) ).isEqualTo( "ne 7777\nli" );
+        }
+    }
+
+    @Test
+    public void empty() throws IOException {
+        var path = TestDirectoryFixture.testPath( "empty.lz4" );
+        new SeekableLz4OutputStream( path ).close();
+
+        var file = SeekableLz4File.open( path );
+        assertThat( file.length ).isZero();
+        try( var lines = file.lines( 0 ) ) {
+            assertThat( lines.toList() ).isEmpty();
+        }
+    }
+}
@@ -24,11 +24,15 @@
 
 package oap.json;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import oap.reflect.TypeRef;
 import org.testng.annotations.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static oap.benchmark.Benchmark.benchmark;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_INT_ARRAY;
@@ -55,6 +59,35 @@ public class BinderPerformance {
         benchmark( "list-serialization", samples, () -> Binder.json.marshal( tList ) ).run();
     }
 
+    @Test( enabled = false )
+    public void testClone() {
+        var tList = new TList( Arrays.asList( "1", "2", "3" ), Arrays.asList( 1, 2, 3 ) );
+
+        final int samples = 1000000;
+
+        benchmark( "clone-json-roundtrip", samples, () -> Binder.json.unmarshal( TList.class, Binder.json.marshal( tList ) ) ).run();
+        benchmark( "clone", samples, () -> Binder.json.clone( tList ) ).run();
+    }
+
+    @Test( enabled = false )
+    public void testReaderCache() {
+        final String source = "{\"test\":[\"1\",\"2\",\"3\"],\"test2\":[1,2,3]}";
+        final byte[] bytes = source.getBytes( StandardCharsets.UTF_8 );
+        final TypeRef<Map<String, List<Object>>> ref = new TypeRef<>() {};
+        final ObjectMapper mapper = Binder.json.getMapper();
+
+        final int samples = 10000000;
+
+        benchmark( "reader-per-call", samples, () -> mapper.readerFor( mapper.getTypeFactory().constructType( ref.type() ) ).readValue( source ) ).run();
+        benchmark( "reader-cached", samples, () -> Binder.json.unmarshal( ref, source ) ).run();
+        benchmark( "reader-cached-bytes", samples, () -> Binder.json.unmarshal( ref, bytes ) ).run();
+
+        final Map<String, List<Object>> value = Binder.json.unmarshal( ref, source );
+        benchmark( "writer-per-call", samples, () -> mapper.writerFor( mapper.getTypeFactory().constructType( ref.type() ) ).writeValueAsString( value ) ).run();
+        benchmark( "writer-cached", samples, () -> Binder.json.marshal( ref, value ) ).run();
+        benchmark( "writer-cached-bytes", samples, () -> Binder.json.marshalToBytes( ref, value ) ).run();
+    }
+
     public static class TArray {
         public String[] test = EMPTY_STRING_ARRAY;
         public int[] test2 = EMPTY_INT_ARRAY;
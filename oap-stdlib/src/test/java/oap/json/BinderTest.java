@@ -31,6 +31,7 @@ import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import oap.concurrent.LongAdder;
+import oap.io.IoStreams;
 import oap.json.testng.JsonAsserts;
 import oap.reflect.TypeRef;
 import oap.testng.Fixtures;
@@ -40,8 +41,10 @@ import oap.util.Lists;
 import oap.util.Maps;
 import oap.util.Pair;
 import org.joda.time.DateTime;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -50,6 +53,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static oap.testng.Asserts.assertString;
 import static oap.util.Pair.__;
@@ -284,6 +288,106 @@ public class BinderTest extends Fixtures {
         assertThat( path ).hasContent( "{\"map\":{\"a\":1,\"b\":2}}" );
     }
 
+    @DataProvider
+    public Object[][] encodings() {
+        return Stream.of( IoStreams.Encoding.values() ).map( e -> new Object[] { e } ).toArray( Object[][]::new );
+    }
+
+    @Test( dataProvider = "encodings" )
+    public void streamArray( IoStreams.Encoding encoding ) {
+        Path path = encoding.resolve( TestDirectoryFixture.testPath( "array.json" ) );
+        var beans = beans( 100 );
+        Binder.json.marshal( path, beans );
+
+        try( var stream = Binder.json.unmarshalStream( Bean.class, path ) ) {
+            assertThat( stream.toList() ).isEqualTo( beans );
+        }
+    }
+
+    @Test( dataProvider = "encodings" )
+    public void streamLines( IoStreams.Encoding encoding ) {
+        Path path = encoding.resolve( TestDirectoryFixture.testPath( "lines.json" ) );
+        var beans = beans( 100 );
+        Binder.json.marshalLines( path, beans );
+
+        assertThat( IoStreams.lines( path ).toList() ).hasSize( 100 );
+        try( var stream = Binder.json.unmarshalStream( new TypeRef<Bean>() {}, path ) ) {
+            assertThat( stream.toList() ).isEqualTo( beans );
+        }
+    }
+
+    @Test
+    public void streamLinesParallel() {
+        Path path = TestDirectoryFixture.testPath( "lines.json.gz" );
+        var beans = beans( 100000 );
+        Binder.json.marshalLines( path, beans );
+
+        try( var stream = Binder.json.unmarshalLinesParallel( new TypeRef<Bean>() {}, path ) ) {
+            assertThat( stream.toList() ).isEqualTo( beans );
+        }
+    }
+
+    private static List<Bean> beans( int count ) {
+        var beans = new ArrayList<Bean>();
+        for( var i = 0; i < count; i++ ) beans.add( new Bean( "bean" + i, i, null ) );
+        return beans;
+    }
+
+    @Test
+    public void cloneObject() {
+        var bean = new Bean( "x", 10, 20L, new Bean2( "y", 15, Lists.of( 1, 2, 3 ) ) );
+        var clone = Binder.json.clone( bean );
+
+        assertThat( clone ).isEqualTo( bean );
+        assertThat( clone ).isNotSameAs( bean );
+        assertThat( clone.sb2 ).isNotSameAs( bean.sb2 );
+        assertThat( clone.sb2.list ).isNotSameAs( bean.sb2.list );
+
+        var typed = new AtomicLongBean( 10 );
+        assertThat( Binder.jsonWithTyping.clone( typed ) ).isEqualTo( typed );
+
+        var map = new LinkedHashMap<String, Object>( Map.of( "a", 1L, "b", List.of( "c" ) ) );
+        assertThat( Binder.json.clone( map ) ).isEqualTo( map ).isNotSameAs( map );
+    }
+
+    @Test
+    public void cloneImmutable() {
+        var str = "test";
+        assertThat( Binder.json.clone( str ) ).isSameAs( str );
+        assertThat( Binder.json.clone( TestEnum.C ) ).isSameAs( TestEnum.C );
+        assertThat( Binder.json.<Object>clone( null ) ).isNull();
+    }
+
+    @Test
+    public void bindBytes() {
+        var bean = new Bean( "x", 10, new Bean2( "y", 15, Lists.of( 1, 2, 3 ) ) );
+        var bytes = Binder.json.marshalToBytes( bean );
+
+        assertThat( Binder.json.unmarshal( Bean.class, bytes ) ).isEqualTo( bean );
+        assertThat( Binder.json.unmarshal( new TypeRef<Bean>() {}, bytes ) ).isEqualTo( bean );
+
+        var heap = ByteBuffer.allocate( bytes.length + 2 ).put( ( byte ) ' ' ).put( bytes ).put( ( byte ) ' ' );
+        heap.position( 1 ).limit( bytes.length + 1 );
+        assertThat( Binder.json.unmarshal( Bean.class, heap.slice() ) ).isEqualTo( bean );
+
+        var direct = ByteBuffer.allocateDirect( bytes.length ).put( bytes ).flip();
+        assertThat( Binder.json.unmarshal( new TypeRef<Bean>() {}, direct ) ).isEqualTo( bean );
+        assertThat( direct.remaining() ).isEqualTo( bytes.length );
+
+        assertThat( Binder.json.marshalToBytes( new TypeRef<List<Integer>>() {}, List.of( 1, 2 ) ) )
+            .isEqualTo( "[1,2]".getBytes() );
+    }
+
+    @Test
+    public void readerWriterCache() {
+        assertThat( Binder.json.readerFor( new TypeRef<List<Bean>>() {} ) )
+            .isSameAs( Binder.json.readerFor( new TypeRef<List<Bean>>() {} ) );
+        assertThat( Binder.json.writerFor( new TypeRef<List<Bean>>() {} ) )
+            .isSameAs( Binder.json.writerFor( new TypeRef<List<Bean>>() {} ) );
+        assertThat( Binder.json.readerFor( new TypeRef<List<Bean>>() {} ) )
+            .isNotSameAs( Binder.json.readerFor( new TypeRef<List<Bean2>>() {} ) );
+    }
+
     @Test
     public void testUpdate() {
         var obj = new Bean( "1", 1, null );
@@ -46,10 +46,15 @@ public abstract class AbstractSchemaTest {
 
     protected static Object assertOk( String schema, String json, SchemaStorage storage, boolean ignoreRequiredDefault ) {
         final Object obj = Binder.json.unmarshal( Object.class, json );
-        List<String> result = JsonSchema.schemaFromString( schema, storage )
-            .validate( obj, ignoreRequiredDefault );
+        var jsonSchema = JsonSchema.schemaFromString( schema, storage );
+        List<String> result = jsonSchema.validate( obj, ignoreRequiredDefault );
         if( !result.isEmpty() ) throw new AssertionError( String.join( "\n", result ) );
 
+        final Object compiledObj = Binder.json.unmarshal( Object.class, json );
+        List<String> compiledResult = jsonSchema.compiled().validate( compiledObj, ignoreRequiredDefault );
+        if( !compiledResult.isEmpty() ) throw new AssertionError( "compiled: " + String.join( "\n", compiledResult ) );
+        assertThat( compiledObj ).isEqualTo( obj );
+
         return obj;
     }
 
@@ -66,10 +71,13 @@ public abstract class AbstractSchemaTest {
     }
 
     protected static void assertFailure( String schema, String json, SchemaStorage storage, String... error ) {
-        List<String> result = JsonSchema.schemaFromString( schema, storage )
-            .validate( Binder.json.unmarshal( Object.class, json ), false );
+        var jsonSchema = JsonSchema.schemaFromString( schema, storage );
+        List<String> result = jsonSchema.validate( Binder.json.unmarshal( Object.class, json ), false );
         if( result.isEmpty() ) Assert.fail( json + " -> " + error );
         assertThat( result ).containsOnly( error );
+
+        List<String> compiledResult = jsonSchema.compiled().validate( Binder.json.unmarshal( Object.class, json ), false );
+        assertThat( compiledResult ).containsExactlyInAnyOrderElementsOf( result );
     }
 
     protected static void assertPartialFailure( String schema, String json, String partialJson,
@@ -377,6 +377,61 @@ public class JsonDiffTest extends AbstractSchemaTest {
             .containsOnly( __delO( "test[0]", "{\"test\":\"id\",\"testin\":\"new value\"}" ) );
     }
 
+    @Test
+    public void arrayDuplicates() {
+        var schema = """
+            {
+              type = object
+              properties.test {
+                type = array
+                items.type = long
+              }
+            }
+            """;
+
+        assertThat( __diff( schema, "{\"test\":[1,1,2,3]}", "{\"test\":[1,2,2,4]}" ) )
+            .containsOnly( __updA( "test", "[1,3]", "[2,4]" ) );
+    }
+
+    @Test
+    public void largeArrayById() {
+        var schema = """
+            {
+              type = object
+              properties.test {
+                type = array
+                id = id
+                items {
+                  type = object
+                  properties {
+                    id.type = long
+                    value.type = string
+                  }
+                }
+              }
+            }
+            """;
+
+        var from = new StringBuilder( "{\"test\":[" );
+        var to = new StringBuilder( "{\"test\":[" );
+        for( var i = 0; i < 100000; i++ ) {
+            if( i > 0 ) {
+                from.append( ',' );
+                to.append( ',' );
+            }
+            from.append( "{\"id\":" ).append( i ).append( ",\"value\":\"v" ).append( i ).append( "\"}" );
+            to.append( "{\"id\":" ).append( i + 1 ).append( ",\"value\":\"v" ).append( i == 500 ? "x" : i + 1 ).append( "\"}" );
+        }
+        from.append( "]}" );
+        to.append( "]}" );
+
+        assertThat( __diff( schema, from.toString(), to.toString() ) ).containsOnly(
+            __newO( "test[100000]", "{\"id\":100000,\"value\":\"v100000\"}" ),
+            __delO( "test[0]", "{\"id\":0,\"value\":\"v0\"}" ),
+            __updF( "test[501].value", "\"v501\"", "\"vx\"" )
+        );
+    }
+
     private List<JsonDiff.Line> __diff( String schema, String from, String to ) {
         final SchemaAST ast = schema( schema );
 
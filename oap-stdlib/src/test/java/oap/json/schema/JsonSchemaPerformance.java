@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.json.schema;
+
+import oap.json.Binder;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static oap.benchmark.Benchmark.benchmark;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test( enabled = false )
+public class JsonSchemaPerformance {
+    private static final String SCHEMA = """
+        {
+          type = object
+          additionalProperties = false
+          properties {
+            id.type = string
+            items {
+              type = array
+              items {
+                type = object
+                properties {
+                  name { type = string, required = true, pattern = "[a-z0-9]+" }
+                  count { type = integer, minimum = 0, maximum = 1000000 }
+                  price.type = double
+                  enabled.type = boolean
+                  kind { type = string, enum = [a, b, c] }
+                  tags { type = array, items.type = string }
+                }
+              }
+            }
+          }
+        }
+        """;
+
+    @Test( enabled = false )
+    public void validate() {
+        var schema = JsonSchema.schemaFromString( SCHEMA );
+        var json = Binder.json.unmarshal( Object.class, Binder.json.marshal( document( 10000 ) ) );
+
+        assertThat( schema.validate( json, false ) ).isEmpty();
+        assertThat( schema.compiled().validate( json, false ) ).isEmpty();
+
+        var samples = 200;
+        benchmark( "interpreted", samples, () -> schema.validate( json, false ) ).run();
+        benchmark( "compiled", samples, () -> schema.compiled().validate( json, false ) ).run();
+    }
+
+    private static Map<String, Object> document( int size ) {
+        var items = new ArrayList<Object>();
+        for( var i = 0; i < size; i++ ) {
+            var item = new LinkedHashMap<String, Object>();
+            item.put( "name", "item" + i );
+            item.put( "count", ( long ) i );
+            item.put( "price", i * 1.5 );
+            item.put( "enabled", i % 2 == 0 );
+            item.put( "kind", List.of( "a", "b", "c" ).get( i % 3 ) );
+            item.put( "tags", List.of( "t1", "t2", "t3" ) );
+            items.add( item );
+        }
+        var document = new LinkedHashMap<String, Object>();
+        document.put( "id", "document" );
+        document.put( "items", items );
+        return document;
+    }
+}
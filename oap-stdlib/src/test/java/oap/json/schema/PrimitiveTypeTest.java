@@ -23,8 +23,12 @@
  */
 package oap.json.schema;
 
+import oap.json.schema.validator.BooleanJsonValidator;
+import oap.util.Lists;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 public class PrimitiveTypeTest extends AbstractSchemaTest {
     @Test
     public void bool() {
@@ -41,6 +45,27 @@ public class PrimitiveTypeTest extends AbstractSchemaTest {
             "instance type is string, but allowed type is boolean" );
     }
 
+    @Test
+    public void overriddenValidator() {
+        JsonSchema.add( new BooleanJsonValidator() {
+            @Override
+            public List<String> validate( JsonValidatorProperties properties, DefaultSchemaAST schema, Object value ) {
+                if( "yes".equals( value ) || "no".equals( value ) ) return Lists.empty();
+                return super.validate( properties, schema, value );
+            }
+        } );
+        try {
+            String schema = "{\"type\": \"boolean\"}";
+
+            assertOk( schema, "\"yes\"" );
+            assertOk( schema, "true" );
+            assertFailure( schema, "\"1\"",
+                "instance type is string, but allowed type is boolean" );
+        } finally {
+            JsonSchema.add( new BooleanJsonValidator() );
+        }
+    }
+
     @Test
     public void string() {
         String schema = "{\"type\": \"string\"}";
@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import oap.testng.Fixtures;
+import oap.testng.SystemTimerFixture;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AtomicCounterTest extends Fixtures {
+    {
+        fixture( SystemTimerFixture.FIXTURE );
+    }
+
+    @Test
+    public void hourly() {
+        Dates.setTimeFixed( 2017, 6, 2, 14, 16, 10 );
+
+        var counter = new AtomicCounter.Hourly();
+
+        counter.inc();
+        counter.inc( 2 );
+        assertThat( counter.get() ).isEqualTo( 3 );
+        assertThat( counter.get( Counter.HourlyCounter.currentTick() - 1 ) ).isZero();
+
+        Dates.setTimeFixed( 2017, 6, 2, 15, 0, 0 );
+        assertThat( counter.get() ).isZero();
+        counter.inc();
+        assertThat( counter.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void merge() {
+        Dates.setTimeFixed( 2017, 6, 2, 14, 16, 10 );
+        var counter1 = new AtomicCounter.Hourly();
+        counter1.inc();
+
+        var counter2 = new AtomicCounter.Hourly();
+        counter2.inc();
+
+        Dates.setTimeFixed( 2017, 6, 2, 14 + 1, 16, 10 );
+        var counter3 = new AtomicCounter.Hourly();
+        counter3.inc();
+
+        Dates.setTimeFixed( 2017, 6, 2, 14, 16, 10 );
+        counter1.merge( counter2 );
+        assertThat( counter1.get() ).isEqualTo( 2 );
+
+        Dates.setTimeFixed( 2017, 6, 2, 14 + 1, 16, 10 );
+        counter1.merge( counter3 );
+        assertThat( counter1.get() ).isEqualTo( 1 );
+
+        counter1.merge( counter2 );
+        assertThat( counter1.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void saturate() {
+        var counter = new AtomicCounter.Custom( 1000 );
+        counter.inc( Long.MAX_VALUE );
+        counter.inc( 10 );
+        assertThat( counter.get() ).isEqualTo( AtomicCounter.VALUE_MASK );
+
+        counter.reset();
+        counter.inc( 5 );
+        counter.inc( -10 );
+        assertThat( counter.get() ).isZero();
+    }
+
+    @Test
+    public void concurrent() throws InterruptedException {
+        Dates.setTimeFixed( 2017, 6, 2, 14, 16, 10 );
+        var counter = new AtomicCounter.Daily();
+        var array = new CounterArray( 16, Counter.DailyCounter::currentTick );
+
+        var threads = new ArrayList<Thread>();
+        for( var t = 0; t < 8; t++ ) {
+            var thread = new Thread( () -> {
+                for( var i = 0; i < 100000; i++ ) {
+                    counter.inc();
+                    array.inc( i % 16 );
+                }
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+        for( var thread : threads ) thread.join();
+
+        assertThat( counter.get() ).isEqualTo( 800000 );
+        for( var id = 0; id < 16; id++ ) assertThat( array.get( id ) ).isEqualTo( 50000 );
+    }
+
+    @Test
+    public void counterArray() {
+        Dates.setTimeFixed( 2017, 6, 2, 14, 16, 10 );
+        var array1 = new CounterArray( 1_000_000, Counter.HourlyCounter::currentTick );
+        var array2 = new CounterArray( 1_000_000, Counter.HourlyCounter::currentTick );
+        array1.inc( 999_999, 3 );
+        array2.inc( 999_999, 2 );
+        array2.inc( 5 );
+
+        array1.merge( array2 );
+        assertThat( array1.get( 999_999 ) ).isEqualTo( 5 );
+        assertThat( array1.get( 5 ) ).isEqualTo( 1 );
+        assertThat( array1.get( 6 ) ).isZero();
+
+        Dates.setTimeFixed( 2017, 6, 2, 15, 16, 10 );
+        assertThat( array1.get( 999_999 ) ).isZero();
+        array1.inc( 999_999 );
+        assertThat( array1.get( 999_999 ) ).isEqualTo( 1 );
+
+        array1.reset( 999_999 );
+        assertThat( array1.get( 999_999 ) ).isZero();
+    }
+}
@@ -29,13 +29,25 @@ import org.testng.annotations.Test;
 import static oap.benchmark.Benchmark.benchmark;
 
 public class CuidPerformance {
+    private static final ThreadLocal<char[]> buffers = ThreadLocal.withInitial( () -> new char[Cuid.UniqueCuid.LENGTH] );
+
     @Test
     public void test() {
-        Cuid.UNIQUE.next();
+        var cuid = ( Cuid.UniqueCuid ) Cuid.UNIQUE;
+        cuid.next();
+
+        for( var threads : new int[] { 1, 16, 100 } ) {
+            benchmark( "cuid-" + threads, 20000000, cuid::next )
+                .inThreads( threads )
+                .run();
 
-        benchmark( "cuid", 20000000, Cuid.UNIQUE::next )
-            .inThreads( 100 )
-            .run();
+            benchmark( "cuid-buffer-" + threads, 20000000, () -> cuid.next( buffers.get(), 0 ) )
+                .inThreads( threads )
+                .run();
+
+            benchmark( "cuid-long-" + threads, 20000000, cuid::nextLong )
+                .inThreads( threads )
+                .run();
+        }
     }
 }
-
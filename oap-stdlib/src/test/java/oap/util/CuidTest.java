@@ -28,6 +28,8 @@ import oap.concurrent.Threads;
 import org.testng.annotations.Test;
 
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -65,5 +67,45 @@ public class CuidTest {
             .isEqualTo( Cuid.UNIQUE.last() );
     }
 
-}
+    @Test
+    public void concurrentUnique() throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        var violations = new ConcurrentLinkedQueue<String>();
+        var threads = new Thread[16];
+        for( var t = 0; t < threads.length; t++ ) {
+            threads[t] = new Thread( () -> {
+                long previous = 0;
+                for( var i = 0; i < 100000; i++ ) {
+                    var id = Cuid.UNIQUE.nextLong();
+                    if( id <= previous ) violations.add( id + " <= " + previous );
+                    ids.add( previous = id );
+                }
+            } );
+            threads[t].start();
+        }
+        for( var thread : threads ) thread.join();
+
+        assertThat( violations ).isEmpty();
+        assertThat( ids ).hasSize( threads.length * 100000 );
+    }
+
+    @Test
+    public void clockDrift() {
+        var generator = new IncrementalUniqueValueGenerator();
+        long value = 0;
+        for( var i = 0; i < 1000000; i++ ) value = generator.next();
 
+        var millis = value >>> ( IncrementalUniqueValueGenerator.STRIPE_BITS + IncrementalUniqueValueGenerator.SEQUENCE_BITS );
+        assertThat( millis - System.currentTimeMillis() ).isLessThan( 100 );
+    }
+
+    @Test
+    public void format() {
+        var cuid = ( Cuid.UniqueCuid ) Cuid.UNIQUE;
+        var buffer = new char[Cuid.UniqueCuid.LENGTH + 2];
+
+        var length = cuid.next( buffer, 2 );
+        assertThat( new String( buffer, 2, length ) ).isEqualTo( cuid.last() );
+        assertThat( cuid.next( new StringBuilder( "id:" ) ).toString() ).isEqualTo( "id:" + cuid.last() );
+    }
+}
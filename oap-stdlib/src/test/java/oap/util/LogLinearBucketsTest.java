@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.util;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LogLinearBucketsTest {
+    @Test
+    public void roundTrip() {
+        for( var subBits : new int[] { 6, 7 } ) {
+            var buckets = new LogLinearBuckets( subBits );
+            for( var value : new long[] { 0, 1, 63, 64, 65, 127, 128, 129, 255, 256, 1000, 123456789, Long.MAX_VALUE } ) {
+                var index = buckets.index( value );
+                assertThat( buckets.index( buckets.value( index ) ) ).isEqualTo( index );
+                assertThat( buckets.value( index ) ).isCloseTo( value, within( Math.max( value >> ( subBits - 1 ), 1 ) ) );
+            }
+            assertThat( buckets.size( Long.MAX_VALUE ) ).isEqualTo( buckets.index( Long.MAX_VALUE ) + 1 );
+        }
+    }
+
+    @Test
+    public void percentile() {
+        var buckets = new LogLinearBuckets( 6 );
+        var counts = new long[buckets.size( 10000 )];
+        for( var i = 1; i <= 10000; i++ ) counts[buckets.index( i )]++;
+
+        assertThat( buckets.percentile( counts, 10000, 50, 10000 ) ).isCloseTo( 5000L, within( 5000L / 32 ) );
+        assertThat( buckets.percentile( counts, 10000, 100, 10000 ) ).isEqualTo( 10000 );
+        assertThat( buckets.percentile( new long[counts.length], 0, 50, 0 ) ).isZero();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.joda.time.DateTimeUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class StripedHistogramTest {
+    private static final long SECOND = 1000;
+
+    @AfterMethod
+    public void afterMethod() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void concurrentRecord() throws InterruptedException {
+        DateTimeUtils.setCurrentMillisFixed( 0 );
+        var histogram = new StripedHistogram( 1_000_000, SECOND, 5, 4 );
+
+        var threads = new ArrayList<Thread>();
+        for( var t = 0; t < 8; t++ ) {
+            var thread = new Thread( () -> {
+                for( var i = 1; i <= 10000; i++ ) histogram.record( i );
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+        for( var thread : threads ) thread.join();
+
+        var snapshot = histogram.snapshot();
+        assertThat( snapshot.count ).isEqualTo( 80000 );
+        assertThat( snapshot.sum ).isEqualTo( 8 * 10000L * 10001 / 2 );
+        assertThat( snapshot.percentile( 50 ) ).isCloseTo( 5000L, within( 5000L / 16 ) );
+        assertThat( snapshot.percentile( 99 ) ).isCloseTo( 9900L, within( 9900L / 16 ) );
+        assertThat( snapshot.max() ).isCloseTo( 10000L, within( 10000L / 16 ) );
+    }
+
+    @Test
+    public void slidingWindow() {
+        DateTimeUtils.setCurrentMillisFixed( 0 );
+        var histogram = new StripedHistogram( 1_000_000, SECOND, 3 );
+        histogram.record( 10 );
+
+        DateTimeUtils.setCurrentMillisFixed( SECOND + 10 );
+        histogram.record( 20 );
+        assertThat( histogram.snapshot().count ).isEqualTo( 2 );
+
+        DateTimeUtils.setCurrentMillisFixed( 3 * SECOND + 10 );
+        assertThat( histogram.snapshot().count ).isEqualTo( 1 );
+
+        DateTimeUtils.setCurrentMillisFixed( 100 * SECOND );
+        assertThat( histogram.snapshot().count ).isZero();
+        histogram.record( 30 );
+        assertThat( histogram.snapshot().count ).isEqualTo( 1 );
+        assertThat( histogram.snapshot().percentile( 50 ) ).isEqualTo( 30 );
+    }
+
+    @Test
+    public void maxValue() {
+        var histogram = new StripedHistogram( 1000, SECOND, 1 );
+        histogram.record( 1_000_000 );
+        histogram.record( -1 );
+
+        var snapshot = histogram.snapshot();
+        assertThat( snapshot.max() ).isCloseTo( 1000L, within( 1000L / 16 ) );
+        assertThat( snapshot.percentile( 50 ) ).isZero();
+    }
+
+    @Test
+    public void merge() {
+        var a = new StripedHistogram( 1000, SECOND, 1 );
+        var b = new StripedHistogram( 100_000, SECOND, 1 );
+        a.record( 10 );
+        b.record( 50_000 );
+
+        var merged = a.snapshot().merge( b.snapshot() );
+        assertThat( merged.count ).isEqualTo( 2 );
+        assertThat( merged.percentile( 50 ) ).isEqualTo( 10 );
+        assertThat( merged.max() ).isCloseTo( 50_000L, within( 50_000L / 16 ) );
+    }
+
+    @Test
+    public void micrometer() {
+        var registry = new SimpleMeterRegistry();
+        var histogram = new StripedHistogram( 1_000_000, SECOND, 5 ).bindTo( registry, "latency", Tags.of( "handler", "test" ) );
+        for( var i = 1; i <= 100; i++ ) histogram.record( i );
+
+        assertThat( registry.get( "latency" ).tag( "quantile", "0.5" ).gauge().value() ).isEqualTo( 50 );
+        assertThat( registry.get( "latency_count" ).gauge().value() ).isEqualTo( 100 );
+    }
+}
@@ -0,0 +1,50 @@
+var a0 = "static resource content";
+var a1 = "static resource content";
+var a2 = "static resource content";
+var a3 = "static resource content";
+var a4 = "static resource content";
+var a5 = "static resource content";
+var a6 = "static resource content";
+var a7 = "static resource content";
+var a8 = "static resource content";
+var a9 = "static resource content";
+var a10 = "static resource content";
+var a11 = "static resource content";
+var a12 = "static resource content";
+var a13 = "static resource content";
+var a14 = "static resource content";
+var a15 = "static resource content";
+var a16 = "static resource content";
+var a17 = "static resource content";
+var a18 = "static resource content";
+var a19 = "static resource content";
+var a20 = "static resource content";
+var a21 = "static resource content";
+var a22 = "static resource content";
+var a23 = "static resource content";
+var a24 = "static resource content";
+var a25 = "static resource content";
+var a26 = "static resource content";
+var a27 = "static resource content";
+var a28 = "static resource content";
+var a29 = "static resource content";
+var a30 = "static resource content";
+var a31 = "static resource content";
+var a32 = "static resource content";
+var a33 = "static resource content";
+var a34 = "static resource content";
+var a35 = "static resource content";
+var a36 = "static resource content";
+var a37 = "static resource content";
+var a38 = "static resource content";
+var a39 = "static resource content";
+var a40 = "static resource content";
+var a41 = "static resource content";
+var a42 = "static resource content";
+var a43 = "static resource content";
+var a44 = "static resource content";
+var a45 = "static resource content";
+var a46 = "static resource content";
+var a47 = "static resource content";
+var a48 = "static resource content";
+var a49 = "static resource content";